@@ -7,6 +7,8 @@ open module org.jetbrains.plugins.github {
     requires com.intellij.git;
 
     requires commons.httpclient;
+    requires java.net.http;
+    requires java.management;
 
     requires com.google.gson;
 
@@ -37,6 +37,7 @@ import consulo.versionControlSystem.change.ChangeListManager;
 import consulo.virtualFileSystem.VirtualFile;
 import org.jetbrains.plugins.github.api.GithubApiUtil;
 import org.jetbrains.plugins.github.api.GithubGist;
+import org.jetbrains.plugins.github.api.GithubTraceRecorder;
 import org.jetbrains.plugins.github.exceptions.GithubAuthenticationCanceledException;
 import org.jetbrains.plugins.github.ui.GithubCreateGistDialog;
 import org.jetbrains.plugins.github.util.GithubAuthData;
@@ -101,6 +102,7 @@ public class GithubCreateGistAction extends DumbAwareAction {
             return;
         }
 
+        GithubTraceRecorder.actionStarted("Create Gist");
         createGistAction(project, editor, file, files);
     }
 
@@ -66,6 +66,7 @@ import java.awt.*;
 import java.io.IOException;
 import java.util.List;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 import static org.jetbrains.plugins.github.util.GithubUtil.setVisibleEnabled;
@@ -115,6 +116,7 @@ public class GithubCreatePullRequestAction extends DumbAwareAction {
             return;
         }
 
+        GithubTraceRecorder.actionStarted("Create Pull Request");
         createPullRequest(project, file);
     }
 
@@ -234,7 +236,8 @@ public class GithubCreatePullRequestAction extends DumbAwareAction {
                         userAndRepo.getRepository()
                     ))
                 );
-                List<RemoteBranch> branches = loadAvailableBranchesFromGithub(project, auth, reposRef.get(), upstreamUserAndRepo);
+                List<RemoteBranch> branches =
+                    loadAvailableBranchesFromGithub(project, indicator, auth, reposRef.get(), upstreamUserAndRepo);
                 return new GithubInfo(auth, reposRef.get(), branches);
             });
         }
@@ -348,45 +351,61 @@ public class GithubCreatePullRequestAction extends DumbAwareAction {
     @Nonnull
     private static List<RemoteBranch> loadAvailableBranchesFromGithub(
         @Nonnull final Project project,
+        @Nonnull final ProgressIndicator indicator,
         @Nonnull final GithubAuthData auth,
         @Nonnull final GithubRepoDetailed repo,
         @Nullable final GithubFullPath upstreamPath
     ) {
-        List<RemoteBranch> result = new ArrayList<>();
-        try {
-            final GithubRepo parent = repo.getParent();
-            final GithubRepo source = repo.getSource();
+        final GithubRepo parent = repo.getParent();
+        final GithubRepo source = repo.getSource();
 
-            if (parent != null) {
-                result.addAll(getBranches(auth, parent.getUserName(), parent.getName()));
-            }
+        // branches of all related repositories are loaded at the same time
+        List<CompletableFuture<List<RemoteBranch>>> requests = new ArrayList<>();
+        if (parent != null) {
+            requests.add(getBranches(auth, parent.getUserName(), parent.getName()));
+        }
 
-            result.addAll(getBranches(auth, repo.getUserName(), repo.getName()));
+        requests.add(getBranches(auth, repo.getUserName(), repo.getName()));
 
-            if (source != null && !equals(source, parent)) {
-                result.addAll(getBranches(auth, source.getUserName(), source.getName()));
-            }
+        if (source != null && !equals(source, parent)) {
+            requests.add(getBranches(auth, source.getUserName(), source.getName()));
+        }
 
-            if (upstreamPath != null && !equals(upstreamPath, repo)
-                && !equals(upstreamPath, parent)
-                && !equals(upstreamPath, source)) {
-                result.addAll(getBranches(auth, upstreamPath.getUser(), upstreamPath.getRepository()));
+        if (upstreamPath != null && !equals(upstreamPath, repo)
+            && !equals(upstreamPath, parent)
+            && !equals(upstreamPath, source)) {
+            requests.add(getBranches(auth, upstreamPath.getUser(), upstreamPath.getRepository()));
+        }
+
+        List<RemoteBranch> result = new ArrayList<>();
+        try {
+            for (CompletableFuture<List<RemoteBranch>> request : requests) {
+                // cancelling the progress stops all the listings
+                result.addAll(GithubApiAsync.await(request, indicator::isCanceled));
             }
         }
         catch (IOException e) {
+            indicator.checkCanceled();
             GithubNotifications.showError(project, "Can't load available branches", e);
         }
+        finally {
+            for (CompletableFuture<List<RemoteBranch>> request : requests) {
+                request.cancel(true);
+            }
+        }
         return result;
     }
 
     @Nonnull
-    private static List<RemoteBranch> getBranches(
+    private static CompletableFuture<List<RemoteBranch>> getBranches(
         @Nonnull GithubAuthData auth,
         @Nonnull final String user,
         @Nonnull final String repo
-    ) throws IOException {
-        List<GithubBranch> branches = GithubApiUtil.getRepoBranches(auth, user, repo);
-        return ContainerUtil.map(branches, branch -> new RemoteBranch(user, branch.getName(), repo));
+    ) {
+        return GithubApiAsync.submit(() -> {
+            List<GithubBranch> branches = GithubApiUtil.getRepoBranches(auth, user, repo);
+            return ContainerUtil.map(branches, branch -> new RemoteBranch(user, branch.getName(), repo));
+        });
     }
 
     private static boolean equals(@Nonnull GithubRepo repo1, @Nullable GithubRepo repo2) {
@@ -43,6 +43,7 @@ import git4idea.util.GitPreservingProcess;
 import org.jetbrains.plugins.github.api.GithubApiUtil;
 import org.jetbrains.plugins.github.api.GithubFullPath;
 import org.jetbrains.plugins.github.api.GithubRepoDetailed;
+import org.jetbrains.plugins.github.api.GithubTraceRecorder;
 import org.jetbrains.plugins.github.exceptions.GithubAuthenticationCanceledException;
 import org.jetbrains.plugins.github.util.GithubNotifications;
 import org.jetbrains.plugins.github.util.GithubSettings;
@@ -104,6 +105,7 @@ public class GithubRebaseAction extends DumbAwareAction {
             return;
         }
 
+        GithubTraceRecorder.actionStarted("Rebase GitHub fork");
         rebaseMyGithubFork(project, file);
     }
 
@@ -0,0 +1,57 @@
+package org.jetbrains.plugins.github;
+
+import consulo.github.icon.GitHubIconGroup;
+import consulo.project.Project;
+import consulo.ui.annotation.RequiredUIAccess;
+import consulo.ui.ex.action.AnActionEvent;
+import consulo.ui.ex.action.DumbAwareAction;
+import org.jetbrains.plugins.github.api.GithubTraceRecorder;
+import org.jetbrains.plugins.github.util.GithubNotifications;
+
+import jakarta.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Starts recording the GitHub API requests, and on the second invocation stops and exports them as a HAR file.
+ */
+public class GithubRecordApiTraceAction extends DumbAwareAction {
+    private static final String TITLE = "GitHub API Trace";
+
+    public GithubRecordApiTraceAction() {
+        super("Record GitHub API Trace", "Record GitHub API requests with their timings and export them as a HAR file", GitHubIconGroup.github_icon());
+    }
+
+    @Override
+    @RequiredUIAccess
+    public void update(@Nonnull AnActionEvent e) {
+        e.getPresentation().setText(
+            GithubTraceRecorder.getInstance().isRecording() ? "Stop Recording GitHub API Trace" : "Record GitHub API Trace"
+        );
+    }
+
+    @Override
+    @RequiredUIAccess
+    public void actionPerformed(@Nonnull AnActionEvent e) {
+        Project project = e.getData(Project.KEY);
+        GithubTraceRecorder recorder = GithubTraceRecorder.getInstance();
+        if (!recorder.isRecording()) {
+            recorder.start();
+            GithubNotifications.showInfoDialog(
+                project,
+                TITLE,
+                "Recording GitHub API requests. Reproduce the problem, then stop recording to export the trace."
+            );
+            return;
+        }
+
+        recorder.stop();
+        try {
+            Path file = recorder.exportToLogDirectory();
+            GithubNotifications.showInfoDialog(project, TITLE, "The trace is saved to " + file);
+        }
+        catch (IOException ex) {
+            GithubNotifications.showErrorDialog(project, TITLE, ex);
+        }
+    }
+}
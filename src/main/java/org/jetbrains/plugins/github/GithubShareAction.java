@@ -53,6 +53,7 @@ import git4idea.util.GitFileUtils;
 import git4idea.util.GitUIUtil;
 import org.jetbrains.plugins.github.api.GithubApiUtil;
 import org.jetbrains.plugins.github.api.GithubRepo;
+import org.jetbrains.plugins.github.api.GithubTraceRecorder;
 import org.jetbrains.plugins.github.api.GithubUserDetailed;
 import org.jetbrains.plugins.github.exceptions.GithubAuthenticationCanceledException;
 import org.jetbrains.plugins.github.ui.GithubShareDialog;
@@ -112,6 +113,7 @@ public class GithubShareAction extends DumbAwareAction {
             return;
         }
 
+        GithubTraceRecorder.actionStarted("Share on GitHub");
         shareProjectOnGithub(project, file);
     }
 
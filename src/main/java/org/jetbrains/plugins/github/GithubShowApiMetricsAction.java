@@ -0,0 +1,25 @@
+package org.jetbrains.plugins.github;
+
+import consulo.github.icon.GitHubIconGroup;
+import consulo.project.Project;
+import consulo.ui.annotation.RequiredUIAccess;
+import consulo.ui.ex.action.AnActionEvent;
+import consulo.ui.ex.action.DumbAwareAction;
+import org.jetbrains.plugins.github.ui.GithubApiMetricsDialog;
+
+import jakarta.annotation.Nonnull;
+
+/**
+ * Diagnostic view of the GitHub API requests made in this session.
+ */
+public class GithubShowApiMetricsAction extends DumbAwareAction {
+    public GithubShowApiMetricsAction() {
+        super("GitHub API Metrics", "Show latency, traffic and rate limit statistics of GitHub API requests", GitHubIconGroup.github_icon());
+    }
+
+    @Override
+    @RequiredUIAccess
+    public void actionPerformed(@Nonnull AnActionEvent e) {
+        new GithubApiMetricsDialog(e.getData(Project.KEY)).show();
+    }
+}
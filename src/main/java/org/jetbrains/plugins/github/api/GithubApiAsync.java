@@ -0,0 +1,359 @@
+package org.jetbrains.plugins.github.api;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.jetbrains.plugins.github.util.GithubAuthData;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Non-blocking counterparts of the {@link GithubApiUtil} operations.
+ * <p/>
+ * Operations run in a bounded pool and inherit the {@link GithubRequestContext} of the calling thread.
+ * Cancelling a returned future aborts the HTTP requests of the operation, including prefetched pages,
+ * and wakes it up if it is waiting for a retry or for the rate limit.
+ */
+public final class GithubApiAsync {
+    private static final long CANCELLATION_CHECK_INTERVAL = 50;
+
+    private GithubApiAsync() {
+    }
+
+    /**
+     * Runs any sequence of blocking {@link GithubApiUtil} calls as one cancellable operation.
+     */
+    @Nonnull
+    public static <T> CompletableFuture<T> submit(@Nonnull GithubRequestContext.Request<T> operation) {
+        return submit(operation, GithubApiExecutors.getOperationExecutor());
+    }
+
+    /**
+     * Runs an operation nobody is waiting for, e.g. a prefetch, in a {@link GithubRequestContext#background background}
+     * context. It runs in a small pool of its own, so that waiting for the rate limit it doesn't hold up the others.
+     */
+    @Nonnull
+    public static <T> CompletableFuture<T> submitInBackground(@Nonnull GithubRequestContext.Request<T> operation) {
+        return submit(() -> GithubRequestContext.background(operation), GithubApiExecutors.getBackgroundOperationExecutor());
+    }
+
+    @Nonnull
+    private static <T> CompletableFuture<T> submit(@Nonnull GithubRequestContext.Request<T> operation, @Nonnull Executor executor) {
+        GithubCancellation cancellation = new GithubCancellation();
+        GithubRequestContext context = GithubRequestContext.current().withCancellation(cancellation);
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                cancellation.cancel();
+            }
+        });
+        executor.execute(() -> {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                future.complete(GithubRequestContext.runIn(context, operation));
+            }
+            catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Waits for an operation started here, for use in code that is blocking anyway (e.g. under a progress).
+     *
+     * @throws IOException the failure of the operation
+     */
+    public static <T> T await(@Nonnull Future<T> future) throws IOException {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for GitHub response");
+        }
+        catch (CancellationException e) {
+            throw new InterruptedIOException("GitHub request cancelled");
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Waits for an operation started here, cancelling it as soon as the caller is no longer interested,
+     * e.g. when its progress is cancelled.
+     *
+     * @param isCanceled checked periodically while the operation runs
+     * @throws InterruptedIOException if the operation is cancelled
+     */
+    public static <T> T await(@Nonnull Future<T> future, @Nonnull BooleanSupplier isCanceled) throws IOException {
+        while (!future.isDone()) {
+            if (isCanceled.getAsBoolean()) {
+                future.cancel(true);
+                break;
+            }
+            try {
+                future.get(CANCELLATION_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+            }
+            catch (TimeoutException | ExecutionException | CancellationException ignored) {
+                // the outcome is reported by await(future)
+            }
+            catch (InterruptedException e) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for GitHub response");
+            }
+        }
+        return await(future);
+    }
+
+    @Nonnull
+    public static CompletableFuture<Collection<String>> getTokenScopes(@Nonnull GithubAuthData auth) {
+        return submit(() -> GithubApiUtil.getTokenScopes(auth));
+    }
+
+    @Nonnull
+    public static CompletableFuture<String> getScopedToken(
+        @Nonnull GithubAuthData auth,
+        @Nonnull Collection<String> scopes,
+        @Nullable String note
+    ) {
+        return submit(() -> GithubApiUtil.getScopedToken(auth, scopes, note));
+    }
+
+    @Nonnull
+    public static CompletableFuture<String> getReadOnlyToken(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String user,
+        @Nonnull String repo,
+        @Nullable String note
+    ) {
+        return submit(() -> GithubApiUtil.getReadOnlyToken(auth, user, repo, note));
+    }
+
+    @Nonnull
+    public static CompletableFuture<GithubUser> getCurrentUser(@Nonnull GithubAuthData auth) {
+        return submit(() -> GithubApiUtil.getCurrentUser(auth));
+    }
+
+    @Nonnull
+    public static CompletableFuture<GithubUserDetailed> getCurrentUserDetailed(@Nonnull GithubAuthData auth) {
+        return submit(() -> GithubApiUtil.getCurrentUserDetailed(auth));
+    }
+
+    @Nonnull
+    public static CompletableFuture<List<GithubRepo>> getUserRepos(@Nonnull GithubAuthData auth) {
+        return submit(() -> GithubApiUtil.getUserRepos(auth));
+    }
+
+    @Nonnull
+    public static CompletableFuture<List<GithubRepo>> getUserRepos(@Nonnull GithubAuthData auth, @Nonnull String user) {
+        return submit(() -> GithubApiUtil.getUserRepos(auth, user));
+    }
+
+    @Nonnull
+    public static CompletableFuture<List<GithubRepo>> getAvailableRepos(@Nonnull GithubAuthData auth) {
+        return submit(() -> GithubApiUtil.getAvailableRepos(auth));
+    }
+
+    @Nonnull
+    public static CompletableFuture<GithubRepoDetailed> getDetailedRepoInfo(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String owner,
+        @Nonnull String name
+    ) {
+        return submit(() -> GithubApiUtil.getDetailedRepoInfo(auth, owner, name));
+    }
+
+    @Nonnull
+    public static CompletableFuture<Void> deleteGithubRepository(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String username,
+        @Nonnull String repo
+    ) {
+        return submit(() -> {
+            GithubApiUtil.deleteGithubRepository(auth, username, repo);
+            return null;
+        });
+    }
+
+    @Nonnull
+    public static CompletableFuture<Void> deleteGist(@Nonnull GithubAuthData auth, @Nonnull String id) {
+        return submit(() -> {
+            GithubApiUtil.deleteGist(auth, id);
+            return null;
+        });
+    }
+
+    @Nonnull
+    public static CompletableFuture<GithubGist> getGist(@Nonnull GithubAuthData auth, @Nonnull String id) {
+        return submit(() -> GithubApiUtil.getGist(auth, id));
+    }
+
+    @Nonnull
+    public static CompletableFuture<GithubGist> createGist(
+        @Nonnull GithubAuthData auth,
+        @Nonnull List<GithubGist.FileContent> contents,
+        @Nonnull String description,
+        boolean isPrivate
+    ) {
+        return submit(() -> GithubApiUtil.createGist(auth, contents, description, isPrivate));
+    }
+
+    @Nonnull
+    public static CompletableFuture<GithubPullRequest> createPullRequest(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String user,
+        @Nonnull String repo,
+        @Nonnull String title,
+        @Nonnull String description,
+        @Nonnull String from,
+        @Nonnull String onto
+    ) {
+        return submit(() -> GithubApiUtil.createPullRequest(auth, user, repo, title, description, from, onto));
+    }
+
+    @Nonnull
+    public static CompletableFuture<GithubRepo> createRepo(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String name,
+        @Nonnull String description,
+        boolean isPublic
+    ) {
+        return submit(() -> GithubApiUtil.createRepo(auth, name, description, isPublic));
+    }
+
+    @Nonnull
+    public static CompletableFuture<List<GithubIssue>> getIssuesAssigned(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String user,
+        @Nonnull String repo,
+        @Nullable String assigned
+    ) {
+        return submit(() -> GithubApiUtil.getIssuesAssigned(auth, user, repo, assigned));
+    }
+
+    @Nonnull
+    public static CompletableFuture<List<GithubIssue>> getIssuesQueried(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String user,
+        @Nonnull String repo,
+        @Nullable String query
+    ) {
+        return submit(() -> GithubApiUtil.getIssuesQueried(auth, user, repo, query));
+    }
+
+    @Nonnull
+    public static CompletableFuture<GithubIssue> getIssue(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String user,
+        @Nonnull String repo,
+        @Nonnull String id
+    ) {
+        return submit(() -> GithubApiUtil.getIssue(auth, user, repo, id));
+    }
+
+    @Nonnull
+    public static CompletableFuture<List<GithubIssueComment>> getIssueComments(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String user,
+        @Nonnull String repo,
+        long id
+    ) {
+        return submit(() -> GithubApiUtil.getIssueComments(auth, user, repo, id));
+    }
+
+    @Nonnull
+    public static CompletableFuture<GithubCommitDetailed> getCommit(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String user,
+        @Nonnull String repo,
+        @Nonnull String sha
+    ) {
+        return submit(() -> GithubApiUtil.getCommit(auth, user, repo, sha));
+    }
+
+    @Nonnull
+    public static CompletableFuture<GithubPullRequest> getPullRequest(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String user,
+        @Nonnull String repo,
+        int id
+    ) {
+        return submit(() -> GithubApiUtil.getPullRequest(auth, user, repo, id));
+    }
+
+    @Nonnull
+    public static CompletableFuture<List<GithubPullRequest>> getPullRequests(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String user,
+        @Nonnull String repo
+    ) {
+        return submit(() -> GithubApiUtil.getPullRequests(auth, user, repo));
+    }
+
+    @Nonnull
+    public static CompletableFuture<List<GithubCommit>> getPullRequestCommits(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String user,
+        @Nonnull String repo,
+        long id
+    ) {
+        return submit(() -> GithubApiUtil.getPullRequestCommits(auth, user, repo, id));
+    }
+
+    @Nonnull
+    public static CompletableFuture<List<GithubFile>> getPullRequestFiles(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String user,
+        @Nonnull String repo,
+        long id
+    ) {
+        return submit(() -> GithubApiUtil.getPullRequestFiles(auth, user, repo, id));
+    }
+
+    @Nonnull
+    public static CompletableFuture<List<GithubBranch>> getRepoBranches(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String user,
+        @Nonnull String repo
+    ) {
+        return submit(() -> GithubApiUtil.getRepoBranches(auth, user, repo));
+    }
+
+    /**
+     * The future completes with null if there is no such fork.
+     */
+    @Nonnull
+    public static CompletableFuture<GithubRepo> findForkByUser(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String user,
+        @Nonnull String repo,
+        @Nonnull String forkUser
+    ) {
+        return submit(() -> GithubApiUtil.findForkByUser(auth, user, repo, forkUser));
+    }
+}
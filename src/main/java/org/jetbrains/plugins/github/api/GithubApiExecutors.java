@@ -0,0 +1,72 @@
+package org.jetbrains.plugins.github.api;
+
+import jakarta.annotation.Nonnull;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pools for background HTTP requests.
+ * <p/>
+ * The request pool runs requests issued by {@link GithubApiUtil} itself (page prefetch and similar);
+ * tasks submitted there must never block on other tasks of that pool, otherwise the pool can starve.
+ * Whole API operations started via {@link GithubApiAsync} run in a separate pool, since they wait for their pages.
+ * Operations nobody waits for (e.g. prefetches) have a small pool of their own: the rate limiter may hold them
+ * for a long time, and they must not take the threads of the operations the user is waiting for.
+ */
+final class GithubApiExecutors {
+    private static final int MAX_REQUEST_THREADS = 8;
+    private static final int MAX_OPERATION_THREADS = 8;
+    private static final int MAX_BACKGROUND_OPERATION_THREADS = 2;
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    @Nonnull
+    private static final ExecutorService ourRequestExecutor = createExecutor("GitHub API request", MAX_REQUEST_THREADS);
+    @Nonnull
+    private static final ExecutorService ourOperationExecutor = createExecutor("GitHub API operation", MAX_OPERATION_THREADS);
+    @Nonnull
+    private static final ExecutorService ourBackgroundOperationExecutor =
+        createExecutor("GitHub API background operation", MAX_BACKGROUND_OPERATION_THREADS);
+
+    private GithubApiExecutors() {
+    }
+
+    @Nonnull
+    static ExecutorService getRequestExecutor() {
+        return ourRequestExecutor;
+    }
+
+    @Nonnull
+    static ExecutorService getOperationExecutor() {
+        return ourOperationExecutor;
+    }
+
+    @Nonnull
+    static ExecutorService getBackgroundOperationExecutor() {
+        return ourBackgroundOperationExecutor;
+    }
+
+    @Nonnull
+    private static ExecutorService createExecutor(@Nonnull String name, int maxThreads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread thread = new Thread(r, name + " " + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            maxThreads,
+            maxThreads,
+            KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            factory
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
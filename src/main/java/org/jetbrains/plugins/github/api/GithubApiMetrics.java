@@ -0,0 +1,973 @@
+package org.jetbrains.plugins.github.api;
+
+import consulo.logging.Logger;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.jetbrains.plugins.github.util.GithubAuthData;
+import org.jetbrains.plugins.github.util.GithubUtil;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Statistics of the requests made by {@link GithubApiUtil}, grouped by endpoint template,
+ * e.g. {@code GET /repos/{owner}/{repo}/branches}.
+ * <p/>
+ * Every attempt is recorded separately, with the time to the response headers (including connection setup,
+ * which the transports don't report separately), the time spent receiving the body and the time spent decoding it.
+ * Requests merged by {@link GithubSingleFlight} and pages served from memory are not counted, since they send nothing.
+ * <p/>
+ * The requests are also counted per account and feature, the user action they are made for: the action of the
+ * {@link GithubRequestContext#action context}, or else the last one reported with {@link #actionStarted},
+ * which is approximate while several actions run at the same time.
+ * Together with the rate limits tracked by {@link GithubRateLimiter} they tell the load put on every server.
+ * <p/>
+ * The statistics are exposed over JMX as {@value #OBJECT_NAME}.
+ */
+public final class GithubApiMetrics implements GithubApiMetricsMXBean {
+    public static final String OBJECT_NAME = "org.jetbrains.plugins.github:type=ApiMetrics";
+
+    private static final Logger LOG = GithubUtil.LOG;
+
+    // upper bounds of the latency histogram buckets, in milliseconds
+    private static final long[] BUCKET_BOUNDS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 30000};
+    // unexpected paths must not grow the registry without limit
+    private static final int MAX_ENDPOINTS = 500;
+    private static final String OTHER_ENDPOINT = "(other)";
+    private static final int MAX_FEATURES = 200;
+    private static final String BACKGROUND_FEATURE = "Background requests";
+    private static final String OTHER_FEATURE = "Other requests";
+
+    private static final Pattern NUMBER_PATTERN = Pattern.compile("\\d+");
+    private static final Pattern SHA_PATTERN = Pattern.compile("[0-9a-fA-F]{40}");
+    private static final Set<String> REF_COLLECTIONS = Set.of("branches", "commits", "compare", "refs", "tags");
+
+    private static final GithubApiMetrics ourInstance = createInstance();
+
+    private final Map<String, EndpointRecorder> myEndpoints = new ConcurrentHashMap<>();
+    private final Map<FeatureKey, FeatureRecorder> myFeatures = new ConcurrentHashMap<>();
+    @Nullable
+    private volatile String myCurrentAction;
+
+    private GithubApiMetrics() {
+    }
+
+    @Nonnull
+    public static GithubApiMetrics getInstance() {
+        return ourInstance;
+    }
+
+    @Nonnull
+    private static GithubApiMetrics createInstance() {
+        GithubApiMetrics metrics = new GithubApiMetrics();
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                // left by a previously loaded instance of the plugin
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(metrics, name);
+        }
+        catch (JMException e) {
+            LOG.info("Can't register GitHub API metrics", e);
+        }
+        return metrics;
+    }
+
+    /**
+     * Reports an action started by the user, the following requests without an action of their own are attributed to it.
+     */
+    public void actionStarted(@Nonnull String name) {
+        myCurrentAction = name;
+    }
+
+    /**
+     * @return name of the account shown to the user; tokens are told apart by a hash, so they are never revealed
+     */
+    @Nonnull
+    static String getAccountName(@Nonnull GithubAuthData auth) {
+        GithubAuthData.BasicAuth basicAuth = auth.getBasicAuth();
+        if (basicAuth != null) {
+            return basicAuth.getLogin();
+        }
+        if (auth.getTokenAuth() != null) {
+            String identity = GithubResponseCache.getIdentity(auth);
+            return "token " + identity.substring(identity.indexOf('#') + 1, identity.indexOf('#') + 9);
+        }
+        return "anonymous";
+    }
+
+    /**
+     * @return the request path with the query and the request specific segments (names, numbers, hashes) removed
+     */
+    @Nonnull
+    static String getEndpointTemplate(@Nonnull String path) {
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+
+        StringBuilder template = new StringBuilder();
+        String collection = null;
+        String previous = null;
+        int index = 0;
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (index == 0) {
+                collection = segment;
+            }
+
+            String name = segment;
+            if ("repos".equals(collection) && index == 1) {
+                name = "{owner}";
+            }
+            else if ("repos".equals(collection) && index == 2) {
+                name = "{repo}";
+            }
+            else if (("users".equals(collection) || "orgs".equals(collection) || "gists".equals(collection)) && index == 1) {
+                name = "gists".equals(collection) ? "{id}" : "users".equals(collection) ? "{user}" : "{org}";
+            }
+            else if (NUMBER_PATTERN.matcher(segment).matches()) {
+                name = "{number}";
+            }
+            else if (SHA_PATTERN.matcher(segment).matches()) {
+                name = "{sha}";
+            }
+            else if (previous != null && REF_COLLECTIONS.contains(previous)) {
+                name = "{ref}";
+            }
+            index++;
+            if ("{ref}".equals(name)) {
+                // everything after a reference is a part of its name, e.g. a branch named "feature/x"
+                template.append("/{ref}");
+                break;
+            }
+            template.append('/').append(name);
+            previous = segment;
+        }
+        return template.length() == 0 ? "/" : template.toString();
+    }
+
+    /**
+     * Starts recording an attempt of the request, which must be {@link Exchange#finish() finished}.
+     */
+    @Nonnull
+    Exchange start(@Nonnull GithubAuthData auth, @Nonnull String method, @Nonnull String path) {
+        return new Exchange(method + " " + getEndpointTemplate(path), new FeatureKey(auth.getHost(), getAccountName(auth), getFeature()));
+    }
+
+    @Nonnull
+    private String getFeature() {
+        GithubRequestContext context = GithubRequestContext.current();
+        String action = context.getAction();
+        if (action != null) {
+            return action;
+        }
+        if (context.isBackground()) {
+            return BACKGROUND_FEATURE;
+        }
+        String currentAction = myCurrentAction;
+        return currentAction != null ? currentAction : OTHER_FEATURE;
+    }
+
+    private void record(@Nonnull Exchange exchange) {
+        String endpoint = exchange.myEndpoint;
+        EndpointRecorder recorder = myEndpoints.get(endpoint);
+        if (recorder == null) {
+            if (myEndpoints.size() >= MAX_ENDPOINTS) {
+                endpoint = OTHER_ENDPOINT;
+            }
+            recorder = myEndpoints.computeIfAbsent(endpoint, EndpointRecorder::new);
+        }
+        recorder.record(exchange);
+
+        FeatureKey feature = exchange.myFeature;
+        FeatureRecorder featureRecorder = myFeatures.get(feature);
+        if (featureRecorder == null) {
+            if (myFeatures.size() >= MAX_FEATURES) {
+                feature = new FeatureKey(feature.myHost, feature.myAccount, OTHER_FEATURE);
+            }
+            featureRecorder = myFeatures.computeIfAbsent(feature, FeatureRecorder::new);
+        }
+        featureRecorder.record(exchange);
+    }
+
+    @Override
+    public long getRequestCount() {
+        long count = 0;
+        for (EndpointStatistics statistics : getEndpoints()) {
+            count += statistics.getRequests();
+        }
+        return count;
+    }
+
+    @Override
+    public long getFailureCount() {
+        long count = 0;
+        for (EndpointStatistics statistics : getEndpoints()) {
+            count += statistics.getFailures();
+        }
+        return count;
+    }
+
+    @Override
+    public long getResponseBytes() {
+        long bytes = 0;
+        for (EndpointStatistics statistics : getEndpoints()) {
+            bytes += statistics.getResponseBytes();
+        }
+        return bytes;
+    }
+
+    @Override
+    public double getCacheHitRatio() {
+        long hits = 0;
+        long misses = 0;
+        for (EndpointStatistics statistics : getEndpoints()) {
+            hits += statistics.getCacheHits();
+            misses += statistics.getCacheMisses();
+        }
+        return getRatio(hits, misses);
+    }
+
+    @Override
+    public long getSavedBytes() {
+        long bytes = 0;
+        for (FeatureStatistics statistics : getFeatures()) {
+            bytes += statistics.getSavedBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * @return statistics of every endpoint requested since the last {@link #reset}, sorted by endpoint
+     */
+    @Nonnull
+    @Override
+    public List<EndpointStatistics> getEndpoints() {
+        List<EndpointStatistics> result = new ArrayList<>();
+        for (EndpointRecorder recorder : myEndpoints.values()) {
+            result.add(recorder.snapshot());
+        }
+        result.sort(Comparator.comparing(EndpointStatistics::getEndpoint));
+        return result;
+    }
+
+    /**
+     * @return statistics of the requests made by every account for every feature since the last {@link #reset},
+     * sorted by host, account and feature
+     */
+    @Nonnull
+    @Override
+    public List<FeatureStatistics> getFeatures() {
+        List<FeatureStatistics> result = new ArrayList<>();
+        for (FeatureRecorder recorder : myFeatures.values()) {
+            result.add(recorder.snapshot());
+        }
+        result.sort(
+            Comparator.comparing(FeatureStatistics::getHost)
+                .thenComparing(FeatureStatistics::getAccount)
+                .thenComparing(FeatureStatistics::getFeature)
+        );
+        return result;
+    }
+
+    /**
+     * @return the last known rate limits of every account, they are not cleared by {@link #reset}
+     */
+    @Nonnull
+    @Override
+    public List<RateLimitStatistics> getRateLimits() {
+        return GithubRateLimiter.getInstance().getStatistics();
+    }
+
+    @Override
+    public void reset() {
+        myEndpoints.clear();
+        myFeatures.clear();
+    }
+
+    private static double getRatio(long hits, long misses) {
+        return hits + misses == 0 ? -1 : (double)hits / (hits + misses);
+    }
+
+    /**
+     * A single attempt of a request. Not thread-safe: it is used by the thread executing the request.
+     */
+    final class Exchange {
+        @Nonnull
+        private final String myEndpoint;
+        @Nonnull
+        private final FeatureKey myFeature;
+        private final long myStart = System.nanoTime();
+
+        private long myResponseNanos = -1;
+        private int myStatusCode;
+        private int myRateLimitRemaining = -1;
+        @Nullable
+        private Boolean myNotModified;
+        private long mySavedBytes;
+
+        private long myBodyNanos;
+        private long myBytes;
+        private long myDecodingStart = -1;
+        private long myDecodingBodyNanos;
+        private long myParseNanos = -1;
+
+        private Exchange(@Nonnull String endpoint, @Nonnull FeatureKey feature) {
+            myEndpoint = endpoint;
+            myFeature = feature;
+        }
+
+        void responseReceived(@Nonnull GithubHttpResponse response) {
+            myResponseNanos = System.nanoTime() - myStart;
+            myStatusCode = response.getStatusCode();
+            String remaining = response.getHeader("X-RateLimit-Remaining");
+            if (remaining != null) {
+                try {
+                    myRateLimitRemaining = Integer.parseInt(remaining.trim());
+                }
+                catch (NumberFormatException ignore) {
+                }
+            }
+        }
+
+        /**
+         * Called for conditional requests only.
+         *
+         * @param cachedBytes size of the cached response, which is not received again if it is not modified
+         */
+        void revalidated(boolean notModified, long cachedBytes) {
+            myNotModified = notModified;
+            mySavedBytes = notModified ? cachedBytes : 0;
+        }
+
+        /**
+         * @return the body, counting the bytes and the time spent waiting for them
+         */
+        @Nonnull
+        InputStream meter(@Nonnull InputStream body) {
+            return new FilterInputStream(body) {
+                @Override
+                public int read() throws IOException {
+                    long start = System.nanoTime();
+                    int read = super.read();
+                    myBodyNanos += System.nanoTime() - start;
+                    if (read >= 0) {
+                        myBytes++;
+                    }
+                    return read;
+                }
+
+                @Override
+                public int read(@Nonnull byte[] b, int off, int len) throws IOException {
+                    long start = System.nanoTime();
+                    int read = super.read(b, off, len);
+                    myBodyNanos += System.nanoTime() - start;
+                    if (read > 0) {
+                        myBytes += read;
+                    }
+                    return read;
+                }
+            };
+        }
+
+        /**
+         * @return number of the response body bytes received so far
+         */
+        long getResponseBytes() {
+            return myBytes;
+        }
+
+        void decodingStarted() {
+            myDecodingStart = System.nanoTime();
+            myDecodingBodyNanos = myBodyNanos;
+        }
+
+        /**
+         * The time spent waiting for the body is not a part of the decoding.
+         */
+        void decodingFinished() {
+            if (myDecodingStart >= 0) {
+                long elapsed = System.nanoTime() - myDecodingStart;
+                myParseNanos = Math.max(0, elapsed - (myBodyNanos - myDecodingBodyNanos));
+            }
+        }
+
+        void finish() {
+            record(this);
+        }
+    }
+
+    private static final class EndpointRecorder {
+        @Nonnull
+        private final String myEndpoint;
+
+        private long myRequests;
+        private long myFailures;
+        private final Map<String, Long> myStatusCodes = new TreeMap<>();
+        private final Histogram myTimeToFirstByte = new Histogram();
+        private final Histogram myBody = new Histogram();
+        private final Histogram myParse = new Histogram();
+        private final Histogram myTotal = new Histogram();
+        private long myResponseBytes;
+        private long myCacheHits;
+        private long myCacheMisses;
+        private int myRateLimitRemaining = -1;
+
+        EndpointRecorder(@Nonnull String endpoint) {
+            myEndpoint = endpoint;
+        }
+
+        synchronized void record(@Nonnull Exchange exchange) {
+            myRequests++;
+            myTotal.record(System.nanoTime() - exchange.myStart);
+            if (exchange.myResponseNanos < 0) {
+                myFailures++;
+                myStatusCodes.merge("none", 1L, Long::sum);
+                return;
+            }
+
+            myStatusCodes.merge(String.valueOf(exchange.myStatusCode), 1L, Long::sum);
+            if (exchange.myStatusCode >= 400) {
+                myFailures++;
+            }
+            myTimeToFirstByte.record(exchange.myResponseNanos);
+            if (exchange.myBytes > 0) {
+                myBody.record(exchange.myBodyNanos);
+                myResponseBytes += exchange.myBytes;
+            }
+            if (exchange.myParseNanos >= 0) {
+                myParse.record(exchange.myParseNanos);
+            }
+            if (exchange.myNotModified != null) {
+                if (exchange.myNotModified) {
+                    myCacheHits++;
+                }
+                else {
+                    myCacheMisses++;
+                }
+            }
+            if (exchange.myRateLimitRemaining >= 0) {
+                myRateLimitRemaining = exchange.myRateLimitRemaining;
+            }
+        }
+
+        @Nonnull
+        synchronized EndpointStatistics snapshot() {
+            return new EndpointStatistics(
+                myEndpoint,
+                myRequests,
+                myFailures,
+                new TreeMap<>(myStatusCodes),
+                myTimeToFirstByte.snapshot(),
+                myBody.snapshot(),
+                myParse.snapshot(),
+                myTotal.snapshot(),
+                myResponseBytes,
+                myCacheHits,
+                myCacheMisses,
+                myRateLimitRemaining
+            );
+        }
+    }
+
+    private static final class FeatureKey {
+        @Nonnull
+        private final String myHost;
+        @Nonnull
+        private final String myAccount;
+        @Nonnull
+        private final String myFeature;
+
+        FeatureKey(@Nonnull String host, @Nonnull String account, @Nonnull String feature) {
+            myHost = host;
+            myAccount = account;
+            myFeature = feature;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FeatureKey key)) {
+                return false;
+            }
+            return myHost.equals(key.myHost) && myAccount.equals(key.myAccount) && myFeature.equals(key.myFeature);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(myHost, myAccount, myFeature);
+        }
+    }
+
+    private static final class FeatureRecorder {
+        @Nonnull
+        private final FeatureKey myKey;
+
+        private long myRequests;
+        private long myFailures;
+        private long myResponseBytes;
+        private long myCacheHits;
+        private long myCacheMisses;
+        private long mySavedBytes;
+
+        FeatureRecorder(@Nonnull FeatureKey key) {
+            myKey = key;
+        }
+
+        synchronized void record(@Nonnull Exchange exchange) {
+            myRequests++;
+            if (exchange.myResponseNanos < 0 || exchange.myStatusCode >= 400) {
+                myFailures++;
+            }
+            myResponseBytes += exchange.myBytes;
+            if (exchange.myNotModified != null) {
+                if (exchange.myNotModified) {
+                    myCacheHits++;
+                }
+                else {
+                    myCacheMisses++;
+                }
+            }
+            mySavedBytes += exchange.mySavedBytes;
+        }
+
+        @Nonnull
+        synchronized FeatureStatistics snapshot() {
+            return new FeatureStatistics(
+                myKey.myHost,
+                myKey.myAccount,
+                myKey.myFeature,
+                myRequests,
+                myFailures,
+                myResponseBytes,
+                myCacheHits,
+                myCacheMisses,
+                mySavedBytes
+            );
+        }
+    }
+
+    /**
+     * Latencies counted in exponential buckets, so percentiles are approximated by the upper bound of a bucket.
+     */
+    private static final class Histogram {
+        private final long[] myCounts = new long[BUCKET_BOUNDS.length + 1];
+        private long myCount;
+        private long mySumNanos;
+        private long myMaxNanos;
+
+        void record(long nanos) {
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS.length && millis > BUCKET_BOUNDS[bucket]) {
+                bucket++;
+            }
+            myCounts[bucket]++;
+            myCount++;
+            mySumNanos += nanos;
+            myMaxNanos = Math.max(myMaxNanos, nanos);
+        }
+
+        @Nonnull
+        LatencyStatistics snapshot() {
+            long maxMillis = TimeUnit.NANOSECONDS.toMillis(myMaxNanos);
+            return new LatencyStatistics(
+                myCount,
+                myCount == 0 ? 0 : mySumNanos / 1e6 / myCount,
+                getPercentile(0.5, maxMillis),
+                getPercentile(0.95, maxMillis),
+                maxMillis
+            );
+        }
+
+        private long getPercentile(double percentile, long maxMillis) {
+            long rank = (long)Math.ceil(percentile * myCount);
+            long seen = 0;
+            for (int bucket = 0; bucket < BUCKET_BOUNDS.length; bucket++) {
+                seen += myCounts[bucket];
+                if (seen >= rank && seen > 0) {
+                    return Math.min(BUCKET_BOUNDS[bucket], maxMillis);
+                }
+            }
+            return maxMillis;
+        }
+    }
+
+    public static final class LatencyStatistics {
+        private final long myCount;
+        private final double myMeanMillis;
+        private final long myMedianMillis;
+        private final long myP95Millis;
+        private final long myMaxMillis;
+
+        LatencyStatistics(long count, double meanMillis, long medianMillis, long p95Millis, long maxMillis) {
+            myCount = count;
+            myMeanMillis = meanMillis;
+            myMedianMillis = medianMillis;
+            myP95Millis = p95Millis;
+            myMaxMillis = maxMillis;
+        }
+
+        public long getCount() {
+            return myCount;
+        }
+
+        public double getMeanMillis() {
+            return myMeanMillis;
+        }
+
+        public long getMedianMillis() {
+            return myMedianMillis;
+        }
+
+        public long getP95Millis() {
+            return myP95Millis;
+        }
+
+        public long getMaxMillis() {
+            return myMaxMillis;
+        }
+    }
+
+    public static final class EndpointStatistics {
+        @Nonnull
+        private final String myEndpoint;
+        private final long myRequests;
+        private final long myFailures;
+        @Nonnull
+        private final Map<String, Long> myStatusCodes;
+        @Nonnull
+        private final LatencyStatistics myTimeToFirstByte;
+        @Nonnull
+        private final LatencyStatistics myBody;
+        @Nonnull
+        private final LatencyStatistics myParse;
+        @Nonnull
+        private final LatencyStatistics myTotal;
+        private final long myResponseBytes;
+        private final long myCacheHits;
+        private final long myCacheMisses;
+        private final int myRateLimitRemaining;
+
+        EndpointStatistics(
+            @Nonnull String endpoint,
+            long requests,
+            long failures,
+            @Nonnull Map<String, Long> statusCodes,
+            @Nonnull LatencyStatistics timeToFirstByte,
+            @Nonnull LatencyStatistics body,
+            @Nonnull LatencyStatistics parse,
+            @Nonnull LatencyStatistics total,
+            long responseBytes,
+            long cacheHits,
+            long cacheMisses,
+            int rateLimitRemaining
+        ) {
+            myEndpoint = endpoint;
+            myRequests = requests;
+            myFailures = failures;
+            myStatusCodes = Collections.unmodifiableMap(statusCodes);
+            myTimeToFirstByte = timeToFirstByte;
+            myBody = body;
+            myParse = parse;
+            myTotal = total;
+            myResponseBytes = responseBytes;
+            myCacheHits = cacheHits;
+            myCacheMisses = cacheMisses;
+            myRateLimitRemaining = rateLimitRemaining;
+        }
+
+        @Nonnull
+        public String getEndpoint() {
+            return myEndpoint;
+        }
+
+        public long getRequests() {
+            return myRequests;
+        }
+
+        /**
+         * @return attempts which received no response or an error status
+         */
+        public long getFailures() {
+            return myFailures;
+        }
+
+        /**
+         * @return number of responses by status code, {@code none} for attempts without a response
+         */
+        @Nonnull
+        public Map<String, Long> getStatusCodes() {
+            return myStatusCodes;
+        }
+
+        /**
+         * @return time until the response headers were received, including connection setup
+         */
+        @Nonnull
+        public LatencyStatistics getTimeToFirstByte() {
+            return myTimeToFirstByte;
+        }
+
+        /**
+         * @return time spent waiting for the response body
+         */
+        @Nonnull
+        public LatencyStatistics getBody() {
+            return myBody;
+        }
+
+        /**
+         * @return time spent decoding the response body
+         */
+        @Nonnull
+        public LatencyStatistics getParse() {
+            return myParse;
+        }
+
+        @Nonnull
+        public LatencyStatistics getTotal() {
+            return myTotal;
+        }
+
+        public long getResponseBytes() {
+            return myResponseBytes;
+        }
+
+        public long getCacheHits() {
+            return myCacheHits;
+        }
+
+        public long getCacheMisses() {
+            return myCacheMisses;
+        }
+
+        /**
+         * @return share of conditional requests answered with {@code 304 Not Modified}, -1 if there were none
+         */
+        public double getCacheHitRatio() {
+            return getRatio(myCacheHits, myCacheMisses);
+        }
+
+        /**
+         * @return remaining rate limit reported by the last response, -1 if unknown
+         */
+        public int getRateLimitRemaining() {
+            return myRateLimitRemaining;
+        }
+    }
+
+    public static final class FeatureStatistics {
+        @Nonnull
+        private final String myHost;
+        @Nonnull
+        private final String myAccount;
+        @Nonnull
+        private final String myFeature;
+        private final long myRequests;
+        private final long myFailures;
+        private final long myResponseBytes;
+        private final long myCacheHits;
+        private final long myCacheMisses;
+        private final long mySavedBytes;
+
+        FeatureStatistics(
+            @Nonnull String host,
+            @Nonnull String account,
+            @Nonnull String feature,
+            long requests,
+            long failures,
+            long responseBytes,
+            long cacheHits,
+            long cacheMisses,
+            long savedBytes
+        ) {
+            myHost = host;
+            myAccount = account;
+            myFeature = feature;
+            myRequests = requests;
+            myFailures = failures;
+            myResponseBytes = responseBytes;
+            myCacheHits = cacheHits;
+            myCacheMisses = cacheMisses;
+            mySavedBytes = savedBytes;
+        }
+
+        @Nonnull
+        public String getHost() {
+            return myHost;
+        }
+
+        @Nonnull
+        public String getAccount() {
+            return myAccount;
+        }
+
+        /**
+         * @return name of the user action the requests were made for, e.g. "Share on GitHub"
+         */
+        @Nonnull
+        public String getFeature() {
+            return myFeature;
+        }
+
+        public long getRequests() {
+            return myRequests;
+        }
+
+        public long getFailures() {
+            return myFailures;
+        }
+
+        public long getResponseBytes() {
+            return myResponseBytes;
+        }
+
+        public long getCacheHits() {
+            return myCacheHits;
+        }
+
+        public long getCacheMisses() {
+            return myCacheMisses;
+        }
+
+        /**
+         * @return share of conditional requests answered with {@code 304 Not Modified}, -1 if there were none
+         */
+        public double getCacheHitRatio() {
+            return getRatio(myCacheHits, myCacheMisses);
+        }
+
+        /**
+         * @return size of the cached responses which were not received again thanks to {@code 304 Not Modified}
+         */
+        public long getSavedBytes() {
+            return mySavedBytes;
+        }
+    }
+
+    /**
+     * How {@link GithubRateLimiter} treats the requests to a resource.
+     */
+    public enum RateLimitState {
+        NORMAL,
+        /**
+         * The headroom is low, background requests are spread over the rest of the window.
+         */
+        PACED,
+        /**
+         * Only the reserve for interactive requests is left, background requests wait for the reset.
+         */
+        DEFERRED,
+        /**
+         * The limit is used up, all requests wait for the reset.
+         */
+        EXHAUSTED,
+        /**
+         * The server refused a request, e.g. by a secondary rate limit, all requests wait until it allows retrying.
+         */
+        BLOCKED
+    }
+
+    public static final class RateLimitStatistics {
+        @Nonnull
+        private final String myHost;
+        @Nonnull
+        private final String myAccount;
+        @Nonnull
+        private final String myResource;
+        private final int myLimit;
+        private final int myRemaining;
+        private final long myResetTime;
+        @Nonnull
+        private final RateLimitState myState;
+        private final long myStateUntil;
+
+        RateLimitStatistics(
+            @Nonnull String host,
+            @Nonnull String account,
+            @Nonnull String resource,
+            int limit,
+            int remaining,
+            long resetTime,
+            @Nonnull RateLimitState state,
+            long stateUntil
+        ) {
+            myHost = host;
+            myAccount = account;
+            myResource = resource;
+            myLimit = limit;
+            myRemaining = remaining;
+            myResetTime = resetTime;
+            myState = state;
+            myStateUntil = stateUntil;
+        }
+
+        @Nonnull
+        public String getHost() {
+            return myHost;
+        }
+
+        @Nonnull
+        public String getAccount() {
+            return myAccount;
+        }
+
+        /**
+         * @return the rate limit resource, e.g. "core", "search" or "graphql"
+         */
+        @Nonnull
+        public String getResource() {
+            return myResource;
+        }
+
+        /**
+         * @return -1 if unknown
+         */
+        public int getLimit() {
+            return myLimit;
+        }
+
+        /**
+         * @return -1 if unknown, e.g. when the window is over and no request has been made since
+         */
+        public int getRemaining() {
+            return myRemaining;
+        }
+
+        /**
+         * @return time in milliseconds when the limit is reset, 0 if unknown
+         */
+        public long getResetTime() {
+            return myResetTime;
+        }
+
+        @Nonnull
+        public RateLimitState getState() {
+            return myState;
+        }
+
+        /**
+         * @return time in milliseconds when the {@link #getState() state} ends, 0 for {@link RateLimitState#NORMAL}
+         */
+        public long getStateUntil() {
+            return myStateUntil;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.jetbrains.plugins.github.api;
+
+import java.util.List;
+
+/**
+ * JMX view of {@link GithubApiMetrics}, registered as {@value GithubApiMetrics#OBJECT_NAME}.
+ */
+public interface GithubApiMetricsMXBean {
+    long getRequestCount();
+
+    long getFailureCount();
+
+    long getResponseBytes();
+
+    /**
+     * @return share of revalidated GET requests answered with {@code 304 Not Modified}, -1 if there were none
+     */
+    double getCacheHitRatio();
+
+    /**
+     * @return size of the cached responses not received again thanks to {@code 304 Not Modified}
+     */
+    long getSavedBytes();
+
+    List<GithubApiMetrics.EndpointStatistics> getEndpoints();
+
+    List<GithubApiMetrics.FeatureStatistics> getFeatures();
+
+    List<GithubApiMetrics.RateLimitStatistics> getRateLimits();
+
+    void reset();
+}
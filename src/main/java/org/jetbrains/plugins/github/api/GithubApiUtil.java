@@ -16,29 +16,46 @@
 package org.jetbrains.plugins.github.api;
 
 import com.google.gson.*;
-import consulo.http.HttpProxyManager;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
 import consulo.logging.Logger;
 import consulo.util.lang.StringUtil;
 import org.apache.commons.httpclient.*;
-import org.apache.commons.httpclient.auth.AuthScope;
-import org.apache.commons.httpclient.methods.*;
-import org.apache.commons.httpclient.params.HttpConnectionManagerParams;
+import org.jetbrains.annotations.TestOnly;
 import org.jetbrains.plugins.github.exceptions.GithubAuthenticationException;
 import org.jetbrains.plugins.github.exceptions.GithubJsonException;
+import org.jetbrains.plugins.github.exceptions.GithubRateLimitException;
 import org.jetbrains.plugins.github.exceptions.GithubStatusCodeException;
 import org.jetbrains.plugins.github.util.GithubAuthData;
-import org.jetbrains.plugins.github.util.GithubSslSupport;
 import org.jetbrains.plugins.github.util.GithubUrlUtil;
 import org.jetbrains.plugins.github.util.GithubUtil;
 
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @author Kirill Likhodedov
@@ -46,19 +63,41 @@ import java.util.*;
 public class GithubApiUtil {
     public static final String DEFAULT_GITHUB_HOST = "github.com";
 
-    private static final int CONNECTION_TIMEOUT = 5000;
     private static final String PER_PAGE = "per_page=100";
+    private static final int MAX_PER_PAGE = 100;
+    private static final int PREFETCH_DEPTH = 2;
+    private static final int PAGE_PARALLELISM = 4;
+    private static final Pattern LINK_PATTERN = Pattern.compile("<([^>]*)>\\s*;\\s*rel=\"([^\"]*)\"");
+    private static final Pattern PAGE_PARAMETER_PATTERN = Pattern.compile("([?&])page=(\\d+)");
     private static final Logger LOG = GithubUtil.LOG;
 
+    // GitHub dates are UTC, e.g. 2011-04-14T16:00:49Z; the default time zone must not shift them
+    private static final TypeAdapter<Date> DATE_ADAPTER = new TypeAdapter<>() {
+        @Override
+        public void write(JsonWriter out, Date value) throws IOException {
+            out.value(formatDate(value));
+        }
+
+        @Override
+        public Date read(JsonReader in) throws IOException {
+            String value = in.nextString();
+            try {
+                return Date.from(DateTimeFormatter.ISO_OFFSET_DATE_TIME.parse(value, Instant::from));
+            }
+            catch (DateTimeParseException e) {
+                throw new JsonSyntaxException("Unexpected date: " + value, e);
+            }
+        }
+    };
+
     private static final Header ACCEPT_HTML_BODY_MARKUP = new Header("Accept", "application/vnd.github.v3.html+json");
-    private static final Header ACCEPT_NEW_SEARCH_API = new Header("Accept", "application/vnd.github.preview");
 
     @Nonnull
     private static final Gson gson = initGson();
 
     private static Gson initGson() {
         GsonBuilder builder = new GsonBuilder();
-        builder.setDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+        builder.registerTypeAdapter(Date.class, DATE_ADAPTER.nullSafe());
         builder.setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES);
         return builder.create();
     }
@@ -70,220 +109,673 @@ public class GithubApiUtil {
         HEAD
     }
 
-    @Nullable
-    private static JsonElement postRequest(
+    @Nonnull
+    private static <T> T postRequest(
         @Nonnull GithubAuthData auth,
         @Nonnull String path,
         @Nullable String requestBody,
+        @Nonnull ResponseReader<T> reader,
         @Nonnull Header... headers
     ) throws IOException {
-        return request(auth, path, requestBody, Arrays.asList(headers), HttpVerb.POST).getJsonElement();
+        return getResult(request(auth, path, requestBody, Arrays.asList(headers), HttpVerb.POST, reader));
     }
 
-    @Nullable
-    private static JsonElement deleteRequest(
+    private static void deleteRequest(
         @Nonnull GithubAuthData auth,
         @Nonnull String path,
         @Nonnull Header... headers
     ) throws IOException {
-        return request(auth, path, null, Arrays.asList(headers), HttpVerb.DELETE).getJsonElement();
+        request(auth, path, null, Arrays.asList(headers), HttpVerb.DELETE, null);
     }
 
-    @Nullable
-    private static JsonElement getRequest(
+    @Nonnull
+    private static <T> T getRequest(
         @Nonnull GithubAuthData auth,
         @Nonnull String path,
+        @Nonnull ResponseReader<T> reader,
         @Nonnull Header... headers
     ) throws IOException {
-        return request(auth, path, null, Arrays.asList(headers), HttpVerb.GET).getJsonElement();
+        return getResult(request(auth, path, null, Arrays.asList(headers), HttpVerb.GET, reader));
     }
 
     @Nonnull
-    private static ResponsePage request(
+    private static <T> ResponsePage<T> request(
         @Nonnull GithubAuthData auth,
         @Nonnull String path,
         @Nullable String requestBody,
         @Nonnull Collection<Header> headers,
-        @Nonnull HttpVerb verb
+        @Nonnull HttpVerb verb,
+        @Nullable ResponseReader<T> reader
+    ) throws IOException {
+        return request(auth, path, requestBody, headers, verb, reader, null);
+    }
+
+    /**
+     * Transient failures are retried according to {@link GithubRetryPolicy}.
+     * Concurrent identical GET requests are merged into one by {@link GithubSingleFlight}.
+     *
+     * @param nextPageListener notified about the next page as soon as the response headers are received,
+     *                         i.e. before the response body is decoded; it is notified at most once
+     */
+    @Nonnull
+    private static <T> ResponsePage<T> request(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String path,
+        @Nullable String requestBody,
+        @Nonnull Collection<Header> headers,
+        @Nonnull HttpVerb verb,
+        @Nullable ResponseReader<T> reader,
+        @Nullable Consumer<String> nextPageListener
+    ) throws IOException {
+        Consumer<String> listener = nextPageListener == null ? null : new Consumer<>() {
+            private boolean myNotified;
+
+            @Override
+            public void accept(String nextPage) {
+                if (!myNotified) {
+                    myNotified = true;
+                    nextPageListener.accept(nextPage);
+                }
+            }
+        };
+        if (verb != HttpVerb.GET || reader == null || reader.getCacheKey() == null) {
+            return requestWithRetries(auth, path, requestBody, headers, verb, reader, listener);
+        }
+
+        String uri = GithubUrlUtil.getApiUrl(auth.getHost()) + path;
+        // background requests are paced by the rate limiter, interactive ones must not wait for them
+        String key = GithubResponseCache.getKey(auth, uri, headers, reader.getCacheKey())
+            + (GithubRequestContext.current().isBackground() ? " background" : "");
+        return GithubSingleFlight.getInstance().execute(
+            key,
+            () -> requestWithRetries(auth, path, null, headers, verb, reader, listener),
+            page -> {
+                if (page.getNextPage() != null && listener != null) {
+                    listener.accept(page.getNextPage());
+                }
+            }
+        );
+    }
+
+    @Nonnull
+    private static <T> ResponsePage<T> requestWithRetries(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String path,
+        @Nullable String requestBody,
+        @Nonnull Collection<Header> headers,
+        @Nonnull HttpVerb verb,
+        @Nullable ResponseReader<T> reader,
+        @Nullable Consumer<String> nextPageListener
     ) throws IOException {
-        HttpMethod method = null;
+        GithubRetryPolicy retryPolicy = new GithubRetryPolicy(verb != HttpVerb.POST);
+        while (true) {
+            try {
+                return requestOnce(auth, path, requestBody, headers, verb, reader, nextPageListener);
+            }
+            catch (IOException e) {
+                // an aborted method fails with an arbitrary socket error
+                GithubRequestContext.current().checkCanceled();
+                retryPolicy.onFailure(e);
+            }
+        }
+    }
+
+    @Nonnull
+    private static <T> ResponsePage<T> requestOnce(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String path,
+        @Nullable String requestBody,
+        @Nonnull Collection<Header> headers,
+        @Nonnull HttpVerb verb,
+        @Nullable ResponseReader<T> reader,
+        @Nullable Consumer<String> nextPageListener
+    ) throws IOException {
+        GithubRequestContext.current().checkCanceled();
+        GithubApiMetrics.Exchange exchange = GithubApiMetrics.getInstance().start(auth, verb.name(), path);
+        GithubHttpRequest request = null;
+        GithubHttpResponse response = null;
         try {
             String uri = GithubUrlUtil.getApiUrl(auth.getHost()) + path;
-            method = doREST(auth, uri, requestBody, headers, verb);
 
-            checkStatusCode(method);
+            GithubResponseCache cache = GithubResponseCache.getInstance();
+            String cacheKey = verb == HttpVerb.GET && reader != null && reader.getCacheKey() != null
+                ? GithubResponseCache.getKey(auth, uri, headers, reader.getCacheKey())
+                : null;
+            GithubResponseCache.Entry cached = cacheKey == null ? null : cache.get(auth, cacheKey);
+            Collection<Header> requestHeaders = headers;
+            if (cached != null) {
+                List<Header> conditionalHeaders = new ArrayList<>(headers);
+                conditionalHeaders.addAll(cached.getConditionalHeaders());
+                headers = conditionalHeaders;
+            }
+
+            GithubRateLimiter rateLimiter = GithubRateLimiter.getInstance();
+            rateLimiter.acquire(auth, path, GithubRequestContext.current().isBackground());
+            request = createRequest(auth, uri, requestBody, headers, verb);
+            response = doREST(auth, request);
+            exchange.responseReceived(response);
+            rateLimiter.update(auth, path, response);
+
+            if (cached != null) {
+                exchange.revalidated(response.getStatusCode() == HttpStatus.SC_NOT_MODIFIED, cached.getSize());
+            }
+            if (cached != null && response.getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+                release(request, response);
+                response = null;
+
+                //noinspection unchecked
+                ResponsePage<T> page = (ResponsePage<T>)cached.getPage();
+                if (page != null) {
+                    if (page.getNextPage() != null && nextPageListener != null) {
+                        nextPageListener.accept(page.getNextPage());
+                    }
+                    return page;
+                }
 
-            InputStream resp = method.getResponseBodyAsStream();
-            if (resp == null) {
-                return new ResponsePage();
+                // the entry was read from disk, its body has not been decoded in this session yet
+                if (cached.getNextPage() != null && nextPageListener != null) {
+                    nextPageListener.accept(cached.getNextPage());
+                }
+                T ret;
+                try {
+                    exchange.decodingStarted();
+                    ret = readResponse(new ByteArrayInputStream(cached.getBody()), reader);
+                    exchange.decodingFinished();
+                }
+                catch (GithubJsonException e) {
+                    LOG.info("Dropping undecodable cached response for " + path, e);
+                    cache.remove(auth, cacheKey);
+                    return requestOnce(auth, path, requestBody, requestHeaders, verb, reader, null);
+                }
+                page = ret == null ? new ResponsePage<>() : new ResponsePage<>(ret, cached.getNextPage(), cached.getLastPage());
+                cache.put(cacheKey, cached.getETag(), cached.getLastModified(), page, cached.getSize());
+                return page;
             }
 
-            JsonElement ret = parseResponse(resp);
-            if (ret.isJsonNull()) {
-                return new ResponsePage();
+            try {
+                checkStatusCode(response);
+            }
+            catch (GithubRateLimitException e) {
+                rateLimiter.block(auth, path, e.getRetryTime());
+                throw e;
             }
 
-            Header header = method.getResponseHeader("Link");
-            if (header != null) {
-                String value = header.getValue();
-                int end = value.indexOf(">; rel=\"next\"");
-                int begin = value.lastIndexOf('<', end);
-                if (begin >= 0 && end >= 0) {
-                    String newPath = GithubUrlUtil.removeProtocolPrefix(value.substring(begin + 1, end));
-                    int index = newPath.indexOf('/');
+            Map<String, String> links = getLinks(GithubUrlUtil.getApiUrl(auth.getHost()), response);
+            String nextPage = links.get("next");
+            if (nextPage != null && nextPageListener != null) {
+                nextPageListener.accept(nextPage);
+            }
 
-                    return new ResponsePage(ret, newPath.substring(index));
+            InputStream resp = response.getBody();
+            if (resp == null || reader == null) {
+                return new ResponsePage<>();
+            }
+
+            resp = exchange.meter(resp);
+            // only a response with a validator is persisted, and only one that fits into a disk cache entry
+            RecordingInputStream recording = cacheKey != null && hasValidator(response) && fitsDiskCache(response)
+                ? new RecordingInputStream(resp, GithubDiskResponseCache.MAX_ENTRY_SIZE)
+                : null;
+            exchange.decodingStarted();
+            T ret;
+            byte[] body = null;
+            try {
+                ret = readResponse(recording != null ? recording : resp, reader);
+            }
+            finally {
+                if (recording != null) {
+                    body = recording.getRecorded();
                 }
             }
+            exchange.decodingFinished();
+            if (ret == null) {
+                return new ResponsePage<>();
+            }
 
-            return new ResponsePage(ret);
+            String lastPage = links.get("last");
+            ResponsePage<T> page = new ResponsePage<>(ret, nextPage, lastPage);
+            if (cacheKey != null) {
+                cache.put(
+                    auth,
+                    cacheKey,
+                    response.getHeader("ETag"),
+                    response.getHeader("Last-Modified"),
+                    page,
+                    nextPage,
+                    lastPage,
+                    exchange.getResponseBytes(),
+                    body
+                );
+            }
+            return page;
         }
         finally {
-            if (method != null) {
-                method.releaseConnection();
+            if (response != null) {
+                release(request, response);
             }
+            exchange.finish();
         }
     }
 
+    private static boolean hasValidator(@Nonnull GithubHttpResponse response) {
+        return response.getHeader("ETag") != null || response.getHeader("Last-Modified") != null;
+    }
+
+    private static boolean fitsDiskCache(@Nonnull GithubHttpResponse response) {
+        String length = response.getHeader("Content-Length");
+        return length == null || StringUtil.parseLong(length, -1) <= GithubDiskResponseCache.MAX_ENTRY_SIZE;
+    }
+
+    /**
+     * @return request paths from the {@code Link} header, mapped by their {@code rel}; relative to the API url,
+     * which includes a path prefix for GitHub Enterprise
+     */
     @Nonnull
-    private static HttpMethod doREST(
-        @Nonnull final GithubAuthData auth,
-        @Nonnull final String uri,
-        @Nullable final String requestBody,
-        @Nonnull final Collection<Header> headers,
-        @Nonnull final HttpVerb verb
-    ) throws IOException {
-        HttpClient client = getHttpClient(auth.getBasicAuth(), auth.isUseProxy());
-        return GithubSslSupport.getInstance().executeSelfSignedCertificateAwareRequest(client, uri, uri1 -> {
-            HttpMethod method;
-            switch (verb) {
-                case POST:
-                    method = new PostMethod(uri1);
-                    if (requestBody != null) {
-                        ((PostMethod)method).setRequestEntity(new StringRequestEntity(requestBody,
-                            "application/json", "UTF-8"
-                        ));
-                    }
-                    break;
-                case GET:
-                    method = new GetMethod(uri1);
-                    break;
-                case DELETE:
-                    method = new DeleteMethod(uri1);
-                    break;
-                case HEAD:
-                    method = new HeadMethod(uri1);
-                    break;
-                default:
-                    throw new IllegalStateException("Wrong HttpVerb: unknown method: " + verb.toString());
-            }
-            GithubAuthData.TokenAuth tokenAuth = auth.getTokenAuth();
-            if (tokenAuth != null) {
-                method.addRequestHeader("Authorization", "token " + tokenAuth.getToken());
-            }
-            for (Header header : headers) {
-                method.addRequestHeader(header);
-            }
-            return method;
-        });
-    }
-
-    @Nonnull
-    private static HttpClient getHttpClient(@Nullable GithubAuthData.BasicAuth basicAuth, boolean useProxy) {
-        final HttpClient client = new HttpClient();
-        HttpConnectionManagerParams params = client.getHttpConnectionManager().getParams();
-        params.setConnectionTimeout(CONNECTION_TIMEOUT); //set connection timeout (how long it takes to connect to
-        // remote host)
-        params.setSoTimeout(CONNECTION_TIMEOUT); //set socket timeout (how long it takes to retrieve data from remote
-        // host)
-
-        client.getParams().setContentCharset("UTF-8");
-        // Configure proxySettings if it is required
-        final HttpProxyManager proxySettings = HttpProxyManager.getInstance();
-        if (useProxy && proxySettings.isHttpProxyEnabled() && !StringUtil.isEmptyOrSpaces(proxySettings.getProxyHost())) {
-            client.getHostConfiguration().setProxy(proxySettings.getProxyHost(), proxySettings.getProxyPort());
-            if (proxySettings.isProxyAuthenticationEnabled()) {
-                client.getState().setProxyCredentials(
-                    AuthScope.ANY,
-                    new UsernamePasswordCredentials(proxySettings.getProxyLogin(), proxySettings.getPlainProxyPassword())
-                );
+    private static Map<String, String> getLinks(@Nonnull String apiUrl, @Nonnull GithubHttpResponse response) {
+        String header = response.getHeader("Link");
+        if (header == null) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, String> links = new HashMap<>();
+        Matcher matcher = LINK_PATTERN.matcher(header);
+        while (matcher.find()) {
+            String link = matcher.group(1);
+            if (StringUtil.startsWithIgnoreCase(link, apiUrl)) {
+                links.put(matcher.group(2), link.substring(apiUrl.length()));
+                continue;
+            }
+            String newPath = GithubUrlUtil.removeProtocolPrefix(link);
+            int index = newPath.indexOf('/');
+            if (index >= 0) {
+                links.put(matcher.group(2), newPath.substring(index));
+            }
+        }
+        return links;
+    }
+
+    /**
+     * @return value of the {@code page} parameter of the request path, or -1 if there is none
+     */
+    private static int getPageNumber(@Nonnull String path) {
+        Matcher matcher = PAGE_PARAMETER_PATTERN.matcher(path);
+        return matcher.find() ? StringUtil.parseInt(matcher.group(2), -1) : -1;
+    }
+
+    @Nonnull
+    private static String withPageNumber(@Nonnull String path, int page) {
+        return PAGE_PARAMETER_PATTERN.matcher(path).replaceFirst("$1page=" + page);
+    }
+
+    /**
+     * @return items {@code offset} to {@code offset + limit} of a collection, requesting only the pages
+     * which contain them; fewer if the collection ends before
+     */
+    @Nonnull
+    private static <T> List<T> getWindow(int offset, int limit, @Nonnull PageLoader<T> loader) throws IOException {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        int perPage = getWindowPageSize(offset, limit);
+        int firstPage = offset / perPage + 1;
+        int lastPage = (offset + limit - 1) / perPage + 1;
+        List<T> items = new ArrayList<>();
+        for (int page = firstPage; page <= lastPage; page++) {
+            List<T> pageItems = loader.load(page, perPage);
+            items.addAll(pageItems);
+            if (pageItems.size() < perPage) {
+                break;
+            }
+        }
+        int from = Math.min(items.size(), offset - (firstPage - 1) * perPage);
+        return new ArrayList<>(items.subList(from, Math.min(items.size(), from + limit)));
+    }
+
+    /**
+     * @return the smallest page size that fits the window into one page, or the largest one if no page size does
+     */
+    private static int getWindowPageSize(int offset, int limit) {
+        for (int perPage = Math.min(limit, MAX_PER_PAGE); perPage <= MAX_PER_PAGE; perPage++) {
+            if (offset / perPage == (offset + limit - 1) / perPage) {
+                return perPage;
             }
         }
+        return MAX_PER_PAGE;
+    }
+
+    @FunctionalInterface
+    private interface PageLoader<T> {
+        @Nonnull
+        List<T> load(int page, int perPage) throws IOException;
+    }
+
+    @Nonnull
+    private static GithubHttpRequest createRequest(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String uri,
+        @Nullable String requestBody,
+        @Nonnull Collection<Header> headers,
+        @Nonnull HttpVerb verb
+    ) {
+        Map<String, String> requestHeaders = new LinkedHashMap<>();
+        GithubAuthData.BasicAuth basicAuth = auth.getBasicAuth();
+        GithubAuthData.TokenAuth tokenAuth = auth.getTokenAuth();
         if (basicAuth != null) {
-            client.getParams().setCredentialCharset("UTF-8");
-            client.getParams().setAuthenticationPreemptive(true);
-            client.getState().setCredentials(
-                AuthScope.ANY,
-                new UsernamePasswordCredentials(basicAuth.getLogin(), basicAuth.getPassword())
-            );
+            String credentials = basicAuth.getLogin() + ":" + basicAuth.getPassword();
+            requestHeaders.put("Authorization", "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8)));
         }
-        return client;
+        if (tokenAuth != null) {
+            requestHeaders.put("Authorization", "token " + tokenAuth.getToken());
+        }
+        for (Header header : headers) {
+            requestHeaders.put(header.getName(), header.getValue());
+        }
+        return new GithubHttpRequest(verb.name(), uri, requestHeaders, requestBody, auth.isUseProxy());
+    }
+
+    /**
+     * The response must be released with {@link #release}.
+     */
+    @Nonnull
+    private static GithubHttpResponse doREST(@Nonnull GithubAuthData auth, @Nonnull GithubHttpRequest request) throws IOException {
+        GithubRequestContext context = GithubRequestContext.current();
+        context.register(request);
+        try {
+            return GithubTransports.getTransport(auth.getHost()).execute(request);
+        }
+        catch (IOException | RuntimeException e) {
+            context.unregister(request);
+            throw e;
+        }
+    }
+
+    private static void release(@Nonnull GithubHttpRequest request, @Nonnull GithubHttpResponse response) {
+        response.close();
+        GithubRequestContext.current().unregister(request);
     }
 
-    private static void checkStatusCode(@Nonnull HttpMethod method) throws IOException {
-        int code = method.getStatusCode();
+    private static void checkStatusCode(@Nonnull GithubHttpResponse response) throws IOException {
+        int code = response.getStatusCode();
         switch (code) {
             case HttpStatus.SC_OK:
             case HttpStatus.SC_CREATED:
             case HttpStatus.SC_ACCEPTED:
             case HttpStatus.SC_NO_CONTENT:
                 return;
+            case HttpStatus.SC_FORBIDDEN:
+            case GithubRateLimiter.SC_TOO_MANY_REQUESTS:
+                long retryTime = GithubRateLimiter.getRetryTime(response);
+                String message = getErrorMessage(response);
+                if (code == GithubRateLimiter.SC_TOO_MANY_REQUESTS || retryTime > 0
+                    || StringUtil.containsIgnoreCase(message, "rate limit")) {
+                    throw new GithubRateLimitException("Request response: " + message, code, retryTime);
+                }
+                throw new GithubAuthenticationException("Request response: " + message);
             case HttpStatus.SC_BAD_REQUEST:
             case HttpStatus.SC_UNAUTHORIZED:
             case HttpStatus.SC_PAYMENT_REQUIRED:
-            case HttpStatus.SC_FORBIDDEN:
-                throw new GithubAuthenticationException("Request response: " + getErrorMessage(method));
+                throw new GithubAuthenticationException("Request response: " + getErrorMessage(response));
             default:
-                throw new GithubStatusCodeException(code + ": " + getErrorMessage(method), code);
+                throw new GithubStatusCodeException(code + ": " + getErrorMessage(response), code, GithubRateLimiter.getRetryTime(response));
         }
     }
 
     @Nonnull
-    private static String getErrorMessage(@Nonnull HttpMethod method) {
+    private static String getErrorMessage(@Nonnull GithubHttpResponse response) {
         try {
-            InputStream resp = method.getResponseBodyAsStream();
+            InputStream resp = response.getBody();
             if (resp != null) {
-                GithubErrorMessageRaw error = fromJson(parseResponse(resp), GithubErrorMessageRaw.class);
-                return method.getStatusText() + " - " + error.getMessage();
+                GithubErrorMessageRaw error = readResponse(resp, reader -> readJson(reader, GithubErrorMessageRaw.class));
+                if (error != null) {
+                    return response.getStatusText() + " - " + error.getMessage();
+                }
             }
         }
         catch (IOException e) {
             LOG.info(e);
         }
-        return method.getStatusText();
+        return response.getStatusText();
     }
 
-    @Nonnull
-    private static JsonElement parseResponse(@Nonnull InputStream githubResponse) throws IOException {
-        try (Reader reader = new InputStreamReader(githubResponse)) {
-            return new JsonParser().parse(reader);
+    /**
+     * Decodes the response body while it is being received, so neither the whole json tree
+     * nor the intermediate raw objects of a page are kept in memory.
+     *
+     * @return null if the response body is empty or contains json {@code null}
+     */
+    @Nullable
+    private static <T> T readResponse(
+        @Nonnull InputStream githubResponse,
+        @Nonnull ResponseReader<T> responseReader
+    ) throws IOException {
+        try (JsonReader reader = new JsonReader(new InputStreamReader(githubResponse, StandardCharsets.UTF_8))) {
+            reader.setLenient(true);
+            JsonToken token;
+            try {
+                token = reader.peek();
+            }
+            catch (EOFException e) {
+                return null;
+            }
+            if (token == JsonToken.NULL) {
+                return null;
+            }
+            return responseReader.read(reader);
         }
-        catch (JsonSyntaxException jse) {
-            throw new GithubJsonException("Couldn't parse GitHub response", jse);
+        catch (MalformedJsonException | JsonParseException | IllegalStateException e) {
+            rethrowReadFailure(e);
+            throw new GithubJsonException("Couldn't parse GitHub response", e);
         }
     }
 
-    private static class ResponsePage {
+    /**
+     * Gson reports a failure of the stream it reads from, such as a connection reset in the middle of the body,
+     * as a parse error. It is rethrown as is, so it is retried rather than reported as a bad response.
+     */
+    private static void rethrowReadFailure(@Nonnull Exception e) throws IOException {
+        if (e.getCause() instanceof IOException cause && !(cause instanceof MalformedJsonException)) {
+            throw cause;
+        }
+    }
+
+    /**
+     * Keeps a copy of the bytes read from the response, so the body can be persisted without reading it twice.
+     * Recording stops and the copy is dropped once the body exceeds the limit, or once the copies of all
+     * the responses being received exceed {@link #MAX_TOTAL_RECORDED}, so concurrent fetches don't pile them up.
+     */
+    static final class RecordingInputStream extends FilterInputStream {
+        static final long MAX_TOTAL_RECORDED = 8L * 1024 * 1024;
+        // bytes held by the copies of all the responses being received
+        private static final AtomicLong ourTotalRecorded = new AtomicLong();
+
+        private final int myLimit;
+        @Nullable
+        private ByteArrayOutputStream myRecorded = new ByteArrayOutputStream();
+        private boolean myClosedAtEnd;
+
+        RecordingInputStream(@Nonnull InputStream in, int limit) {
+            super(in);
+            myLimit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b < 0) {
+                myClosedAtEnd = true;
+            }
+            else {
+                record(new byte[]{(byte)b}, 0, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(@Nonnull byte[] b, int off, int len) throws IOException {
+            int count = super.read(b, off, len);
+            if (count < 0) {
+                myClosedAtEnd = true;
+            }
+            else {
+                record(b, off, count);
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            discard();
+            return super.skip(n);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void record(@Nonnull byte[] b, int off, int len) {
+            if (myRecorded == null) {
+                return;
+            }
+            if (myRecorded.size() + len > myLimit) {
+                discard();
+                return;
+            }
+            if (ourTotalRecorded.addAndGet(len) > MAX_TOTAL_RECORDED) {
+                ourTotalRecorded.addAndGet(-len);
+                discard();
+                return;
+            }
+            myRecorded.write(b, off, len);
+        }
+
+        private void discard() {
+            if (myRecorded != null) {
+                ourTotalRecorded.addAndGet(-myRecorded.size());
+                myRecorded = null;
+            }
+        }
+
+        static long getTotalRecorded() {
+            return ourTotalRecorded.get();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // the json reader stops right after the value, drain the rest of the body while it is still open
+            if (myRecorded != null && !myClosedAtEnd) {
+                byte[] buffer = new byte[1024];
+                while (myRecorded != null && read(buffer, 0, buffer.length) >= 0) {
+                }
+            }
+            super.close();
+        }
+
+        /**
+         * Ends the recording, to be called once the body has been read.
+         *
+         * @return the whole body, or null if it was not read to the end or is too large
+         */
+        @Nullable
+        byte[] getRecorded() {
+            byte[] recorded = myRecorded != null && myClosedAtEnd ? myRecorded.toByteArray() : null;
+            discard();
+            return recorded;
+        }
+    }
+
+    private interface ResponseReader<T> {
+        @Nonnull
+        T read(@Nonnull JsonReader reader) throws IOException;
+
+        /**
+         * @return key of the produced result type, so that a cached result is only reused by an equivalent reader;
+         * null if results of this reader are not cached
+         */
+        @Nullable
+        default String getCacheKey() {
+            return null;
+        }
+    }
+
+    @Nonnull
+    private static <Result> ResponseReader<Result> objectReader(
+        @Nonnull Class<? extends DataConstructor> rawClass,
+        @Nonnull Class<Result> resultClass
+    ) {
+        return new ResponseReader<>() {
+            @Nonnull
+            @Override
+            public Result read(@Nonnull JsonReader reader) throws IOException {
+                return createDataFromRaw(readJson(reader, rawClass), resultClass);
+            }
+
+            @Nonnull
+            @Override
+            public String getCacheKey() {
+                return rawClass.getName() + "->" + resultClass.getName();
+            }
+        };
+    }
+
+    @Nonnull
+    private static <Result> ResponseReader<List<Result>> arrayReader(
+        @Nonnull Class<? extends DataConstructor> rawClass,
+        @Nonnull Class<Result> resultClass
+    ) {
+        return new ResponseReader<>() {
+            @Nonnull
+            @Override
+            public List<Result> read(@Nonnull JsonReader reader) throws IOException {
+                if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+                    throw new GithubJsonException(
+                        "Wrong json type: expected JsonArray",
+                        new Exception(reader.peek().toString())
+                    );
+                }
+
+                List<Result> result = new ArrayList<>();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    result.add(createDataFromRaw(readJson(reader, rawClass), resultClass));
+                }
+                reader.endArray();
+                // pages may be served from the response cache, so they must not be modified by callers
+                return Collections.unmodifiableList(result);
+            }
+
+            @Nonnull
+            @Override
+            public String getCacheKey() {
+                return rawClass.getName() + "[]->" + resultClass.getName();
+            }
+        };
+    }
+
+    private static class ResponsePage<T> {
         @Nullable
-        private final JsonElement response;
+        private final T response;
         @Nullable
         private final String nextPage;
+        @Nullable
+        private final String lastPage;
 
         public ResponsePage() {
-            this(null, null);
+            this(null, null, null);
         }
 
-        public ResponsePage(@Nullable JsonElement response) {
-            this(response, null);
+        public ResponsePage(@Nullable T response) {
+            this(response, null, null);
         }
 
-        public ResponsePage(@Nullable JsonElement response, @Nullable String next) {
+        public ResponsePage(@Nullable T response, @Nullable String next, @Nullable String last) {
             this.response = response;
             this.nextPage = next;
+            this.lastPage = last;
         }
 
         @Nullable
-        public JsonElement getJsonElement() {
+        public T getResult() {
             return response;
         }
 
@@ -291,12 +783,34 @@ public class GithubApiUtil {
         public String getNextPage() {
             return nextPage;
         }
+
+        @Nullable
+        public String getLastPage() {
+            return lastPage;
+        }
+    }
+
+    @Nonnull
+    private static <T> T getResult(@Nonnull ResponsePage<T> page) throws GithubJsonException {
+        T result = page.getResult();
+        if (result == null) {
+            throw new GithubJsonException("Unexpected empty response");
+        }
+        return result;
     }
 
     /*
      * Json API
      */
 
+    /**
+     * @return the date in the format of GitHub, in UTC
+     */
+    @Nonnull
+    static String formatDate(@Nonnull Date date) {
+        return DateTimeFormatter.ISO_INSTANT.format(date.toInstant().truncatedTo(ChronoUnit.SECONDS));
+    }
+
     static <Raw extends DataConstructor, Result> Result createDataFromRaw(
         @Nonnull Raw rawObject,
         @Nonnull Class<Result> resultClass
@@ -315,23 +829,44 @@ public class GithubApiUtil {
         @Nonnull
         private final Collection<Header> myHeaders;
         @Nonnull
-        private final Class<T> myResult;
-        @Nonnull
-        private final Class<? extends DataConstructor[]> myRawArray;
+        private final ResponseReader<List<T>> myReader;
+        private int myPrefetchDepth;
+        @Nullable
+        private PagePrefetcher myPrefetcher;
+        private int myParallelism = PAGE_PARALLELISM;
 
         @SuppressWarnings("NullableProblems")
         public PagedRequest(
             @Nonnull String path,
             @Nonnull Class<T> result,
-            @Nonnull Class<? extends DataConstructor[]> rawArray,
+            @Nonnull Class<? extends DataConstructor> raw,
             @Nonnull Header... headers
         ) {
             myNextPage = path;
-            myResult = result;
-            myRawArray = rawArray;
+            myReader = arrayReader(raw, result);
             myHeaders = Arrays.asList(headers);
         }
 
+        /**
+         * Requests up to {@code depth} following pages in background while the current page is decoded and consumed.
+         * Call {@link #cancel()} if the request is abandoned before the last page.
+         */
+        @Nonnull
+        public PagedRequest<T> withPrefetch(int depth) {
+            myPrefetchDepth = depth;
+            return this;
+        }
+
+        /**
+         * Sets how many pages {@link #getAll} may request concurrently once the page range is known
+         * from the {@code rel="last"} link. {@code 1} disables concurrent paging.
+         */
+        @Nonnull
+        public PagedRequest<T> withParallelism(int parallelism) {
+            myParallelism = parallelism;
+            return this;
+        }
+
         @Nonnull
         public List<T> next(@Nonnull GithubAuthData auth) throws IOException {
             if (myNextPage == null) {
@@ -341,26 +876,100 @@ public class GithubApiUtil {
             String page = myNextPage;
             myNextPage = null;
 
-            ResponsePage response = request(auth, page, null, myHeaders, HttpVerb.GET);
+            ResponsePage<List<T>> response;
+            if (myPrefetchDepth > 0) {
+                if (myPrefetcher == null) {
+                    myPrefetcher = new PagePrefetcher(auth, page, myPrefetchDepth);
+                }
+                try {
+                    response = myPrefetcher.take();
+                }
+                catch (IOException | RuntimeException e) {
+                    cancel();
+                    throw e;
+                }
+            }
+            else {
+                response = request(auth, page, null, myHeaders, HttpVerb.GET, myReader);
+            }
 
-            if (response.getJsonElement() == null) {
+            List<T> result = response.getResult();
+            if (result == null) {
+                cancel();
                 throw new HttpException("Empty response");
             }
 
-            if (!response.getJsonElement().isJsonArray()) {
-                throw new GithubJsonException(
-                    "Wrong json type: expected JsonArray",
-                    new Exception(response.getJsonElement().toString())
-                );
+            myNextPage = response.getNextPage();
+
+            return result;
+        }
+
+        /**
+         * Requests the first page and, if its {@code Link} header tells the page range,
+         * all remaining pages concurrently, preserving page order.
+         *
+         * @return false if the page range is unknown and paging should continue sequentially
+         */
+        private boolean fetchAllConcurrently(@Nonnull GithubAuthData auth, @Nonnull List<T> result) throws IOException {
+            String page = myNextPage;
+            if (page == null) {
+                return false;
             }
+            myNextPage = null;
 
-            myNextPage = response.getNextPage();
+            ResponsePage<List<T>> first = request(auth, page, null, myHeaders, HttpVerb.GET, myReader);
+            List<T> items = first.getResult();
+            if (items == null) {
+                throw new HttpException("Empty response");
+            }
+            result.addAll(items);
 
-            List<T> result = new ArrayList<>();
-            for (DataConstructor raw : fromJson(response.getJsonElement().getAsJsonArray(), myRawArray)) {
-                result.add(createDataFromRaw(raw, myResult));
+            myNextPage = first.getNextPage();
+            String lastPage = first.getLastPage();
+            if (myNextPage == null || lastPage == null) {
+                return false;
+            }
+            int from = getPageNumber(myNextPage);
+            int to = getPageNumber(lastPage);
+            if (from < 0 || to < from) {
+                return false;
+            }
+
+            Deque<Future<ResponsePage<List<T>>>> inFlight = new ArrayDeque<>();
+            try {
+                int pageNumber = from;
+                while (pageNumber <= to || !inFlight.isEmpty()) {
+                    while (pageNumber <= to && inFlight.size() < myParallelism) {
+                        String path = withPageNumber(lastPage, pageNumber++);
+                        inFlight.add(GithubApiExecutors.getRequestExecutor().submit(GithubRequestContext.propagate(
+                            () -> request(auth, path, null, myHeaders, HttpVerb.GET, myReader)
+                        )));
+                    }
+                    List<T> pageItems = GithubApiAsync.await(inFlight.remove()).getResult();
+                    if (pageItems == null) {
+                        throw new HttpException("Empty response");
+                    }
+                    result.addAll(pageItems);
+                }
+            }
+            finally {
+                for (Future<ResponsePage<List<T>>> future : inFlight) {
+                    future.cancel(true);
+                }
+            }
+            myNextPage = null;
+            return true;
+        }
+
+        /**
+         * Stops paging and aborts pages requested in background.
+         */
+        public void cancel() {
+            myNextPage = null;
+            if (myPrefetcher != null) {
+                myPrefetcher.cancel();
+                myPrefetcher = null;
             }
-            return result;
         }
 
         public boolean hasNext() {
@@ -370,26 +979,180 @@ public class GithubApiUtil {
         @Nonnull
         public List<T> getAll(@Nonnull GithubAuthData auth) throws IOException {
             List<T> result = new ArrayList<>();
+            if (myParallelism > 1 && myPrefetcher == null && fetchAllConcurrently(auth, result)) {
+                return result;
+            }
             while (hasNext()) {
                 result.addAll(next(auth));
             }
             return result;
         }
+
+        /**
+         * Lazy view of the remaining items: a page is requested only when the consumer reaches it,
+         * so short-circuiting consumers (e.g. {@link Stream#findFirst()}) stop paging as soon as they are done.
+         * <p/>
+         * {@link IOException}s are rethrown as {@link UncheckedIOException}.
+         */
+        @Nonnull
+        public Stream<T> stream(@Nonnull GithubAuthData auth) {
+            return StreamSupport.stream(spliterator(auth), false).onClose(this::cancel);
+        }
+
+        /**
+         * @see #stream(GithubAuthData)
+         */
+        @Nonnull
+        public Iterator<T> iterator(@Nonnull GithubAuthData auth) {
+            return Spliterators.iterator(spliterator(auth));
+        }
+
+        /**
+         * @see #stream(GithubAuthData)
+         */
+        @Nonnull
+        public Spliterator<T> spliterator(@Nonnull GithubAuthData auth) {
+            return new PageSpliterator(auth);
+        }
+
+        private class PageSpliterator extends Spliterators.AbstractSpliterator<T> {
+            @Nonnull
+            private final GithubAuthData myAuth;
+            // items are polled out, so every item (and finally the whole page) can be collected once consumed
+            @Nonnull
+            private final Deque<T> myPage = new ArrayDeque<>();
+
+            private PageSpliterator(@Nonnull GithubAuthData auth) {
+                super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+                myAuth = auth;
+            }
+
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                while (myPage.isEmpty()) {
+                    if (!hasNext()) {
+                        return false;
+                    }
+                    try {
+                        myPage.addAll(next(myAuth));
+                    }
+                    catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                action.accept(myPage.poll());
+                return true;
+            }
+        }
+
+        /**
+         * Requests pages in background in order: a page is scheduled as soon as the headers of the previous one
+         * are received, as long as no more than {@code depth} pages are waiting ahead of the consumer.
+         */
+        private class PagePrefetcher {
+            @Nonnull
+            private final GithubAuthData myAuth;
+            private final int myDepth;
+            @Nonnull
+            private final Deque<Future<ResponsePage<List<T>>>> myScheduled = new ArrayDeque<>();
+            @Nullable
+            private String myPendingPage;
+            private boolean myCancelled;
+
+            private PagePrefetcher(@Nonnull GithubAuthData auth, @Nonnull String firstPage, int depth) {
+                myAuth = auth;
+                myDepth = depth;
+                myPendingPage = firstPage;
+                scheduleNext();
+            }
+
+            private synchronized void onNextPageKnown(@Nonnull String page) {
+                myPendingPage = page;
+                scheduleNext();
+            }
+
+            private synchronized void scheduleNext() {
+                // the head of the queue is the page the consumer is about to take, it does not count as prefetched
+                if (myCancelled || myPendingPage == null || myScheduled.size() > myDepth) {
+                    return;
+                }
+                String page = myPendingPage;
+                myPendingPage = null;
+                myScheduled.add(GithubApiExecutors.getRequestExecutor().submit(GithubRequestContext.propagate(
+                    () -> request(myAuth, page, null, myHeaders, HttpVerb.GET, myReader, this::onNextPageKnown)
+                )));
+            }
+
+            @Nonnull
+            private ResponsePage<List<T>> take() throws IOException {
+                Future<ResponsePage<List<T>>> future;
+                synchronized (this) {
+                    future = myScheduled.poll();
+                }
+                if (future == null) {
+                    throw new IllegalStateException("Page was not scheduled");
+                }
+                try {
+                    return GithubApiAsync.await(future);
+                }
+                finally {
+                    scheduleNext();
+                }
+            }
+
+            private synchronized void cancel() {
+                myCancelled = true;
+                for (Future<ResponsePage<List<T>>> future : myScheduled) {
+                    future.cancel(true);
+                }
+                myScheduled.clear();
+            }
+        }
     }
 
+    /**
+     * Decodes a json array response body the same way as pages of API responses, for benchmarks.
+     */
+    @TestOnly
+    @Nullable
+    static <Result> List<Result> decodeArray(
+        @Nonnull InputStream body,
+        @Nonnull Class<? extends DataConstructor> rawClass,
+        @Nonnull Class<Result> resultClass
+    ) throws IOException {
+        return readResponse(body, arrayReader(rawClass, resultClass));
+    }
+
+    /**
+     * Decodes a json object response body the same way as API responses, for benchmarks.
+     */
+    @TestOnly
+    @Nullable
+    static <Result> Result decodeObject(
+        @Nonnull InputStream body,
+        @Nonnull Class<? extends DataConstructor> rawClass,
+        @Nonnull Class<Result> resultClass
+    ) throws IOException {
+        return readResponse(body, objectReader(rawClass, resultClass));
+    }
+
+    /**
+     * @return Gson configured for the GitHub API, for benchmarks comparing other decoders
+     */
+    @TestOnly
     @Nonnull
-    private static <T> T fromJson(@Nullable JsonElement json, @Nonnull Class<T> classT) throws IOException {
-        if (json == null) {
-            throw new GithubJsonException("Unexpected empty response");
-        }
+    static Gson getGson() {
+        return gson;
+    }
 
+    @Nonnull
+    private static <T> T readJson(@Nonnull JsonReader reader, @Nonnull Class<T> classT) throws IOException {
         T res;
         try {
-            //cast as workaround for early java 1.6 bug
-            //noinspection RedundantCast
-            res = (T)gson.fromJson(json, classT);
+            res = gson.fromJson(reader, classT);
         }
         catch (ClassCastException | JsonParseException e) {
+            rethrowReadFailure(e);
             throw new GithubJsonException("Parse exception while converting JSON to object " + classT.toString(), e);
         }
         if (res == null) {
@@ -404,28 +1167,27 @@ public class GithubApiUtil {
 
     @Nonnull
     public static Collection<String> getTokenScopes(@Nonnull GithubAuthData auth) throws IOException {
-        HttpMethod method = null;
+        String uri = GithubUrlUtil.getApiUrl(auth.getHost()) + "/user";
+        GithubHttpRequest request = createRequest(auth, uri, null, Collections.<Header>emptyList(), HttpVerb.HEAD);
+        GithubHttpResponse response = doREST(auth, request);
         try {
-            String uri = GithubUrlUtil.getApiUrl(auth.getHost()) + "/user";
-            method = doREST(auth, uri, null, Collections.<Header>emptyList(), HttpVerb.HEAD);
-
-            checkStatusCode(method);
+            checkStatusCode(response);
 
-            Header header = method.getResponseHeader("X-OAuth-Scopes");
+            String header = response.getHeader("X-OAuth-Scopes");
             if (header == null) {
                 throw new HttpException("No scopes header");
             }
 
             Collection<String> scopes = new ArrayList<>();
-            for (HeaderElement elem : header.getElements()) {
-                scopes.add(elem.getName());
+            for (String scope : StringUtil.split(header, ",")) {
+                if (!StringUtil.isEmptyOrSpaces(scope)) {
+                    scopes.add(scope.trim());
+                }
             }
             return scopes;
         }
         finally {
-            if (method != null) {
-                method.releaseConnection();
-            }
+            release(request, response);
         }
     }
 
@@ -438,12 +1200,11 @@ public class GithubApiUtil {
         String path = "/authorizations";
 
         GithubAuthorizationRequest request = new GithubAuthorizationRequest(new ArrayList<>(scopes), note, null);
-        GithubAuthorization response = createDataFromRaw(
-            fromJson(
-                postRequest(auth, path, gson.toJson(request)),
-                GithubAuthorizationRaw.class
-            ),
-            GithubAuthorization.class
+        GithubAuthorization response = postRequest(
+            auth,
+            path,
+            gson.toJson(request),
+            objectReader(GithubAuthorizationRaw.class, GithubAuthorization.class)
         );
 
         return response.getToken();
@@ -465,23 +1226,48 @@ public class GithubApiUtil {
         return getScopedToken(auth, scopes, note);
     }
 
+    /**
+     * @return key telling the accounts apart, by host, login and credentials; the credentials are hashed, so it may be kept
+     * for as long as needed
+     */
+    @Nonnull
+    public static String getAccountIdentity(@Nonnull GithubAuthData auth) {
+        return GithubResponseCache.getIdentity(auth);
+    }
+
+    /**
+     * Updates the rate limits of all resources known by {@link GithubApiMetrics#getRateLimits()}.
+     * The request itself does not count against any limit, so it is made even when they are exhausted.
+     */
+    public static void refreshRateLimits(@Nonnull GithubAuthData auth) throws IOException {
+        GithubRateLimitRaw rateLimit = getRequest(auth, "/rate_limit", reader -> readJson(reader, GithubRateLimitRaw.class));
+        if (rateLimit.resources == null) {
+            throw new GithubJsonException("No rate limit resources in the response");
+        }
+        for (Map.Entry<String, GithubRateLimitRaw.Resource> entry : rateLimit.resources.entrySet()) {
+            GithubRateLimitRaw.Resource resource = entry.getValue();
+            if (resource != null && resource.limit != null && resource.remaining != null && resource.reset != null) {
+                GithubRateLimiter.getInstance().update(auth, entry.getKey(), resource.limit, resource.remaining, resource.reset * 1000);
+            }
+        }
+    }
+
     @Nonnull
     public static GithubUser getCurrentUser(@Nonnull GithubAuthData auth) throws IOException {
-        JsonElement result = getRequest(auth, "/user");
-        return createDataFromRaw(fromJson(result, GithubUserRaw.class), GithubUser.class);
+        return getRequest(auth, "/user", objectReader(GithubUserRaw.class, GithubUser.class));
     }
 
     @Nonnull
     public static GithubUserDetailed getCurrentUserDetailed(@Nonnull GithubAuthData auth) throws IOException {
-        JsonElement result = getRequest(auth, "/user");
-        return createDataFromRaw(fromJson(result, GithubUserRaw.class), GithubUserDetailed.class);
+        return getRequest(auth, "/user", objectReader(GithubUserRaw.class, GithubUserDetailed.class));
     }
 
     @Nonnull
     public static List<GithubRepo> getUserRepos(@Nonnull GithubAuthData auth) throws IOException {
         String path = "/user/repos?" + PER_PAGE;
 
-        PagedRequest<GithubRepo> request = new PagedRequest<>(path, GithubRepo.class, GithubRepoRaw[].class);
+        PagedRequest<GithubRepo> request = new PagedRequest<>(path, GithubRepo.class, GithubRepoRaw.class)
+            .withPrefetch(PREFETCH_DEPTH);
 
         return request.getAll(auth);
     }
@@ -490,7 +1276,8 @@ public class GithubApiUtil {
     public static List<GithubRepo> getUserRepos(@Nonnull GithubAuthData auth, @Nonnull String user) throws IOException {
         String path = "/users/" + user + "/repos?" + PER_PAGE;
 
-        PagedRequest<GithubRepo> request = new PagedRequest<>(path, GithubRepo.class, GithubRepoRaw[].class);
+        PagedRequest<GithubRepo> request = new PagedRequest<>(path, GithubRepo.class, GithubRepoRaw.class)
+            .withPrefetch(PREFETCH_DEPTH);
 
         return request.getAll(auth);
     }
@@ -502,16 +1289,16 @@ public class GithubApiUtil {
         repos.addAll(getUserRepos(auth));
 
         String path = "/user/orgs?" + PER_PAGE;
-        PagedRequest<GithubOrg> request = new PagedRequest<>(path, GithubOrg.class, GithubOrgRaw[].class);
+        PagedRequest<GithubOrg> request = new PagedRequest<>(path, GithubOrg.class, GithubOrgRaw.class);
 
         for (GithubOrg org : request.getAll(auth)) {
             String pathOrg = "/orgs/" + org.getLogin() + "/repos?type=member&" + PER_PAGE;
-            PagedRequest<GithubRepo> requestOrg = new PagedRequest<>(pathOrg, GithubRepo.class, GithubRepoRaw[].class);
+            PagedRequest<GithubRepo> requestOrg = new PagedRequest<>(pathOrg, GithubRepo.class, GithubRepoRaw.class);
             repos.addAll(requestOrg.getAll(auth));
         }
 
         String pathWatched = "/user/subscriptions?" + PER_PAGE;
-        PagedRequest<GithubRepo> requestWatched = new PagedRequest<>(pathWatched, GithubRepo.class, GithubRepoRaw[].class);
+        PagedRequest<GithubRepo> requestWatched = new PagedRequest<>(pathWatched, GithubRepo.class, GithubRepoRaw.class);
         repos.addAll(requestWatched.getAll(auth));
 
         return repos;
@@ -525,9 +1312,7 @@ public class GithubApiUtil {
     ) throws IOException {
         final String request = "/repos/" + owner + "/" + name;
 
-        JsonElement jsonObject = getRequest(auth, request);
-
-        return createDataFromRaw(fromJson(jsonObject, GithubRepoRaw.class), GithubRepoDetailed.class);
+        return getRequest(auth, request, objectReader(GithubRepoRaw.class, GithubRepoDetailed.class));
     }
 
     public static void deleteGithubRepository(
@@ -547,9 +1332,7 @@ public class GithubApiUtil {
     @Nonnull
     public static GithubGist getGist(@Nonnull GithubAuthData auth, @Nonnull String id) throws IOException {
         String path = "/gists/" + id;
-        JsonElement result = getRequest(auth, path);
-
-        return createDataFromRaw(fromJson(result, GithubGistRaw.class), GithubGist.class);
+        return getRequest(auth, path, objectReader(GithubGistRaw.class, GithubGist.class));
     }
 
     @Nonnull
@@ -560,10 +1343,7 @@ public class GithubApiUtil {
         boolean isPrivate
     ) throws IOException {
         String request = gson.toJson(new GithubGistRequest(contents, description, !isPrivate));
-        return createDataFromRaw(
-            fromJson(postRequest(auth, "/gists", request), GithubGistRaw.class),
-            GithubGist.class
-        );
+        return postRequest(auth, "/gists", request, objectReader(GithubGistRaw.class, GithubGist.class));
     }
 
     @Nonnull
@@ -577,12 +1357,11 @@ public class GithubApiUtil {
         @Nonnull String onto
     ) throws IOException {
         String request = gson.toJson(new GithubPullRequestRequest(title, description, from, onto));
-        return createDataFromRaw(
-            fromJson(
-                postRequest(auth, "/repos/" + user + "/" + repo + "/pulls", request),
-                GithubPullRequestRaw.class
-            ),
-            GithubPullRequest.class
+        return postRequest(
+            auth,
+            "/repos/" + user + "/" + repo + "/pulls",
+            request,
+            objectReader(GithubPullRequestRaw.class, GithubPullRequest.class)
         );
     }
 
@@ -597,10 +1376,7 @@ public class GithubApiUtil {
 
         GithubRepoRequest request = new GithubRepoRequest(name, description, isPublic);
 
-        return createDataFromRaw(
-            fromJson(postRequest(auth, path, gson.toJson(request)), GithubRepoRaw.class),
-            GithubRepo.class
-        );
+        return postRequest(auth, path, gson.toJson(request), objectReader(GithubRepoRaw.class, GithubRepo.class));
     }
 
     @Nonnull
@@ -610,19 +1386,89 @@ public class GithubApiUtil {
         @Nonnull String repo,
         @Nullable String assigned
     ) throws IOException {
-        String path;
+        String path = getIssuesAssignedPath(user, repo, assigned);
+        PagedRequest<GithubIssue> request = new PagedRequest<>(path, GithubIssue.class, GithubIssueRaw.class)
+            .withPrefetch(PREFETCH_DEPTH);
+
+        return request.getAll(auth);
+    }
+
+    /**
+     * Passes the issues to the consumer page by page, as they arrive.
+     */
+    public static void getIssuesAssigned(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String user,
+        @Nonnull String repo,
+        @Nullable String assigned,
+        @Nonnull Consumer<? super List<GithubIssue>> consumer
+    ) throws IOException {
+        String path = getIssuesAssignedPath(user, repo, assigned);
+        PagedRequest<GithubIssue> request = new PagedRequest<>(path, GithubIssue.class, GithubIssueRaw.class)
+            .withPrefetch(PREFETCH_DEPTH);
+        try {
+            while (request.hasNext()) {
+                consumer.accept(request.next(auth));
+            }
+        }
+        finally {
+            request.cancel();
+        }
+    }
+
+    @Nonnull
+    private static String getIssuesAssignedPath(@Nonnull String user, @Nonnull String repo, @Nullable String assigned) {
         if (StringUtil.isEmptyOrSpaces(assigned)) {
-            path = "/repos/" + user + "/" + repo + "/issues?" + PER_PAGE;
+            return "/repos/" + user + "/" + repo + "/issues?" + PER_PAGE;
         }
-        else {
-            path = "/repos/" + user + "/" + repo + "/issues?assignee=" + assigned + "&" + PER_PAGE;
+        return "/repos/" + user + "/" + repo + "/issues?assignee=" + assigned + "&" + PER_PAGE;
+    }
+
+    /**
+     * @param since the issues updated at this time or later are returned, all issues if null
+     * @return open and closed issues, least recently updated first
+     */
+    @Nonnull
+    public static List<GithubIssue> getIssuesUpdatedSince(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String user,
+        @Nonnull String repo,
+        @Nullable Date since
+    ) throws IOException {
+        String path = "/repos/" + user + "/" + repo + "/issues?state=all&sort=updated&direction=asc&" + PER_PAGE;
+        if (since != null) {
+            path += "&since=" + formatDate(since);
         }
 
-        PagedRequest<GithubIssue> request = new PagedRequest<>(path, GithubIssue.class, GithubIssueRaw[].class);
+        PagedRequest<GithubIssue> request = new PagedRequest<>(path, GithubIssue.class, GithubIssueRaw.class)
+            .withPrefetch(PREFETCH_DEPTH);
 
         return request.getAll(auth);
     }
 
+    /**
+     * Requests only the pages of the issues from {@code offset} to {@code offset + limit}, most recent first.
+     *
+     * @param withClosed whether closed issues are included, only open ones are returned otherwise
+     */
+    @Nonnull
+    public static List<GithubIssue> getIssuesAssigned(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String user,
+        @Nonnull String repo,
+        @Nullable String assigned,
+        int offset,
+        int limit,
+        boolean withClosed
+    ) throws IOException {
+        StringBuilder path = new StringBuilder("/repos/" + user + "/" + repo + "/issues?state=" + (withClosed ? "all" : "open"));
+        if (!StringUtil.isEmptyOrSpaces(assigned)) {
+            path.append("&assignee=").append(assigned);
+        }
+        ResponseReader<List<GithubIssue>> reader = arrayReader(GithubIssueRaw.class, GithubIssue.class);
+        return getWindow(offset, limit, (page, perPage) -> getRequest(auth, path + "&per_page=" + perPage + "&page=" + page, reader));
+    }
+
     @Nonnull
     public static List<GithubIssue> getIssuesQueried(
         @Nonnull GithubAuthData auth,
@@ -630,17 +1476,35 @@ public class GithubApiUtil {
         @Nonnull String repo,
         @Nullable String query
     ) throws IOException {
-        query = URLEncoder.encode("@" + user + "/" + repo + " " + query, "UTF-8");
+        query = URLEncoder.encode("repo:" + user + "/" + repo + " " + query, "UTF-8");
         String path = "/search/issues?q=" + query;
 
-        //TODO: remove header after end of preview period. ~ october 2013
-        //TODO: Use bodyHtml for issues - preview does not support this feature
-        JsonElement result = getRequest(auth, path, ACCEPT_NEW_SEARCH_API);
+        return getRequest(auth, path, objectReader(GithubIssuesSearchResultRaw.class, GithubIssuesSearchResult.class)).getIssues();
+    }
 
-        return createDataFromRaw(
-            fromJson(result, GithubIssuesSearchResultRaw.class),
-            GithubIssuesSearchResult.class
-        ).getIssues();
+    /**
+     * Requests only the pages of the found issues from {@code offset} to {@code offset + limit}.
+     *
+     * @param withClosed whether closed issues are included, only open ones are returned otherwise
+     */
+    @Nonnull
+    public static List<GithubIssue> getIssuesQueried(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String user,
+        @Nonnull String repo,
+        @Nullable String query,
+        int offset,
+        int limit,
+        boolean withClosed
+    ) throws IOException {
+        String q = "repo:" + user + "/" + repo + " " + query + (withClosed ? "" : " state:open");
+        String path = "/search/issues?q=" + URLEncoder.encode(q, "UTF-8");
+        ResponseReader<GithubIssuesSearchResult> reader = objectReader(GithubIssuesSearchResultRaw.class, GithubIssuesSearchResult.class);
+        return getWindow(
+            offset,
+            limit,
+            (page, perPage) -> getRequest(auth, path + "&per_page=" + perPage + "&page=" + page, reader).getIssues()
+        );
     }
 
     @Nonnull
@@ -652,9 +1516,7 @@ public class GithubApiUtil {
     ) throws IOException {
         String path = "/repos/" + user + "/" + repo + "/issues/" + id;
 
-        JsonElement result = getRequest(auth, path);
-
-        return createDataFromRaw(fromJson(result, GithubIssueRaw.class), GithubIssue.class);
+        return getRequest(auth, path, objectReader(GithubIssueRaw.class, GithubIssue.class));
     }
 
     @Nonnull
@@ -667,7 +1529,7 @@ public class GithubApiUtil {
         String path = "/repos/" + user + "/" + repo + "/issues/" + id + "/comments?" + PER_PAGE;
 
         PagedRequest<GithubIssueComment> request =
-            new PagedRequest<>(path, GithubIssueComment.class, GithubIssueCommentRaw[].class, ACCEPT_HTML_BODY_MARKUP);
+            new PagedRequest<>(path, GithubIssueComment.class, GithubIssueCommentRaw.class, ACCEPT_HTML_BODY_MARKUP);
 
         return request.getAll(auth);
     }
@@ -681,8 +1543,7 @@ public class GithubApiUtil {
     ) throws IOException {
         String path = "/repos/" + user + "/" + repo + "/commits/" + sha;
 
-        JsonElement result = getRequest(auth, path);
-        return createDataFromRaw(fromJson(result, GithubCommitRaw.class), GithubCommitDetailed.class);
+        return getRequest(auth, path, objectReader(GithubCommitRaw.class, GithubCommitDetailed.class));
     }
 
     @Nonnull
@@ -693,12 +1554,11 @@ public class GithubApiUtil {
         int id
     ) throws IOException {
         String path = "/repos/" + user + "/" + repo + "/pulls/" + id;
-        return createDataFromRaw(
-            fromJson(
-                getRequest(auth, path, ACCEPT_HTML_BODY_MARKUP),
-                GithubPullRequestRaw.class
-            ),
-            GithubPullRequest.class
+        return getRequest(
+            auth,
+            path,
+            objectReader(GithubPullRequestRaw.class, GithubPullRequest.class),
+            ACCEPT_HTML_BODY_MARKUP
         );
     }
 
@@ -711,7 +1571,7 @@ public class GithubApiUtil {
         String path = "/repos/" + user + "/" + repo + "/pulls?" + PER_PAGE;
 
         PagedRequest<GithubPullRequest> request =
-            new PagedRequest<>(path, GithubPullRequest.class, GithubPullRequestRaw[].class, ACCEPT_HTML_BODY_MARKUP);
+            new PagedRequest<>(path, GithubPullRequest.class, GithubPullRequestRaw.class, ACCEPT_HTML_BODY_MARKUP);
 
         return request.getAll(auth);
     }
@@ -720,7 +1580,7 @@ public class GithubApiUtil {
     public static PagedRequest<GithubPullRequest> getPullRequests(@Nonnull String user, @Nonnull String repo) {
         String path = "/repos/" + user + "/" + repo + "/pulls?" + PER_PAGE;
 
-        return new PagedRequest<>(path, GithubPullRequest.class, GithubPullRequestRaw[].class, ACCEPT_HTML_BODY_MARKUP);
+        return new PagedRequest<>(path, GithubPullRequest.class, GithubPullRequestRaw.class, ACCEPT_HTML_BODY_MARKUP);
     }
 
     @Nonnull
@@ -732,7 +1592,7 @@ public class GithubApiUtil {
     ) throws IOException {
         String path = "/repos/" + user + "/" + repo + "/pulls/" + id + "/commits?" + PER_PAGE;
 
-        PagedRequest<GithubCommit> request = new PagedRequest<>(path, GithubCommit.class, GithubCommitRaw[].class);
+        PagedRequest<GithubCommit> request = new PagedRequest<>(path, GithubCommit.class, GithubCommitRaw.class);
 
         return request.getAll(auth);
     }
@@ -746,7 +1606,8 @@ public class GithubApiUtil {
     ) throws IOException {
         String path = "/repos/" + user + "/" + repo + "/pulls/" + id + "/files?" + PER_PAGE;
 
-        PagedRequest<GithubFile> request = new PagedRequest<>(path, GithubFile.class, GithubFileRaw[].class);
+        PagedRequest<GithubFile> request = new PagedRequest<>(path, GithubFile.class, GithubFileRaw.class)
+            .withPrefetch(PREFETCH_DEPTH);
 
         return request.getAll(auth);
     }
@@ -759,7 +1620,8 @@ public class GithubApiUtil {
     ) throws IOException {
         String path = "/repos/" + user + "/" + repo + "/branches?" + PER_PAGE;
 
-        PagedRequest<GithubBranch> request = new PagedRequest<>(path, GithubBranch.class, GithubBranchRaw[].class);
+        PagedRequest<GithubBranch> request = new PagedRequest<>(path, GithubBranch.class, GithubBranchRaw.class)
+            .withPrefetch(PREFETCH_DEPTH);
 
         return request.getAll(auth);
     }
@@ -773,16 +1635,16 @@ public class GithubApiUtil {
     ) throws IOException {
         String path = "/repos/" + user + "/" + repo + "/forks?" + PER_PAGE;
 
-        PagedRequest<GithubRepo> request = new PagedRequest<>(path, GithubRepo.class, GithubRepoRaw[].class);
+        PagedRequest<GithubRepo> request = new PagedRequest<>(path, GithubRepo.class, GithubRepoRaw.class);
 
-        while (request.hasNext()) {
-            for (GithubRepo fork : request.next(auth)) {
-                if (StringUtil.equalsIgnoreCase(fork.getUserName(), forkUser)) {
-                    return fork;
-                }
-            }
+        try {
+            return request.stream(auth)
+                .filter(fork -> StringUtil.equalsIgnoreCase(fork.getUserName(), forkUser))
+                .findFirst()
+                .orElse(null);
+        }
+        catch (UncheckedIOException e) {
+            throw e.getCause();
         }
-
-        return null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package org.jetbrains.plugins.github.api;
+
+import jakarta.annotation.Nonnull;
+
+import java.io.InterruptedIOException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Cancels a group of requests, possibly running on several threads: HTTP exchanges in progress are aborted,
+ * threads waiting for a retry or for the rate limit are interrupted, and new requests fail immediately.
+ */
+final class GithubCancellation {
+    private final Set<GithubHttpRequest> myRequests = new HashSet<>();
+    private final Set<Thread> myThreads = new HashSet<>();
+    private boolean myCancelled;
+
+    synchronized void cancel() {
+        if (myCancelled) {
+            return;
+        }
+        myCancelled = true;
+        for (GithubHttpRequest request : myRequests) {
+            request.abort();
+        }
+        for (Thread thread : myThreads) {
+            thread.interrupt();
+        }
+    }
+
+    synchronized boolean isCancelled() {
+        return myCancelled;
+    }
+
+    void checkCanceled() throws InterruptedIOException {
+        if (isCancelled()) {
+            throw new InterruptedIOException("GitHub request cancelled");
+        }
+    }
+
+    synchronized void register(@Nonnull GithubHttpRequest request) {
+        if (myCancelled) {
+            request.abort();
+        }
+        myRequests.add(request);
+    }
+
+    synchronized void unregister(@Nonnull GithubHttpRequest request) {
+        myRequests.remove(request);
+    }
+
+    synchronized void enter(@Nonnull Thread thread) {
+        myThreads.add(thread);
+    }
+
+    synchronized void exit(@Nonnull Thread thread) {
+        myThreads.remove(thread);
+        if (myCancelled) {
+            // the thread goes back to a pool, it must not carry the interruption to the next task
+            Thread.interrupted();
+        }
+    }
+}
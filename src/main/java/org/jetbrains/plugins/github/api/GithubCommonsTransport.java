@@ -0,0 +1,130 @@
+package org.jetbrains.plugins.github.api;
+
+import consulo.http.HttpProxyManager;
+import consulo.util.lang.StringUtil;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.apache.commons.httpclient.*;
+import org.apache.commons.httpclient.auth.AuthScope;
+import org.apache.commons.httpclient.methods.*;
+import org.apache.commons.httpclient.params.HttpMethodParams;
+import org.jetbrains.plugins.github.util.GithubSslSupport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * HTTP/1.1 transport on commons-httpclient, with keep-alive connections from {@link GithubConnectionPool}.
+ */
+final class GithubCommonsTransport implements GithubTransport {
+    private static final int CONNECTION_TIMEOUT = 5000;
+    private static final long CONNECTION_MANAGER_TIMEOUT = 30000;
+
+    private static final GithubCommonsTransport ourInstance = new GithubCommonsTransport();
+
+    @Nonnull
+    static GithubCommonsTransport getInstance() {
+        return ourInstance;
+    }
+
+    @Nonnull
+    @Override
+    public GithubHttpResponse execute(@Nonnull GithubHttpRequest request) throws IOException {
+        HttpClient client = getHttpClient(request.isUseProxy());
+        HttpMethod method = GithubSslSupport.getInstance().executeSelfSignedCertificateAwareRequest(
+            client,
+            request.getUri(),
+            uri -> createMethod(request, uri)
+        );
+        return new CommonsResponse(method);
+    }
+
+    @Nonnull
+    private static HttpMethod createMethod(@Nonnull GithubHttpRequest request, @Nonnull String uri) throws IOException {
+        HttpMethod method;
+        switch (request.getMethod()) {
+            case "POST":
+                method = new PostMethod(uri);
+                if (request.getBody() != null) {
+                    ((PostMethod)method).setRequestEntity(new StringRequestEntity(request.getBody(), "application/json", "UTF-8"));
+                }
+                break;
+            case "GET":
+                method = new GetMethod(uri);
+                break;
+            case "DELETE":
+                method = new DeleteMethod(uri);
+                break;
+            case "HEAD":
+                method = new HeadMethod(uri);
+                break;
+            default:
+                throw new IllegalStateException("Wrong HttpVerb: unknown method: " + request.getMethod());
+        }
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            method.addRequestHeader(header.getKey(), header.getValue());
+        }
+        request.setAbortAction(method::abort);
+        return method;
+    }
+
+    @Nonnull
+    private static HttpClient getHttpClient(boolean useProxy) {
+        final HttpClient client = new HttpClient(GithubConnectionPool.getConnectionManager(CONNECTION_TIMEOUT));
+        // failed requests are retried by GithubRetryPolicy, with backoff
+        client.getParams().setParameter(HttpMethodParams.RETRY_HANDLER, new DefaultHttpMethodRetryHandler(0, false));
+        client.getParams().setConnectionManagerTimeout(CONNECTION_MANAGER_TIMEOUT); //how long to wait for a free pooled connection
+        client.getParams().setContentCharset("UTF-8");
+        // Configure proxySettings if it is required
+        final HttpProxyManager proxySettings = HttpProxyManager.getInstance();
+        if (useProxy && proxySettings.isHttpProxyEnabled() && !StringUtil.isEmptyOrSpaces(proxySettings.getProxyHost())) {
+            client.getHostConfiguration().setProxy(proxySettings.getProxyHost(), proxySettings.getProxyPort());
+            if (proxySettings.isProxyAuthenticationEnabled()) {
+                client.getState().setProxyCredentials(
+                    AuthScope.ANY,
+                    new UsernamePasswordCredentials(proxySettings.getProxyLogin(), proxySettings.getPlainProxyPassword())
+                );
+            }
+        }
+        return client;
+    }
+
+    private static final class CommonsResponse implements GithubHttpResponse {
+        @Nonnull
+        private final HttpMethod myMethod;
+
+        CommonsResponse(@Nonnull HttpMethod method) {
+            myMethod = method;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return myMethod.getStatusCode();
+        }
+
+        @Nonnull
+        @Override
+        public String getStatusText() {
+            return StringUtil.notNullize(myMethod.getStatusText());
+        }
+
+        @Nullable
+        @Override
+        public String getHeader(@Nonnull String name) {
+            Header header = myMethod.getResponseHeader(name);
+            return header == null ? null : header.getValue();
+        }
+
+        @Nullable
+        @Override
+        public InputStream getBody() throws IOException {
+            return myMethod.getResponseBodyAsStream();
+        }
+
+        @Override
+        public void close() {
+            myMethod.releaseConnection();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.jetbrains.plugins.github.api;
+
+import jakarta.annotation.Nonnull;
+import org.apache.commons.httpclient.HttpConnectionManager;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
+import org.apache.commons.httpclient.params.HttpConnectionManagerParams;
+import org.apache.commons.httpclient.util.IdleConnectionTimeoutThread;
+import org.jetbrains.plugins.github.util.GithubSettings;
+
+/**
+ * Keep-alive connection pool shared by all requests made through {@link GithubCommonsTransport}.
+ * <p/>
+ * {@link org.apache.commons.httpclient.HttpClient} instances are cheap and are still created per request
+ * (they carry credentials and proxy settings), but all of them lease connections from this pool,
+ * so consecutive requests to the same host reuse an already established TCP/TLS connection.
+ */
+final class GithubConnectionPool {
+    private static final long IDLE_CHECK_INTERVAL = 5000;
+
+    private static MultiThreadedHttpConnectionManager ourConnectionManager;
+
+    private GithubConnectionPool() {
+    }
+
+    @Nonnull
+    static synchronized HttpConnectionManager getConnectionManager(int connectionTimeout) {
+        if (ourConnectionManager == null) {
+            GithubSettings settings = GithubSettings.getInstance();
+            int maxPerHost = Math.max(1, settings.getMaxConnectionsPerHost());
+
+            MultiThreadedHttpConnectionManager manager = new MultiThreadedHttpConnectionManager();
+            HttpConnectionManagerParams params = manager.getParams();
+            params.setDefaultMaxConnectionsPerHost(maxPerHost);
+            params.setMaxTotalConnections(maxPerHost * 4);
+            params.setConnectionTimeout(connectionTimeout); //how long it takes to connect to remote host
+            params.setSoTimeout(connectionTimeout); //how long it takes to retrieve data from remote host
+            // pooled connections can be closed by the server or a proxy while idle
+            params.setStaleCheckingEnabled(true);
+
+            IdleConnectionTimeoutThread evictor = new IdleConnectionTimeoutThread();
+            evictor.setName("GitHub idle connection evictor");
+            evictor.setTimeoutInterval(IDLE_CHECK_INTERVAL);
+            evictor.setConnectionTimeout(Math.max(IDLE_CHECK_INTERVAL, settings.getIdleConnectionTimeout()));
+            evictor.addConnectionManager(manager);
+            evictor.start();
+
+            ourConnectionManager = manager;
+        }
+        return ourConnectionManager;
+    }
+}
@@ -0,0 +1,354 @@
+package org.jetbrains.plugins.github.api;
+
+import consulo.container.boot.ContainerPathManager;
+import consulo.logging.Logger;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.jetbrains.plugins.github.util.GithubAuthData;
+import org.jetbrains.plugins.github.util.GithubUtil;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Persistent second level of {@link GithubResponseCache}: raw response bodies with their validators,
+ * stored in the IDE system directory so the first request after a restart can be revalidated instead of downloaded.
+ * <p/>
+ * Every account has its own directory, entries are encrypted with a key derived from the account credentials
+ * by PBKDF2. Each entry is a separate file named by the hash of the cache key, so the file system serves as the index;
+ * the last modification time of a file is its last access time, the least recently used files are evicted
+ * once the total size exceeds {@link #MAX_TOTAL_SIZE}.
+ * <p/>
+ * Entries are replaced by atomic moves, so they are read and encrypted without a lock;
+ * only the bookkeeping of the total size is synchronized.
+ */
+final class GithubDiskResponseCache {
+    private static final Logger LOG = GithubUtil.LOG;
+
+    static final int MAX_ENTRY_SIZE = 4 * 1024 * 1024;
+    private static final long MAX_TOTAL_SIZE = 64L * 1024 * 1024;
+
+    // entries of version 1 were encrypted with a key derived by a bare hash, they are dropped as unreadable
+    private static final int FORMAT_VERSION = 2;
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH = 128;
+    private static final String CIPHER = "AES/GCM/NoPadding";
+    private static final String KEY_DERIVATION = "PBKDF2WithHmacSHA256";
+    private static final int KEY_DERIVATION_ITERATIONS = 100_000;
+    private static final int KEY_LENGTH = 256;
+
+    @Nonnull
+    private final SecureRandom myRandom = new SecureRandom();
+    // the derivation is deliberately slow, it is done once per account
+    @Nonnull
+    private final Map<String, SecretKeySpec> mySecretKeys = new ConcurrentHashMap<>();
+    @Nonnull
+    private final AtomicBoolean myEvicting = new AtomicBoolean();
+    // guarded by this
+    @Nullable
+    private Path myRoot;
+    private boolean myRootInitialized;
+    private long myTotalSize = -1;
+    // size written or removed while an eviction walks the directory
+    private long myChangesDuringEviction;
+
+    GithubDiskResponseCache() {
+    }
+
+    /**
+     * Stores the entries in the given directory instead of the IDE system directory.
+     */
+    GithubDiskResponseCache(@Nonnull Path root) {
+        myRoot = root;
+        myRootInitialized = true;
+    }
+
+    @Nullable
+    GithubResponseCache.Entry read(@Nonnull GithubAuthData auth, @Nonnull String key) {
+        Path file = getFile(auth, key);
+        if (file == null || !Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            byte[] content = Files.readAllBytes(file);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(decrypt(auth, content)));
+            if (!key.equals(in.readUTF())) {
+                return null;
+            }
+            String eTag = readNullable(in);
+            String lastModified = readNullable(in);
+            String nextPage = readNullable(in);
+            String lastPage = readNullable(in);
+            byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return GithubResponseCache.Entry.stored(eTag, lastModified, body, nextPage, lastPage);
+        }
+        catch (IOException | GeneralSecurityException e) {
+            LOG.debug("Dropping unreadable GitHub response cache entry " + file, e);
+            remove(auth, key);
+            return null;
+        }
+    }
+
+    void write(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String key,
+        @Nullable String eTag,
+        @Nullable String lastModified,
+        @Nullable String nextPage,
+        @Nullable String lastPage,
+        @Nonnull byte[] body
+    ) {
+        Path file = getFile(auth, key);
+        if (file == null) {
+            return;
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length + 512);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeUTF(key);
+            writeNullable(out, eTag);
+            writeNullable(out, lastModified);
+            writeNullable(out, nextPage);
+            writeNullable(out, lastPage);
+            out.writeInt(body.length);
+            out.write(body);
+            out.flush();
+
+            byte[] content = encrypt(auth, bytes.toByteArray());
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            Files.write(temp, content);
+            synchronized (this) {
+                long replacedSize = getSize(file);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                sizeChanged(content.length - replacedSize);
+            }
+            evictIfNeeded();
+        }
+        catch (IOException | GeneralSecurityException e) {
+            LOG.debug("Can't store GitHub response cache entry " + file, e);
+        }
+    }
+
+    void remove(@Nonnull GithubAuthData auth, @Nonnull String key) {
+        Path file = getFile(auth, key);
+        if (file != null) {
+            try {
+                synchronized (this) {
+                    long size = getSize(file);
+                    if (Files.deleteIfExists(file)) {
+                        sizeChanged(-size);
+                    }
+                }
+            }
+            catch (IOException e) {
+                LOG.debug(e);
+            }
+        }
+    }
+
+    /**
+     * @return the total size, or -1 if it is not known yet
+     */
+    synchronized long getTotalSize() {
+        return myTotalSize;
+    }
+
+    private synchronized void sizeChanged(long delta) {
+        if (myTotalSize >= 0) {
+            myTotalSize += delta;
+        }
+        if (myEvicting.get()) {
+            myChangesDuringEviction += delta;
+        }
+    }
+
+    private static long getSize(@Nonnull Path file) throws IOException {
+        return Files.isRegularFile(file) ? Files.size(file) : 0;
+    }
+
+    /**
+     * Walks the cache directory without the lock. Writes meanwhile are counted on top of the size it finds,
+     * so the total can only be overestimated, which at worst makes the next eviction come earlier.
+     */
+    private void evictIfNeeded() throws IOException {
+        Path root = getRoot();
+        synchronized (this) {
+            if (root == null || (myTotalSize >= 0 && myTotalSize <= MAX_TOTAL_SIZE)) {
+                return;
+            }
+        }
+        // one eviction at a time is enough
+        if (!myEvicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            evict(root);
+        }
+        finally {
+            myEvicting.set(false);
+        }
+    }
+
+    private void evict(@Nonnull Path root) throws IOException {
+        synchronized (this) {
+            myChangesDuringEviction = 0;
+        }
+
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> stream = Files.walk(root)) {
+            stream.filter(Files::isRegularFile).forEach(files::add);
+        }
+        Map<Path, FileTime> accessTimes = new HashMap<>();
+        long total = 0;
+        for (Iterator<Path> iterator = files.iterator(); iterator.hasNext(); ) {
+            Path file = iterator.next();
+            try {
+                accessTimes.put(file, Files.getLastModifiedTime(file));
+                total += Files.size(file);
+            }
+            catch (NoSuchFileException e) {
+                // removed meanwhile
+                iterator.remove();
+            }
+        }
+
+        files.sort(Comparator.comparing(accessTimes::get));
+        // evict a bit more than needed, so eviction does not run on every write
+        long target = MAX_TOTAL_SIZE * 3 / 4;
+        for (Path file : files) {
+            if (total <= target) {
+                break;
+            }
+            long size = getSize(file);
+            Files.deleteIfExists(file);
+            total -= size;
+        }
+        synchronized (this) {
+            myTotalSize = total + myChangesDuringEviction;
+        }
+    }
+
+    @Nullable
+    private Path getFile(@Nonnull GithubAuthData auth, @Nonnull String key) {
+        Path root = getRoot();
+        if (root == null) {
+            return null;
+        }
+        String account = sha256Hex(GithubResponseCache.getIdentity(auth)).substring(0, 16);
+        return root.resolve(account).resolve(sha256Hex(key));
+    }
+
+    @Nullable
+    private synchronized Path getRoot() {
+        if (!myRootInitialized) {
+            myRootInitialized = true;
+            try {
+                myRoot = Paths.get(ContainerPathManager.get().getSystemPath(), "github", "api-cache");
+            }
+            catch (RuntimeException e) {
+                LOG.info("GitHub response cache directory is not available", e);
+            }
+        }
+        return myRoot;
+    }
+
+    @Nonnull
+    private byte[] encrypt(@Nonnull GithubAuthData auth, @Nonnull byte[] data) throws GeneralSecurityException, IOException {
+        byte[] iv = new byte[IV_LENGTH];
+        myRandom.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance(CIPHER);
+        cipher.init(Cipher.ENCRYPT_MODE, getSecretKey(auth), new GCMParameterSpec(TAG_LENGTH, iv));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length + IV_LENGTH + 32);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(FORMAT_VERSION);
+        out.write(iv);
+        out.write(cipher.doFinal(data));
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    @Nonnull
+    private byte[] decrypt(@Nonnull GithubAuthData auth, @Nonnull byte[] content) throws GeneralSecurityException, IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(content));
+        if (in.readInt() != FORMAT_VERSION) {
+            throw new IOException("Unsupported cache entry format");
+        }
+        byte[] iv = new byte[IV_LENGTH];
+        in.readFully(iv);
+
+        Cipher cipher = Cipher.getInstance(CIPHER);
+        cipher.init(Cipher.DECRYPT_MODE, getSecretKey(auth), new GCMParameterSpec(TAG_LENGTH, iv));
+        int offset = Integer.BYTES + IV_LENGTH;
+        return cipher.doFinal(content, offset, content.length - offset);
+    }
+
+    @Nonnull
+    private SecretKeySpec getSecretKey(@Nonnull GithubAuthData auth) throws GeneralSecurityException {
+        String identity = GithubResponseCache.getIdentity(auth);
+        SecretKeySpec key = mySecretKeys.get(identity);
+        if (key == null) {
+            key = deriveSecretKey(auth.getHost(), GithubResponseCache.getCredentials(auth));
+            mySecretKeys.put(identity, key);
+        }
+        return key;
+    }
+
+    @Nonnull
+    static SecretKeySpec deriveSecretKey(@Nonnull String host, @Nonnull String credentials) throws GeneralSecurityException {
+        byte[] salt = ("consulo-github-api-cache\n" + host).getBytes(StandardCharsets.UTF_8);
+        PBEKeySpec spec = new PBEKeySpec(credentials.toCharArray(), salt, KEY_DERIVATION_ITERATIONS, KEY_LENGTH);
+        try {
+            return new SecretKeySpec(SecretKeyFactory.getInstance(KEY_DERIVATION).generateSecret(spec).getEncoded(), "AES");
+        }
+        finally {
+            spec.clearPassword();
+        }
+    }
+
+    @Nonnull
+    private static String sha256Hex(@Nonnull String value) {
+        return HexFormat.of().formatHex(sha256(value));
+    }
+
+    @Nonnull
+    private static byte[] sha256(@Nonnull String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Nullable
+    private static String readNullable(@Nonnull DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeNullable(@Nonnull DataOutput out, @Nullable String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.jetbrains.plugins.github.api;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * HTTP request to the GitHub API, independent of the {@link GithubTransport} executing it.
+ * Authorization headers are already included.
+ */
+public final class GithubHttpRequest {
+    @Nonnull
+    private final String myMethod;
+    @Nonnull
+    private final String myUri;
+    @Nonnull
+    private final Map<String, String> myHeaders;
+    @Nullable
+    private final String myBody;
+    private final boolean myUseProxy;
+
+    @Nullable
+    private Runnable myAbortAction;
+    private boolean myAborted;
+
+    public GithubHttpRequest(
+        @Nonnull String method,
+        @Nonnull String uri,
+        @Nonnull Map<String, String> headers,
+        @Nullable String body,
+        boolean useProxy
+    ) {
+        myMethod = method;
+        myUri = uri;
+        myHeaders = Collections.unmodifiableMap(new LinkedHashMap<>(headers));
+        myBody = body;
+        myUseProxy = useProxy;
+    }
+
+    @Nonnull
+    public String getMethod() {
+        return myMethod;
+    }
+
+    @Nonnull
+    public String getUri() {
+        return myUri;
+    }
+
+    @Nonnull
+    public Map<String, String> getHeaders() {
+        return myHeaders;
+    }
+
+    /**
+     * @return json request body
+     */
+    @Nullable
+    public String getBody() {
+        return myBody;
+    }
+
+    public boolean isUseProxy() {
+        return myUseProxy;
+    }
+
+    /**
+     * Called by the transport with an action that interrupts the exchange currently in progress.
+     * If the request is already aborted, the action runs immediately.
+     */
+    public void setAbortAction(@Nullable Runnable action) {
+        boolean aborted;
+        synchronized (this) {
+            myAbortAction = action;
+            aborted = myAborted;
+        }
+        if (aborted && action != null) {
+            action.run();
+        }
+    }
+
+    void abort() {
+        Runnable action;
+        synchronized (this) {
+            if (myAborted) {
+                return;
+            }
+            myAborted = true;
+            action = myAbortAction;
+        }
+        if (action != null) {
+            action.run();
+        }
+    }
+
+    public synchronized boolean isAborted() {
+        return myAborted;
+    }
+}
@@ -0,0 +1,33 @@
+package org.jetbrains.plugins.github.api;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Response received by a {@link GithubTransport}. It must be closed to release the underlying connection.
+ */
+public interface GithubHttpResponse extends Closeable {
+    int getStatusCode();
+
+    @Nonnull
+    String getStatusText();
+
+    /**
+     * @return value of the first header with the given name, compared ignoring case
+     */
+    @Nullable
+    String getHeader(@Nonnull String name);
+
+    /**
+     * @return response body, read at most once; null if there is none
+     */
+    @Nullable
+    InputStream getBody() throws IOException;
+
+    @Override
+    void close();
+}
@@ -20,6 +20,7 @@ import consulo.util.lang.StringUtil;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import java.util.Date;
+import java.util.List;
 
 /**
  * @author Aleksey Pivovarov
@@ -39,6 +40,11 @@ public class GithubIssue {
     private final GithubUser myUser;
     @Nullable
     private final GithubUser myAssignee;
+    @Nonnull
+    private final List<GithubUser> myAssignees;
+    @Nonnull
+    private final List<String> myLabels;
+    private final int myCommentsCount;
 
     @Nullable
     private final Date myClosedAt;
@@ -55,6 +61,9 @@ public class GithubIssue {
         @Nullable String body,
         @Nonnull GithubUser user,
         @Nullable GithubUser assignee,
+        @Nonnull List<GithubUser> assignees,
+        @Nonnull List<String> labels,
+        int commentsCount,
         @Nullable Date closedAt,
         @Nonnull Date createdAt,
         @Nonnull Date updatedAt
@@ -66,6 +75,9 @@ public class GithubIssue {
         myBody = StringUtil.notNullize(body);
         myUser = user;
         myAssignee = assignee;
+        myAssignees = assignees;
+        myLabels = labels;
+        myCommentsCount = commentsCount;
         myClosedAt = closedAt;
         myCreatedAt = createdAt;
         myUpdatedAt = updatedAt;
@@ -105,6 +117,26 @@ public class GithubIssue {
         return myAssignee;
     }
 
+    /**
+     * @return all the users the issue is assigned to, {@link #getAssignee()} is one of them
+     */
+    @Nonnull
+    public List<GithubUser> getAssignees() {
+        return myAssignees;
+    }
+
+    /**
+     * @return names of the labels
+     */
+    @Nonnull
+    public List<String> getLabels() {
+        return myLabels;
+    }
+
+    public int getCommentsCount() {
+        return myCommentsCount;
+    }
+
     @Nullable
     public Date getClosedAt() {
         return myClosedAt;
@@ -15,7 +15,10 @@
  */
 package org.jetbrains.plugins.github.api;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
@@ -42,6 +45,12 @@ class GithubIssueRaw implements DataConstructor {
     public GithubUserRaw user;
     @Nullable
     public GithubUserRaw assignee;
+    @Nullable
+    public List<GithubUserRaw> assignees;
+    @Nullable
+    public List<Label> labels;
+    @Nullable
+    public Integer comments;
 
     @Nullable
     public Date closedAt;
@@ -50,11 +59,48 @@ class GithubIssueRaw implements DataConstructor {
     @Nullable
     public Date updatedAt;
 
+    static class Label {
+        @Nullable
+        public String name;
+    }
+
     @SuppressWarnings("ConstantConditions")
     @Nonnull
     public GithubIssue createIssue() {
         GithubUser assignee = this.assignee == null ? null : this.assignee.createUser();
-        return new GithubIssue(htmlUrl, number, state, title, body, user.createUser(), assignee, closedAt, createdAt, updatedAt);
+        List<GithubUser> assigneeUsers = new ArrayList<>();
+        if (assignees != null) {
+            for (GithubUserRaw user : assignees) {
+                assigneeUsers.add(user.createUser());
+            }
+        }
+        if (assigneeUsers.isEmpty() && assignee != null) {
+            // servers without multiple assignees send the single one only
+            assigneeUsers.add(assignee);
+        }
+        List<String> labelNames = new ArrayList<>();
+        if (labels != null) {
+            for (Label label : labels) {
+                if (label.name != null) {
+                    labelNames.add(label.name);
+                }
+            }
+        }
+        return new GithubIssue(
+            htmlUrl,
+            number,
+            state,
+            title,
+            body,
+            user.createUser(),
+            assignee,
+            Collections.unmodifiableList(assigneeUsers),
+            Collections.unmodifiableList(labelNames),
+            comments == null ? 0 : comments,
+            closedAt,
+            createdAt,
+            updatedAt
+        );
     }
 
     @SuppressWarnings("unchecked")
@@ -0,0 +1,377 @@
+package org.jetbrains.plugins.github.api;
+
+import consulo.http.HttpProxyManager;
+import consulo.util.lang.StringUtil;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.apache.commons.httpclient.HttpStatus;
+import org.jetbrains.plugins.github.util.GithubSslSupport;
+
+import javax.net.ssl.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.Authenticator;
+import java.net.InetSocketAddress;
+import java.net.PasswordAuthentication;
+import java.net.ProxySelector;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Transport on the JDK {@link HttpClient}, negotiating HTTP/2 via ALPN, so concurrent requests to a host
+ * (prefetched and parallel pages, fan-out of the asynchronous API) are multiplexed over one connection.
+ * <p/>
+ * Clients are shared and rebuilt only when the proxy settings change. Self-signed certificates of trusted hosts
+ * are accepted by a separate client, like {@link GithubSslSupport} does for the commons-httpclient transport.
+ * That client skips the hostname verification, so it follows redirects only within the trusted host,
+ * see {@link #sendTrusted}.
+ * <p/>
+ * HTTPS requests through a proxy requiring authentication go through the commons-httpclient transport instead.
+ * The JDK client reaches HTTPS hosts through a CONNECT tunnel, for which it disables Basic proxy authentication
+ * by default ({@code jdk.http.auth.tunneling.disabledSchemes}), whether the credentials come from an
+ * {@link Authenticator} or a preemptive {@code Proxy-Authorization} header. Corporate proxies mostly use Basic,
+ * so such requests would fail with 407.
+ */
+final class GithubJdkTransport implements GithubTransport {
+    private static final Duration CONNECTION_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration RESPONSE_TIMEOUT = Duration.ofSeconds(30);
+    private static final int MAX_REDIRECTS = 5;
+
+    private static final GithubJdkTransport ourInstance = new GithubJdkTransport();
+
+    private final Map<String, HttpClient> myClients = new ConcurrentHashMap<>();
+
+    @Nonnull
+    static GithubJdkTransport getInstance() {
+        return ourInstance;
+    }
+
+    @Nonnull
+    @Override
+    public GithubHttpResponse execute(@Nonnull GithubHttpRequest request) throws IOException {
+        HttpRequest httpRequest = createRequest(request);
+        if (isProxyAuthenticated(request.isUseProxy()) && "https".equalsIgnoreCase(httpRequest.uri().getScheme())) {
+            // Basic proxy authentication is disabled for tunnels, see the class comment
+            return GithubTransports.getCommonsTransport().execute(request);
+        }
+        String host = httpRequest.uri().getHost();
+        boolean trusted = host != null && GithubSslSupport.isTrusted(host);
+        try {
+            if (trusted) {
+                return sendTrusted(getClient(request.isUseProxy(), true), httpRequest, request);
+            }
+            return send(getClient(request.isUseProxy(), false), httpRequest, request);
+        }
+        catch (IOException e) {
+            // the host might have been trusted in the meantime
+            if (trusted || !GithubSslSupport.isCertificateException(e) || host == null || !GithubSslSupport.isTrusted(host)) {
+                throw e;
+            }
+            return sendTrusted(getClient(request.isUseProxy(), true), httpRequest, request);
+        }
+    }
+
+    /**
+     * Follows the redirects within the host only: elsewhere the certificate of the host would be accepted
+     * for a server it does not belong to.
+     */
+    @Nonnull
+    private static GithubHttpResponse sendTrusted(
+        @Nonnull HttpClient client,
+        @Nonnull HttpRequest httpRequest,
+        @Nonnull GithubHttpRequest request
+    ) throws IOException {
+        HttpRequest current = httpRequest;
+        for (int redirects = 0; ; redirects++) {
+            GithubHttpResponse response = send(client, current, request);
+            URI location = redirects < MAX_REDIRECTS ? getSameHostRedirect(current.uri(), response) : null;
+            if (location == null) {
+                return response;
+            }
+            response.close();
+            HttpRequest.Builder builder = HttpRequest.newBuilder(current, (name, value) -> true).uri(location);
+            if (response.getStatusCode() == HttpStatus.SC_SEE_OTHER) {
+                builder.GET();
+            }
+            current = builder.build();
+        }
+    }
+
+    @Nullable
+    static URI getSameHostRedirect(@Nonnull URI uri, @Nonnull GithubHttpResponse response) {
+        int status = response.getStatusCode();
+        boolean redirect = status == HttpStatus.SC_MOVED_PERMANENTLY
+            || status == HttpStatus.SC_MOVED_TEMPORARILY
+            || status == HttpStatus.SC_SEE_OTHER
+            || status == HttpStatus.SC_TEMPORARY_REDIRECT
+            || status == 308;
+        String location = response.getHeader("Location");
+        if (!redirect || location == null) {
+            return null;
+        }
+        URI target;
+        try {
+            target = uri.resolve(location);
+        }
+        catch (IllegalArgumentException e) {
+            return null;
+        }
+        boolean sameHost = target.getHost() != null
+            && target.getHost().equalsIgnoreCase(uri.getHost())
+            && StringUtil.equalsIgnoreCase(target.getScheme(), uri.getScheme())
+            && target.getPort() == uri.getPort();
+        return sameHost ? target : null;
+    }
+
+    @Nonnull
+    private static HttpRequest createRequest(@Nonnull GithubHttpRequest request) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(request.getUri())).timeout(RESPONSE_TIMEOUT);
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            builder.header(header.getKey(), header.getValue());
+        }
+        String body = request.getBody();
+        if (body != null) {
+            builder.header("Content-Type", "application/json; charset=UTF-8");
+            builder.method(request.getMethod(), HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8));
+        }
+        else {
+            builder.method(request.getMethod(), HttpRequest.BodyPublishers.noBody());
+        }
+        return builder.build();
+    }
+
+    @Nonnull
+    private static GithubHttpResponse send(
+        @Nonnull HttpClient client,
+        @Nonnull HttpRequest httpRequest,
+        @Nonnull GithubHttpRequest request
+    ) throws IOException {
+        CompletableFuture<HttpResponse<InputStream>> future = client.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofInputStream());
+        request.setAbortAction(() -> future.cancel(true));
+        HttpResponse<InputStream> response;
+        try {
+            response = future.get();
+        }
+        catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for GitHub response");
+        }
+        catch (CancellationException e) {
+            throw new InterruptedIOException("GitHub request aborted");
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException(e.getCause());
+        }
+
+        InputStream body = response.body();
+        request.setAbortAction(() -> closeQuietly(body));
+        return new JdkResponse(response);
+    }
+
+    private static boolean isProxied(boolean useProxy) {
+        HttpProxyManager proxySettings = HttpProxyManager.getInstance();
+        return useProxy && proxySettings.isHttpProxyEnabled() && !StringUtil.isEmptyOrSpaces(proxySettings.getProxyHost());
+    }
+
+    private static boolean isProxyAuthenticated(boolean useProxy) {
+        return isProxied(useProxy) && HttpProxyManager.getInstance().isProxyAuthenticationEnabled();
+    }
+
+    /**
+     * The proxy credentials are only used for plain HTTP hosts, see the class comment.
+     */
+    @Nonnull
+    private HttpClient getClient(boolean useProxy, boolean trustSelfSigned) throws IOException {
+        HttpProxyManager proxySettings = HttpProxyManager.getInstance();
+        boolean proxy = isProxied(useProxy);
+        boolean proxyAuth = isProxyAuthenticated(useProxy);
+
+        String key = (trustSelfSigned ? "trusted" : "default")
+            + (proxy ? " " + proxySettings.getProxyHost() + ":" + proxySettings.getProxyPort() : "")
+            + (proxyAuth ? " " + proxySettings.getProxyLogin() + ":" + proxySettings.getPlainProxyPassword() : "");
+        HttpClient client = myClients.get(key);
+        if (client != null) {
+            return client;
+        }
+
+        HttpClient.Builder builder = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(CONNECTION_TIMEOUT)
+            // the client trusting self-signed certificates must not reach other hosts, see sendTrusted
+            .followRedirects(trustSelfSigned ? HttpClient.Redirect.NEVER : HttpClient.Redirect.NORMAL);
+        if (proxy) {
+            builder.proxy(ProxySelector.of(new InetSocketAddress(proxySettings.getProxyHost(), proxySettings.getProxyPort())));
+            if (proxyAuth) {
+                String login = StringUtil.notNullize(proxySettings.getProxyLogin());
+                char[] password = StringUtil.notNullize(proxySettings.getPlainProxyPassword()).toCharArray();
+                builder.authenticator(new Authenticator() {
+                    @Override
+                    protected PasswordAuthentication getPasswordAuthentication() {
+                        return getRequestorType() == RequestorType.PROXY ? new PasswordAuthentication(login, password) : null;
+                    }
+                });
+            }
+        }
+        if (trustSelfSigned) {
+            builder.sslContext(createSelfSignedTrustingContext());
+        }
+        client = builder.build();
+
+        // settings changed, the old clients are released with their connections once unused
+        if (myClients.size() > 4) {
+            myClients.clear();
+        }
+        HttpClient previous = myClients.putIfAbsent(key, client);
+        return previous != null ? previous : client;
+    }
+
+    @Nonnull
+    private static SSLContext createSelfSignedTrustingContext() throws IOException {
+        try {
+            TrustManagerFactory factory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+            factory.init((KeyStore)null);
+            X509TrustManager defaultTrustManager = null;
+            for (TrustManager trustManager : factory.getTrustManagers()) {
+                if (trustManager instanceof X509TrustManager x509TrustManager) {
+                    defaultTrustManager = x509TrustManager;
+                }
+            }
+            if (defaultTrustManager == null) {
+                throw new IOException("No default X509 trust manager");
+            }
+
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(null, new TrustManager[]{new SelfSignedTrustManager(defaultTrustManager)}, new SecureRandom());
+            return context;
+        }
+        catch (GeneralSecurityException e) {
+            throw new IOException("Can't initialize SSL context", e);
+        }
+    }
+
+    private static void closeQuietly(@Nonnull InputStream stream) {
+        try {
+            stream.close();
+        }
+        catch (IOException ignore) {
+        }
+    }
+
+    /**
+     * Accepts certificates trusted by the JDK and valid self-signed certificates,
+     * the same way commons-httpclient {@code EasyX509TrustManager} does.
+     * Being an {@link X509ExtendedTrustManager}, it also skips the host name check, which such certificates usually fail.
+     */
+    private static final class SelfSignedTrustManager extends X509ExtendedTrustManager {
+        @Nonnull
+        private final X509TrustManager myDefault;
+
+        SelfSignedTrustManager(@Nonnull X509TrustManager defaultTrustManager) {
+            myDefault = defaultTrustManager;
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+            try {
+                myDefault.checkServerTrusted(chain, authType);
+            }
+            catch (CertificateException e) {
+                if (chain == null || chain.length != 1) {
+                    throw e;
+                }
+                chain[0].checkValidity();
+            }
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket) throws CertificateException {
+            checkServerTrusted(chain, authType);
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine) throws CertificateException {
+            checkServerTrusted(chain, authType);
+        }
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+            myDefault.checkClientTrusted(chain, authType);
+        }
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket) throws CertificateException {
+            myDefault.checkClientTrusted(chain, authType);
+        }
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine) throws CertificateException {
+            myDefault.checkClientTrusted(chain, authType);
+        }
+
+        @Override
+        public X509Certificate[] getAcceptedIssuers() {
+            return myDefault.getAcceptedIssuers();
+        }
+    }
+
+    private static final class JdkResponse implements GithubHttpResponse {
+        @Nonnull
+        private final HttpResponse<InputStream> myResponse;
+
+        JdkResponse(@Nonnull HttpResponse<InputStream> response) {
+            myResponse = response;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return myResponse.statusCode();
+        }
+
+        /**
+         * HTTP/2 has no reason phrase, the standard one is used for both protocol versions.
+         */
+        @Nonnull
+        @Override
+        public String getStatusText() {
+            String text = HttpStatus.getStatusText(myResponse.statusCode());
+            return text != null ? text : String.valueOf(myResponse.statusCode());
+        }
+
+        @Nullable
+        @Override
+        public String getHeader(@Nonnull String name) {
+            return myResponse.headers().firstValue(name).orElse(null);
+        }
+
+        @Nullable
+        @Override
+        public InputStream getBody() {
+            return myResponse.body();
+        }
+
+        @Override
+        public void close() {
+            closeQuietly(myResponse.body());
+        }
+    }
+}
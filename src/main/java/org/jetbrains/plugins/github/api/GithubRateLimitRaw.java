@@ -0,0 +1,24 @@
+package org.jetbrains.plugins.github.api;
+
+import jakarta.annotation.Nullable;
+
+import java.util.Map;
+
+/**
+ * Response of {@code GET /rate_limit}, e.g. {@code {"resources": {"core": {"limit": 5000, "remaining": 4999, "reset": 1372700873}}}}.
+ */
+@SuppressWarnings("UnusedDeclaration")
+class GithubRateLimitRaw {
+    @Nullable
+    public Map<String, Resource> resources;
+
+    static class Resource {
+        @Nullable
+        public Integer limit;
+        @Nullable
+        public Integer remaining;
+        // seconds since the epoch
+        @Nullable
+        public Long reset;
+    }
+}
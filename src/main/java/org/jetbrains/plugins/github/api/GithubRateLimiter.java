@@ -0,0 +1,293 @@
+package org.jetbrains.plugins.github.api;
+
+import consulo.util.lang.StringUtil;
+import jakarta.annotation.Nonnull;
+import org.apache.commons.httpclient.util.DateParseException;
+import org.apache.commons.httpclient.util.DateUtil;
+import org.jetbrains.plugins.github.exceptions.GithubRateLimitException;
+import org.jetbrains.plugins.github.util.GithubAuthData;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the rate limit of every account from the {@code X-RateLimit-*} and {@code Retry-After} response headers
+ * and schedules requests accordingly.
+ * <p/>
+ * Interactive requests are only stopped when the limit is exhausted, since they would be refused anyway.
+ * Background requests (see {@link GithubRequestContext#background}) are spread evenly over the rest of the
+ * rate limit window once the remaining headroom gets low, and are deferred when only a reserve for
+ * interactive requests is left.
+ * <p/>
+ * Every resource (core, search, graphql) has a separate limit. The resource of a response is told by the
+ * {@code X-RateLimit-Resource} header, the resource of a request is guessed from its path.
+ */
+final class GithubRateLimiter {
+    static final int SC_TOO_MANY_REQUESTS = 429;
+
+    // background requests are paced once less than this share of the limit remains
+    private static final double PACING_THRESHOLD = 0.2;
+    // share of the limit kept for interactive requests
+    private static final double INTERACTIVE_RESERVE = 0.05;
+    private static final long MAX_BACKGROUND_WAIT = 60 * 1000;
+    // secondary rate limit responses do not always tell when to retry
+    private static final long DEFAULT_RETRY_DELAY = 60 * 1000;
+    // requests to it do not count against any limit
+    private static final String RATE_LIMIT_PATH = "/rate_limit";
+
+    private static final GithubRateLimiter ourInstance = new GithubRateLimiter();
+
+    private final Map<String, Budget> myBudgets = new ConcurrentHashMap<>();
+
+    @Nonnull
+    static GithubRateLimiter getInstance() {
+        return ourInstance;
+    }
+
+    /**
+     * Waits until the request is allowed by the rate limit.
+     *
+     * @throws GithubRateLimitException if the limit is exhausted and the request can't wait until it is reset
+     */
+    void acquire(@Nonnull GithubAuthData auth, @Nonnull String path, boolean background) throws IOException {
+        long delay = reserve(auth, path, System.currentTimeMillis(), background);
+        if (delay <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(delay);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for GitHub rate limit");
+        }
+    }
+
+    /**
+     * Takes a request from the budget without waiting.
+     *
+     * @return delay in milliseconds before the request may be sent
+     * @throws GithubRateLimitException if the limit is exhausted and the request can't wait until it is reset
+     */
+    long reserve(@Nonnull GithubAuthData auth, @Nonnull String path, long now, boolean background) throws GithubRateLimitException {
+        if (path.startsWith(RATE_LIMIT_PATH)) {
+            return 0;
+        }
+        return getBudget(auth, getResource(path)).reserve(now, background);
+    }
+
+    void update(@Nonnull GithubAuthData auth, @Nonnull String path, @Nonnull GithubHttpResponse response) {
+        int limit = StringUtil.parseInt(response.getHeader("X-RateLimit-Limit"), -1);
+        int remaining = StringUtil.parseInt(response.getHeader("X-RateLimit-Remaining"), -1);
+        long reset = StringUtil.parseLong(response.getHeader("X-RateLimit-Reset"), -1);
+        if (limit < 0 || remaining < 0 || reset < 0) {
+            return;
+        }
+        String resource = response.getHeader("X-RateLimit-Resource");
+        update(auth, StringUtil.isEmptyOrSpaces(resource) ? getResource(path) : resource.trim(), limit, remaining, reset * 1000);
+    }
+
+    /**
+     * @param resetTime time in milliseconds when the limit is reset
+     */
+    void update(@Nonnull GithubAuthData auth, @Nonnull String resource, int limit, int remaining, long resetTime) {
+        getBudget(auth, resource).update(limit, remaining, resetTime);
+    }
+
+    /**
+     * Stops all requests of the account to the same resource until the given time.
+     */
+    void block(@Nonnull GithubAuthData auth, @Nonnull String path, long retryTime) {
+        getBudget(auth, getResource(path)).block(retryTime > 0 ? retryTime : System.currentTimeMillis() + DEFAULT_RETRY_DELAY);
+    }
+
+    /**
+     * @return time in milliseconds when a refused request may be retried, 0 if the response does not tell
+     */
+    static long getRetryTime(@Nonnull GithubHttpResponse response) {
+        String retryAfter = response.getHeader("Retry-After");
+        if (retryAfter != null) {
+            long seconds = StringUtil.parseLong(retryAfter.trim(), -1);
+            if (seconds >= 0) {
+                return System.currentTimeMillis() + seconds * 1000;
+            }
+            try {
+                return DateUtil.parseDate(retryAfter).getTime();
+            }
+            catch (DateParseException ignore) {
+            }
+        }
+        if ("0".equals(response.getHeader("X-RateLimit-Remaining"))) {
+            long reset = StringUtil.parseLong(response.getHeader("X-RateLimit-Reset"), -1);
+            if (reset > 0) {
+                return reset * 1000;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return the state of every limit seen since the start, sorted by account and resource
+     */
+    @Nonnull
+    List<GithubApiMetrics.RateLimitStatistics> getStatistics() {
+        long now = System.currentTimeMillis();
+        List<GithubApiMetrics.RateLimitStatistics> result = new ArrayList<>();
+        for (Budget budget : myBudgets.values()) {
+            result.add(budget.snapshot(now));
+        }
+        result.sort(
+            Comparator.comparing(GithubApiMetrics.RateLimitStatistics::getHost)
+                .thenComparing(GithubApiMetrics.RateLimitStatistics::getAccount)
+                .thenComparing(GithubApiMetrics.RateLimitStatistics::getResource)
+        );
+        return result;
+    }
+
+    /**
+     * Search requests have a separate, much smaller limit.
+     */
+    @Nonnull
+    private static String getResource(@Nonnull String path) {
+        if (path.startsWith("/search/")) {
+            return "search";
+        }
+        return path.startsWith("/graphql") ? "graphql" : "core";
+    }
+
+    @Nonnull
+    private Budget getBudget(@Nonnull GithubAuthData auth, @Nonnull String resource) {
+        return myBudgets.computeIfAbsent(
+            GithubResponseCache.getIdentity(auth) + " " + resource,
+            key -> new Budget(auth.getHost(), GithubApiMetrics.getAccountName(auth), resource)
+        );
+    }
+
+    private static final class Budget {
+        @Nonnull
+        private final String myHost;
+        @Nonnull
+        private final String myAccount;
+        @Nonnull
+        private final String myResource;
+
+        private int myLimit = -1;
+        private int myRemaining = -1;
+        private long myResetTime;
+        private long myBlockedUntil;
+        private long myNextSlot;
+
+        Budget(@Nonnull String host, @Nonnull String account, @Nonnull String resource) {
+            myHost = host;
+            myAccount = account;
+            myResource = resource;
+        }
+
+        synchronized void update(int limit, int remaining, long resetTime) {
+            if (resetTime < myResetTime) {
+                // a late response from the previous window
+                return;
+            }
+            myLimit = limit;
+            // requests reserved but not answered yet are already accounted for
+            myRemaining = resetTime == myResetTime ? Math.min(myRemaining, remaining) : remaining;
+            myResetTime = resetTime;
+        }
+
+        synchronized void block(long until) {
+            myBlockedUntil = Math.max(myBlockedUntil, until);
+        }
+
+        /**
+         * @return delay in milliseconds before the request may be sent
+         */
+        synchronized long reserve(long now, boolean background) throws GithubRateLimitException {
+            if (myResetTime <= now) {
+                // the window is over, the next response tells the new budget
+                myRemaining = -1;
+                myNextSlot = 0;
+            }
+
+            long blockedUntil = Math.max(myBlockedUntil, myRemaining == 0 ? myResetTime : 0);
+            if (blockedUntil > now) {
+                return defer(now, blockedUntil, background);
+            }
+            if (myRemaining < 0) {
+                return 0;
+            }
+
+            long delay = 0;
+            if (background && myRemaining < myLimit * PACING_THRESHOLD) {
+                int reserve = Math.max(1, (int)(myLimit * INTERACTIVE_RESERVE));
+                if (myRemaining <= reserve) {
+                    return defer(now, myResetTime, true);
+                }
+                long interval = (myResetTime - now) / (myRemaining - reserve);
+                long slot = Math.max(now, myNextSlot);
+                myNextSlot = slot + interval;
+                delay = slot - now;
+                if (delay > MAX_BACKGROUND_WAIT) {
+                    throw createException(slot);
+                }
+            }
+            myRemaining--;
+            return delay;
+        }
+
+        @Nonnull
+        synchronized GithubApiMetrics.RateLimitStatistics snapshot(long now) {
+            boolean current = myResetTime > now;
+            int remaining = current ? myRemaining : -1;
+            GithubApiMetrics.RateLimitState state;
+            long until = 0;
+            if (myBlockedUntil > now) {
+                state = GithubApiMetrics.RateLimitState.BLOCKED;
+                until = myBlockedUntil;
+            }
+            else if (remaining == 0) {
+                state = GithubApiMetrics.RateLimitState.EXHAUSTED;
+                until = myResetTime;
+            }
+            else if (remaining > 0 && remaining < myLimit * PACING_THRESHOLD) {
+                boolean deferred = remaining <= Math.max(1, (int)(myLimit * INTERACTIVE_RESERVE));
+                state = deferred ? GithubApiMetrics.RateLimitState.DEFERRED : GithubApiMetrics.RateLimitState.PACED;
+                until = myResetTime;
+            }
+            else {
+                state = GithubApiMetrics.RateLimitState.NORMAL;
+            }
+            return new GithubApiMetrics.RateLimitStatistics(
+                myHost,
+                myAccount,
+                myResource,
+                myLimit,
+                remaining,
+                current ? myResetTime : 0,
+                state,
+                until
+            );
+        }
+
+        private long defer(long now, long until, boolean background) throws GithubRateLimitException {
+            if (!background || until - now > MAX_BACKGROUND_WAIT) {
+                throw createException(until);
+            }
+            return until - now;
+        }
+
+        @Nonnull
+        private static GithubRateLimitException createException(long retryTime) {
+            long minutes = Math.max(1, (retryTime - System.currentTimeMillis() + 59999) / 60000);
+            return new GithubRateLimitException(
+                "GitHub API rate limit exceeded, try again in " + minutes + (minutes == 1 ? " minute" : " minutes"),
+                SC_TOO_MANY_REQUESTS,
+                retryTime
+            );
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.jetbrains.plugins.github.api;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Callable;
+
+/**
+ * Describes on whose behalf the GitHub requests of the current thread are made.
+ * <p/>
+ * Requests are interactive unless they are issued inside {@link #background(Request)}; background requests
+ * are the first to be slowed down or deferred by {@link GithubRateLimiter} when the rate limit runs low.
+ * The context is propagated to the pages {@link GithubApiUtil} requests on its own threads,
+ * so cancelling a request submitted via {@link GithubApiAsync} also stops its prefetched pages.
+ * <p/>
+ * Requests can also be attributed to the user action they are made for, see {@link #action(String, Request)}.
+ */
+public final class GithubRequestContext {
+    private static final GithubRequestContext INTERACTIVE = new GithubRequestContext(false, null, null, null);
+
+    private static final ThreadLocal<GithubRequestContext> ourCurrent = new ThreadLocal<>();
+
+    private final boolean myBackground;
+    @Nullable
+    private final GithubCancellation myCancellation;
+    @Nullable
+    private final String myAction;
+    // the trace page of this run of the action, shared by the contexts derived from it
+    @Nullable
+    private final GithubTraceRecorder.Page myTracePage;
+
+    private GithubRequestContext(
+        boolean background,
+        @Nullable GithubCancellation cancellation,
+        @Nullable String action,
+        @Nullable GithubTraceRecorder.Page tracePage
+    ) {
+        myBackground = background;
+        myCancellation = cancellation;
+        myAction = action;
+        myTracePage = tracePage;
+    }
+
+    public boolean isBackground() {
+        return myBackground;
+    }
+
+    /**
+     * @return name of the user action the requests are made for, if known
+     */
+    @Nullable
+    public String getAction() {
+        return myAction;
+    }
+
+    @Nullable
+    GithubTraceRecorder.Page getTracePage() {
+        return myTracePage;
+    }
+
+    @Nonnull
+    public static GithubRequestContext current() {
+        GithubRequestContext context = ourCurrent.get();
+        return context != null ? context : INTERACTIVE;
+    }
+
+    /**
+     * Runs requests nobody is waiting for right now, e.g. periodic updates.
+     */
+    public static <T> T background(@Nonnull Request<T> request) throws IOException {
+        GithubRequestContext current = current();
+        return runIn(new GithubRequestContext(true, current.myCancellation, current.myAction, current.myTracePage), request);
+    }
+
+    /**
+     * Runs requests made for the named user action, so they can be told apart in traces.
+     * Every call is a separate run of the action, with a page of its own in the trace.
+     */
+    public static <T> T action(@Nonnull String name, @Nonnull Request<T> request) throws IOException {
+        GithubRequestContext current = current();
+        GithubTraceRecorder.Page page = GithubTraceRecorder.getInstance().createPage(name);
+        return runIn(new GithubRequestContext(current.myBackground, current.myCancellation, name, page), request);
+    }
+
+    @Nonnull
+    GithubRequestContext withCancellation(@Nonnull GithubCancellation cancellation) {
+        return new GithubRequestContext(myBackground, cancellation, myAction, myTracePage);
+    }
+
+    void checkCanceled() throws InterruptedIOException {
+        if (myCancellation != null) {
+            myCancellation.checkCanceled();
+        }
+    }
+
+    /**
+     * Makes the request abortable by the cancellation of this context.
+     */
+    void register(@Nonnull GithubHttpRequest request) {
+        if (myCancellation != null) {
+            myCancellation.register(request);
+        }
+    }
+
+    void unregister(@Nonnull GithubHttpRequest request) {
+        if (myCancellation != null) {
+            myCancellation.unregister(request);
+        }
+    }
+
+    static <T> T runIn(@Nonnull GithubRequestContext context, @Nonnull Request<T> request) throws IOException {
+        GithubRequestContext previous = ourCurrent.get();
+        ourCurrent.set(context);
+        GithubCancellation cancellation = context.myCancellation;
+        boolean entered = cancellation != null && (previous == null || previous.myCancellation != cancellation);
+        if (entered) {
+            cancellation.enter(Thread.currentThread());
+        }
+        try {
+            context.checkCanceled();
+            return request.compute();
+        }
+        finally {
+            if (entered) {
+                cancellation.exit(Thread.currentThread());
+            }
+            if (previous != null) {
+                ourCurrent.set(previous);
+            }
+            else {
+                ourCurrent.remove();
+            }
+        }
+    }
+
+    /**
+     * @return task that runs in the context of the current thread, wherever it is executed
+     */
+    @Nonnull
+    static <T> Callable<T> propagate(@Nonnull Request<T> request) {
+        GithubRequestContext context = current();
+        return () -> runIn(context, request);
+    }
+
+    @FunctionalInterface
+    public interface Request<T> {
+        T compute() throws IOException;
+    }
+}
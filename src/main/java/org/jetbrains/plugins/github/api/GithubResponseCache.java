@@ -0,0 +1,258 @@
+package org.jetbrains.plugins.github.api;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.apache.commons.httpclient.Header;
+import org.jetbrains.plugins.github.util.GithubAuthData;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Cache of GET responses, revalidated with {@code If-None-Match}/{@code If-Modified-Since}.
+ * <p/>
+ * GitHub answers a successful revalidation with {@code 304 Not Modified}, which is not counted against the rate limit,
+ * so repeated listings of unchanged repositories, branches and issues cost neither bandwidth nor quota.
+ * <p/>
+ * Decoded pages are kept in memory; raw bodies are also persisted by {@link GithubDiskResponseCache},
+ * so they can be revalidated after a restart.
+ */
+final class GithubResponseCache {
+    private static final int MAX_ENTRIES = 256;
+
+    private static final GithubResponseCache ourInstance = new GithubResponseCache();
+
+    @Nonnull
+    private final GithubDiskResponseCache myDiskCache = new GithubDiskResponseCache();
+
+    private final Map<String, Entry> myEntries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    @Nonnull
+    static GithubResponseCache getInstance() {
+        return ourInstance;
+    }
+
+    /**
+     * @param resultKey identifies the type the response is decoded to
+     */
+    @Nonnull
+    static String getKey(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String uri,
+        @Nonnull Collection<Header> headers,
+        @Nonnull String resultKey
+    ) {
+        StringBuilder key = new StringBuilder();
+        key.append(getIdentity(auth)).append(' ').append(uri);
+        for (Header header : headers) {
+            if ("Accept".equalsIgnoreCase(header.getName())) {
+                key.append(' ').append(header.getValue());
+            }
+        }
+        key.append(' ').append(resultKey);
+        return key.toString();
+    }
+
+    /**
+     * Responses are personalized (private repositories, permissions), so entries are never shared between accounts.
+     * Credentials are hashed to keep them out of the cache keys.
+     */
+    @Nonnull
+    static String getIdentity(@Nonnull GithubAuthData auth) {
+        return auth.getAuthType() + "@" + auth.getHost() + "#" + sha256(getCredentials(auth));
+    }
+
+    @Nonnull
+    static String getCredentials(@Nonnull GithubAuthData auth) {
+        GithubAuthData.BasicAuth basicAuth = auth.getBasicAuth();
+        GithubAuthData.TokenAuth tokenAuth = auth.getTokenAuth();
+        if (basicAuth != null) {
+            return basicAuth.getLogin() + ":" + basicAuth.getPassword();
+        }
+        if (tokenAuth != null) {
+            return tokenAuth.getToken();
+        }
+        return "";
+    }
+
+    @Nonnull
+    private static String sha256(@Nonnull String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return entry with a decoded page if the response is cached in memory,
+     * entry with a raw body if it is only stored on disk, null otherwise
+     */
+    @Nullable
+    Entry get(@Nonnull GithubAuthData auth, @Nonnull String key) {
+        Entry entry;
+        synchronized (this) {
+            entry = myEntries.get(key);
+        }
+        return entry != null ? entry : myDiskCache.read(auth, key);
+    }
+
+    /**
+     * Caches a decoded page in memory only, e.g. a page decoded from a revalidated disk entry.
+     */
+    synchronized void put(
+        @Nonnull String key,
+        @Nullable String eTag,
+        @Nullable String lastModified,
+        @Nonnull Object page,
+        long size
+    ) {
+        if (eTag == null && lastModified == null) {
+            myEntries.remove(key);
+            return;
+        }
+        myEntries.put(key, new Entry(eTag, lastModified, page, null, null, null, size));
+    }
+
+    /**
+     * The response is only cached if the server provided a validator for it.
+     *
+     * @param size number of bytes received for the response body
+     * @param body raw response body, or null if it was too large to be persisted
+     */
+    void put(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String key,
+        @Nullable String eTag,
+        @Nullable String lastModified,
+        @Nonnull Object page,
+        @Nullable String nextPage,
+        @Nullable String lastPage,
+        long size,
+        @Nullable byte[] body
+    ) {
+        put(key, eTag, lastModified, page, size);
+        if ((eTag == null && lastModified == null) || body == null) {
+            myDiskCache.remove(auth, key);
+        }
+        else {
+            myDiskCache.write(auth, key, eTag, lastModified, nextPage, lastPage, body);
+        }
+    }
+
+    void remove(@Nonnull GithubAuthData auth, @Nonnull String key) {
+        synchronized (this) {
+            myEntries.remove(key);
+        }
+        myDiskCache.remove(auth, key);
+    }
+
+    static final class Entry {
+        @Nullable
+        private final String myETag;
+        @Nullable
+        private final String myLastModified;
+        @Nullable
+        private final Object myPage;
+        @Nullable
+        private final byte[] myBody;
+        @Nullable
+        private final String myNextPage;
+        @Nullable
+        private final String myLastPage;
+        private final long mySize;
+
+        private Entry(
+            @Nullable String eTag,
+            @Nullable String lastModified,
+            @Nullable Object page,
+            @Nullable byte[] body,
+            @Nullable String nextPage,
+            @Nullable String lastPage,
+            long size
+        ) {
+            myETag = eTag;
+            myLastModified = lastModified;
+            myPage = page;
+            myBody = body;
+            myNextPage = nextPage;
+            myLastPage = lastPage;
+            mySize = size;
+        }
+
+        @Nonnull
+        static Entry stored(
+            @Nullable String eTag,
+            @Nullable String lastModified,
+            @Nonnull byte[] body,
+            @Nullable String nextPage,
+            @Nullable String lastPage
+        ) {
+            return new Entry(eTag, lastModified, null, body, nextPage, lastPage, body.length);
+        }
+
+        @Nullable
+        String getETag() {
+            return myETag;
+        }
+
+        @Nullable
+        String getLastModified() {
+            return myLastModified;
+        }
+
+        @Nonnull
+        List<Header> getConditionalHeaders() {
+            List<Header> headers = new ArrayList<>(2);
+            if (myETag != null) {
+                headers.add(new Header("If-None-Match", myETag));
+            }
+            if (myLastModified != null) {
+                headers.add(new Header("If-Modified-Since", myLastModified));
+            }
+            return headers;
+        }
+
+        /**
+         * @return decoded response page, as returned for the original request; null for entries read from disk
+         */
+        @Nullable
+        Object getPage() {
+            return myPage;
+        }
+
+        /**
+         * @return raw response body of an entry read from disk
+         */
+        @Nullable
+        byte[] getBody() {
+            return myBody;
+        }
+
+        @Nullable
+        String getNextPage() {
+            return myNextPage;
+        }
+
+        @Nullable
+        String getLastPage() {
+            return myLastPage;
+        }
+
+        /**
+         * @return size of the response body, i.e. the traffic saved when the entry is revalidated
+         */
+        long getSize() {
+            return mySize;
+        }
+    }
+}
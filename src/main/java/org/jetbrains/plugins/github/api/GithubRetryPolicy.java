@@ -0,0 +1,118 @@
+package org.jetbrains.plugins.github.api;
+
+import consulo.logging.Logger;
+import jakarta.annotation.Nonnull;
+import org.apache.commons.httpclient.ConnectTimeoutException;
+import org.apache.commons.httpclient.HttpStatus;
+import org.apache.commons.httpclient.NoHttpResponseException;
+import org.jetbrains.plugins.github.exceptions.GithubRateLimitException;
+import org.jetbrains.plugins.github.exceptions.GithubStatusCodeException;
+import org.jetbrains.plugins.github.util.GithubUtil;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides whether a failed request is retried and how long to wait before the next attempt.
+ * <p/>
+ * Transient failures (gateway errors, dropped connections, timeouts) are retried with exponential backoff
+ * and full jitter until {@link #MAX_ATTEMPTS} or the total {@link #DEADLINE} is reached; a {@code Retry-After}
+ * the server asked for is respected. Requests that change data are only retried if they surely
+ * did not reach the server.
+ */
+final class GithubRetryPolicy {
+    private static final Logger LOG = GithubUtil.LOG;
+
+    private static final int MAX_ATTEMPTS = 4;
+    private static final long BASE_DELAY = 500;
+    private static final long MAX_DELAY = 8000;
+    private static final long DEADLINE = 30000;
+
+    private final boolean myIdempotent;
+    private final long myDeadline;
+    private int myAttempt;
+
+    GithubRetryPolicy(boolean idempotent) {
+        myIdempotent = idempotent;
+        myDeadline = System.currentTimeMillis() + DEADLINE;
+    }
+
+    /**
+     * Waits before the next attempt.
+     *
+     * @throws IOException the original failure, if the request should not be retried
+     */
+    void onFailure(@Nonnull IOException e) throws IOException {
+        myAttempt++;
+        if (myAttempt >= MAX_ATTEMPTS || !isRetryable(e)) {
+            throw e;
+        }
+
+        long now = System.currentTimeMillis();
+        long retryTime = e instanceof GithubStatusCodeException statusException ? statusException.getRetryTime() : 0;
+        long delay = retryTime > 0
+            ? retryTime - now
+            : ThreadLocalRandom.current().nextLong(Math.min(MAX_DELAY, BASE_DELAY << (myAttempt - 1)) + 1);
+        if (now + delay > myDeadline) {
+            throw e;
+        }
+
+        LOG.info("Retrying GitHub request after failure: " + e.getMessage() + " (attempt " + myAttempt + ")");
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            }
+            catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw e;
+            }
+        }
+    }
+
+    private boolean isRetryable(@Nonnull IOException e) {
+        if (Thread.currentThread().isInterrupted()) {
+            return false;
+        }
+        if (e instanceof GithubRateLimitException rateLimitException) {
+            // only a known pause is waited out, and only if it ends before the deadline
+            return rateLimitException.getRetryTime() > 0;
+        }
+        if (e instanceof GithubStatusCodeException statusException) {
+            int code = statusException.getStatusCode();
+            if (code == HttpStatus.SC_SERVICE_UNAVAILABLE && statusException.getRetryTime() > 0) {
+                // the server explicitly asked to come back later, so the request was not processed
+                return true;
+            }
+            return myIdempotent && (code == HttpStatus.SC_BAD_GATEWAY
+                || code == HttpStatus.SC_SERVICE_UNAVAILABLE
+                || code == HttpStatus.SC_GATEWAY_TIMEOUT);
+        }
+        if (isNotSent(e)) {
+            return true;
+        }
+        if (e instanceof InterruptedIOException && !(e instanceof SocketTimeoutException)) {
+            return false;
+        }
+        return myIdempotent && (e instanceof SocketException
+            || e instanceof SocketTimeoutException
+            || e instanceof HttpTimeoutException
+            || e instanceof NoHttpResponseException);
+    }
+
+    /**
+     * @return true if the connection failed before any part of the request was written
+     */
+    private static boolean isNotSent(@Nonnull IOException e) {
+        return e instanceof ConnectException
+            || e instanceof NoRouteToHostException
+            || e instanceof ConnectTimeoutException
+            || e instanceof HttpConnectTimeoutException;
+    }
+}
@@ -0,0 +1,75 @@
+package org.jetbrains.plugins.github.api;
+
+import jakarta.annotation.Nonnull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Merges concurrent identical requests: the first caller performs the request, callers arriving while it is
+ * in flight wait for it and get the same result or the same exception.
+ * <p/>
+ * Only requests with immutable results may be merged, since the result object is shared.
+ */
+final class GithubSingleFlight {
+    private static final GithubSingleFlight ourInstance = new GithubSingleFlight();
+
+    private final Map<String, CompletableFuture<Object>> myInFlight = new ConcurrentHashMap<>();
+
+    @Nonnull
+    static GithubSingleFlight getInstance() {
+        return ourInstance;
+    }
+
+    /**
+     * @param joined called instead of the request if the result was produced by another caller
+     */
+    <T> T execute(
+        @Nonnull String key,
+        @Nonnull GithubRequestContext.Request<T> request,
+        @Nonnull Consumer<T> joined
+    ) throws IOException {
+        while (true) {
+            CompletableFuture<Object> own = new CompletableFuture<>();
+            CompletableFuture<Object> existing = myInFlight.putIfAbsent(key, own);
+            if (existing == null) {
+                return executeOwn(key, own, request);
+            }
+            try {
+                //noinspection unchecked
+                T result = (T)GithubApiAsync.await(existing);
+                joined.accept(result);
+                return result;
+            }
+            catch (InterruptedIOException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                // the caller that performed the request was cancelled, this one was not
+            }
+        }
+    }
+
+    private <T> T executeOwn(
+        @Nonnull String key,
+        @Nonnull CompletableFuture<Object> own,
+        @Nonnull GithubRequestContext.Request<T> request
+    ) throws IOException {
+        try {
+            T result = request.compute();
+            own.complete(result);
+            return result;
+        }
+        catch (IOException | RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        }
+        finally {
+            myInFlight.remove(key, own);
+        }
+    }
+}
@@ -0,0 +1,513 @@
+package org.jetbrains.plugins.github.api;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import consulo.container.boot.ContainerPathManager;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the requests made through {@link GithubTransports} and exports them as a HAR file,
+ * which standard tools (browser developer tools, HAR viewers) can display as a timeline.
+ * <p/>
+ * Requests are grouped into HAR pages by the run of the user action they were made for, so that the runs of
+ * the same action stay apart. The run of their {@link GithubRequestContext#action context} is exact: its page is
+ * created when the context is entered and kept by the requests made in it, whenever they complete. Requests made
+ * outside of such a context go to the page of the last action reported with {@link #actionStarted}, which is only
+ * approximate: the requests of actions running at the same time all go to the page of the one started last.
+ * Pages without requests are left out of the trace.
+ * Credentials are never recorded, and only the headers relevant for performance are kept from responses.
+ * <p/>
+ * While not recording, the recorder is not installed into the transports, so it costs nothing.
+ */
+public final class GithubTraceRecorder {
+    private static final int MAX_ENTRIES = 5000;
+    private static final String OTHER_PAGE = "Other requests";
+    private static final String BACKGROUND_PAGE = "Background requests";
+    private static final List<String> RESPONSE_HEADERS = List.of(
+        "Content-Type",
+        "Content-Length",
+        "Content-Encoding",
+        "Cache-Control",
+        "ETag",
+        "Last-Modified",
+        "Link",
+        "Retry-After",
+        "X-RateLimit-Limit",
+        "X-RateLimit-Remaining",
+        "X-RateLimit-Reset",
+        "X-RateLimit-Resource",
+        "X-GitHub-Request-Id"
+    );
+    private static final DateTimeFormatter FILE_NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static final GithubTraceRecorder ourInstance = new GithubTraceRecorder();
+
+    private final GithubTransport.Decorator myDecorator = TracingTransport::new;
+
+    private volatile boolean myRecording;
+    @Nullable
+    private volatile Page myCurrentPage;
+
+    // guarded by this
+    private final List<JsonObject> myEntries = new ArrayList<>();
+    private final List<Page> myPages = new ArrayList<>();
+    @Nullable
+    private Page myBackgroundPage;
+    @Nullable
+    private Page myOtherPage;
+    // tells the pages of this trace from those created for an earlier one
+    private int myTrace;
+    private int myDroppedEntries;
+
+    private GithubTraceRecorder() {
+    }
+
+    @Nonnull
+    public static GithubTraceRecorder getInstance() {
+        return ourInstance;
+    }
+
+    public boolean isRecording() {
+        return myRecording;
+    }
+
+    /**
+     * Starts a new trace, discarding the previous one.
+     */
+    public synchronized void start() {
+        myEntries.clear();
+        myPages.clear();
+        myBackgroundPage = null;
+        myOtherPage = null;
+        myTrace++;
+        myDroppedEntries = 0;
+        myCurrentPage = null;
+        if (!myRecording) {
+            myRecording = true;
+            GithubTransports.addDecorator(myDecorator);
+        }
+    }
+
+    public synchronized void stop() {
+        if (myRecording) {
+            myRecording = false;
+            GithubTransports.removeDecorator(myDecorator);
+        }
+    }
+
+    /**
+     * Reports an action started by the user, e.g. from {@code AnAction#actionPerformed}.
+     * The requests made afterwards without an action in their context are attributed to it, even if they are made
+     * on other threads, both in the trace and in {@link GithubApiMetrics}. Requests that can run concurrently with
+     * other actions should rather be made in {@link GithubRequestContext#action}.
+     */
+    public static void actionStarted(@Nonnull String name) {
+        GithubApiMetrics.getInstance().actionStarted(name);
+        GithubTraceRecorder recorder = getInstance();
+        recorder.myCurrentPage = recorder.createPage(name);
+    }
+
+    /**
+     * @return page for a new run of the action, added to the trace with its first request; null while not recording
+     */
+    @Nullable
+    Page createPage(@Nonnull String title) {
+        return myRecording ? new Page(title, System.currentTimeMillis()) : null;
+    }
+
+    /**
+     * Writes the recorded trace to a new file in the log directory.
+     *
+     * @return the written file
+     */
+    @Nonnull
+    public Path exportToLogDirectory() throws IOException {
+        Path directory = Paths.get(ContainerPathManager.get().getLogPath());
+        Files.createDirectories(directory);
+        Path file = directory.resolve("github-api-" + FILE_NAME_FORMAT.format(LocalDateTime.now()) + ".har");
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            export(writer);
+        }
+        return file;
+    }
+
+    public void export(@Nonnull Writer writer) throws IOException {
+        JsonObject creator = new JsonObject();
+        creator.addProperty("name", "GitHub plugin");
+        creator.addProperty("version", "1.0");
+
+        JsonObject log = new JsonObject();
+        log.addProperty("version", "1.2");
+        log.add("creator", creator);
+
+        JsonArray pages = new JsonArray();
+        JsonArray entries = new JsonArray();
+        synchronized (this) {
+            for (Page page : myPages) {
+                pages.add(page.toJson());
+            }
+            for (JsonObject entry : myEntries) {
+                entries.add(entry);
+            }
+            if (myDroppedEntries > 0) {
+                log.addProperty("comment", myDroppedEntries + " requests were not recorded, the trace is limited to " + MAX_ENTRIES);
+            }
+        }
+        log.add("pages", pages);
+        log.add("entries", entries);
+
+        JsonObject har = new JsonObject();
+        har.add("log", log);
+        new GsonBuilder().setPrettyPrinting().create().toJson(har, writer);
+    }
+
+    @Nonnull
+    private synchronized String getPageId(long startMillis) {
+        GithubRequestContext context = GithubRequestContext.current();
+        Page page = context.getTracePage();
+        if (page == null && context.isBackground()) {
+            if (myBackgroundPage == null) {
+                myBackgroundPage = new Page(BACKGROUND_PAGE, startMillis);
+            }
+            page = myBackgroundPage;
+        }
+        if (page == null) {
+            page = myCurrentPage;
+        }
+        if (page == null) {
+            if (myOtherPage == null) {
+                myOtherPage = new Page(OTHER_PAGE, startMillis);
+            }
+            page = myOtherPage;
+        }
+        if (page.myId == null || page.myTrace != myTrace) {
+            page.myId = "page_" + (myPages.size() + 1);
+            page.myTrace = myTrace;
+            myPages.add(page);
+        }
+        return page.myId;
+    }
+
+    private synchronized void addEntry(@Nonnull JsonObject entry) {
+        if (myEntries.size() < MAX_ENTRIES) {
+            myEntries.add(entry);
+        }
+        else {
+            myDroppedEntries++;
+        }
+    }
+
+    @Nonnull
+    private static String formatTime(long millis) {
+        return DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(Instant.ofEpochMilli(millis).atOffset(ZoneOffset.UTC));
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double)TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Nonnull
+    private static JsonObject nameValue(@Nonnull String name, @Nonnull String value) {
+        JsonObject pair = new JsonObject();
+        pair.addProperty("name", name);
+        pair.addProperty("value", value);
+        return pair;
+    }
+
+    @Nonnull
+    private static JsonObject createRequest(@Nonnull GithubHttpRequest request) {
+        JsonArray headers = new JsonArray();
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            headers.add(nameValue(header.getKey(), redactHeader(header.getKey(), header.getValue())));
+        }
+
+        String uri = request.getUri();
+        JsonArray queryString = new JsonArray();
+        int query = uri.indexOf('?');
+        if (query >= 0) {
+            for (String parameter : uri.substring(query + 1).split("&")) {
+                int eq = parameter.indexOf('=');
+                String name = eq >= 0 ? parameter.substring(0, eq) : parameter;
+                String value = eq >= 0 ? parameter.substring(eq + 1) : "";
+                queryString.add(nameValue(name, redactParameter(name, value)));
+            }
+        }
+
+        String body = request.getBody();
+        JsonObject result = new JsonObject();
+        result.addProperty("method", request.getMethod());
+        result.addProperty("url", query >= 0 ? uri.substring(0, query + 1) + redactQuery(queryString) : uri);
+        result.addProperty("httpVersion", "");
+        result.add("cookies", new JsonArray());
+        result.add("headers", headers);
+        result.add("queryString", queryString);
+        result.addProperty("headersSize", -1);
+        result.addProperty("bodySize", body == null ? 0 : body.getBytes(StandardCharsets.UTF_8).length);
+        return result;
+    }
+
+    @Nonnull
+    private static String redactHeader(@Nonnull String name, @Nonnull String value) {
+        if (!"Authorization".equalsIgnoreCase(name)) {
+            return value;
+        }
+        int space = value.indexOf(' ');
+        return (space >= 0 ? value.substring(0, space + 1) : "") + "<redacted>";
+    }
+
+    @Nonnull
+    private static String redactParameter(@Nonnull String name, @Nonnull String value) {
+        return name.toLowerCase(Locale.ROOT).contains("token") || "client_secret".equals(name) ? "<redacted>" : value;
+    }
+
+    @Nonnull
+    private static String redactQuery(@Nonnull JsonArray queryString) {
+        StringJoiner query = new StringJoiner("&");
+        queryString.forEach(parameter -> {
+            JsonObject pair = parameter.getAsJsonObject();
+            query.add(pair.get("name").getAsString() + "=" + pair.get("value").getAsString());
+        });
+        return query.toString();
+    }
+
+    /**
+     * A run of an action, or the requests not made for any.
+     */
+    static final class Page {
+        @Nonnull
+        private final String myTitle;
+        private final long myStartMillis;
+        // guarded by the recorder, assigned when the page gets its first request
+        @Nullable
+        private String myId;
+        private int myTrace;
+
+        Page(@Nonnull String title, long startMillis) {
+            myTitle = title;
+            myStartMillis = startMillis;
+        }
+
+        @Nonnull
+        JsonObject toJson() {
+            JsonObject page = new JsonObject();
+            page.addProperty("startedDateTime", formatTime(myStartMillis));
+            page.addProperty("id", myId);
+            page.addProperty("title", myTitle);
+            page.add("pageTimings", new JsonObject());
+            return page;
+        }
+    }
+
+    private final class TracingTransport implements GithubTransport {
+        @Nonnull
+        private final GithubTransport myDelegate;
+
+        TracingTransport(@Nonnull GithubTransport delegate) {
+            myDelegate = delegate;
+        }
+
+        @Nonnull
+        @Override
+        public GithubHttpResponse execute(@Nonnull GithubHttpRequest request) throws IOException {
+            long startMillis = System.currentTimeMillis();
+            long start = System.nanoTime();
+            String pageId = getPageId(startMillis);
+            GithubHttpResponse response;
+            try {
+                response = myDelegate.execute(request);
+            }
+            catch (IOException | RuntimeException e) {
+                Exchange exchange = new Exchange(request, pageId, startMillis, start);
+                exchange.failed(e);
+                throw e;
+            }
+            Exchange exchange = new Exchange(request, pageId, startMillis, start);
+            return exchange.received(response);
+        }
+    }
+
+    /**
+     * Timings of a single request: waiting for the response headers, receiving the body,
+     * and the time the caller spends between reads, i.e. decoding.
+     */
+    private final class Exchange {
+        @Nonnull
+        private final GithubHttpRequest myRequest;
+        @Nonnull
+        private final String myPageId;
+        private final long myStartMillis;
+        private final long myStart;
+
+        private long myWaitNanos;
+        private long myReceiveNanos;
+        private long myBytes;
+        private boolean myFinished;
+
+        Exchange(@Nonnull GithubHttpRequest request, @Nonnull String pageId, long startMillis, long start) {
+            myRequest = request;
+            myPageId = pageId;
+            myStartMillis = startMillis;
+            myStart = start;
+        }
+
+        void failed(@Nonnull Exception e) {
+            myWaitNanos = System.nanoTime() - myStart;
+            JsonObject response = createResponse(0, "", Collections.emptyList(), "");
+            JsonObject entry = createEntry(response, myWaitNanos);
+            entry.addProperty("_error", e.toString());
+            addEntry(entry);
+        }
+
+        @Nonnull
+        GithubHttpResponse received(@Nonnull GithubHttpResponse response) {
+            myWaitNanos = System.nanoTime() - myStart;
+            return new GithubHttpResponse() {
+                @Override
+                public int getStatusCode() {
+                    return response.getStatusCode();
+                }
+
+                @Nonnull
+                @Override
+                public String getStatusText() {
+                    return response.getStatusText();
+                }
+
+                @Nullable
+                @Override
+                public String getHeader(@Nonnull String name) {
+                    return response.getHeader(name);
+                }
+
+                @Nullable
+                @Override
+                public InputStream getBody() throws IOException {
+                    InputStream body = response.getBody();
+                    return body == null ? null : meter(body);
+                }
+
+                @Override
+                public void close() {
+                    response.close();
+                    finish(response);
+                }
+            };
+        }
+
+        @Nonnull
+        private InputStream meter(@Nonnull InputStream body) {
+            return new FilterInputStream(body) {
+                @Override
+                public int read() throws IOException {
+                    long start = System.nanoTime();
+                    int read = super.read();
+                    myReceiveNanos += System.nanoTime() - start;
+                    if (read >= 0) {
+                        myBytes++;
+                    }
+                    return read;
+                }
+
+                @Override
+                public int read(@Nonnull byte[] b, int off, int len) throws IOException {
+                    long start = System.nanoTime();
+                    int read = super.read(b, off, len);
+                    myReceiveNanos += System.nanoTime() - start;
+                    if (read > 0) {
+                        myBytes += read;
+                    }
+                    return read;
+                }
+            };
+        }
+
+        private void finish(@Nonnull GithubHttpResponse response) {
+            if (myFinished) {
+                return;
+            }
+            myFinished = true;
+
+            long total = System.nanoTime() - myStart;
+            List<JsonObject> headers = new ArrayList<>();
+            for (String name : RESPONSE_HEADERS) {
+                String value = response.getHeader(name);
+                if (value != null) {
+                    headers.add(nameValue(name, value));
+                }
+            }
+            String contentType = response.getHeader("Content-Type");
+            JsonObject entry = createEntry(
+                createResponse(response.getStatusCode(), response.getStatusText(), headers, contentType != null ? contentType : ""),
+                myWaitNanos + myReceiveNanos
+            );
+            JsonObject timings = entry.getAsJsonObject("timings");
+            timings.addProperty("receive", toMillis(myReceiveNanos));
+            timings.addProperty("_decode", toMillis(Math.max(0, total - myWaitNanos - myReceiveNanos)));
+            addEntry(entry);
+        }
+
+        @Nonnull
+        private JsonObject createResponse(int status, @Nonnull String statusText, @Nonnull List<JsonObject> headers, @Nonnull String mimeType) {
+            JsonArray headerArray = new JsonArray();
+            headers.forEach(headerArray::add);
+
+            JsonObject content = new JsonObject();
+            content.addProperty("size", myBytes);
+            content.addProperty("mimeType", mimeType);
+
+            JsonObject response = new JsonObject();
+            response.addProperty("status", status);
+            response.addProperty("statusText", statusText);
+            response.addProperty("httpVersion", "");
+            response.add("cookies", new JsonArray());
+            response.add("headers", headerArray);
+            response.add("content", content);
+            response.addProperty("redirectURL", "");
+            response.addProperty("headersSize", -1);
+            response.addProperty("bodySize", myBytes);
+            return response;
+        }
+
+        /**
+         * @param totalNanos sum of the standard timings, the decoding is reported separately
+         */
+        @Nonnull
+        private JsonObject createEntry(@Nonnull JsonObject response, long totalNanos) {
+            // connection setup is not reported by the transports, so it is a part of waiting
+            JsonObject timings = new JsonObject();
+            timings.addProperty("blocked", -1);
+            timings.addProperty("dns", -1);
+            timings.addProperty("connect", -1);
+            timings.addProperty("send", 0);
+            timings.addProperty("wait", toMillis(myWaitNanos));
+            timings.addProperty("receive", 0);
+
+            JsonObject entry = new JsonObject();
+            entry.addProperty("pageref", myPageId);
+            entry.addProperty("startedDateTime", formatTime(myStartMillis));
+            entry.addProperty("time", toMillis(totalNanos));
+            entry.add("request", createRequest(myRequest));
+            entry.add("response", response);
+            entry.add("cache", new JsonObject());
+            entry.add("timings", timings);
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.jetbrains.plugins.github.api;
+
+import jakarta.annotation.Nonnull;
+
+import java.io.IOException;
+
+/**
+ * Executes HTTP requests for {@link GithubApiUtil}.
+ * <p/>
+ * Implementations handle connection management, proxy settings and the trust of self-signed certificates
+ * of {@link org.jetbrains.plugins.github.util.GithubSslSupport trusted hosts};
+ * retries, caching and rate limiting are done on top of them.
+ * <p/>
+ * Implementations must be thread-safe. While the exchange is in progress, they should register an action
+ * interrupting it with {@link GithubHttpRequest#setAbortAction}, so the request can be cancelled.
+ *
+ * @see GithubTransports
+ */
+public interface GithubTransport {
+    /**
+     * @return received response, which the caller closes
+     * @throws IOException if no response was received
+     */
+    @Nonnull
+    GithubHttpResponse execute(@Nonnull GithubHttpRequest request) throws IOException;
+
+    /**
+     * Wraps every transport, e.g. to measure or record requests.
+     */
+    @FunctionalInterface
+    interface Decorator {
+        @Nonnull
+        GithubTransport decorate(@Nonnull GithubTransport transport);
+    }
+}
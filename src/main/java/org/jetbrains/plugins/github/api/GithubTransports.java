@@ -0,0 +1,85 @@
+package org.jetbrains.plugins.github.api;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.jetbrains.plugins.github.util.GithubSettings;
+import org.jetbrains.plugins.github.util.GithubUrlUtil;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Chooses the {@link GithubTransport} for a GitHub host.
+ * <p/>
+ * By default requests go through commons-httpclient, or through the JDK HTTP client if it is enabled in the settings.
+ * A different transport can be set for a single host, e.g. a stand-in server for tests and benchmarks.
+ * Decorators wrap whichever transport is chosen, the decorator added last is the outermost one.
+ */
+public final class GithubTransports {
+    private static final Map<String, GithubTransport> ourHostTransports = new ConcurrentHashMap<>();
+    private static final List<GithubTransport.Decorator> ourDecorators = new CopyOnWriteArrayList<>();
+
+    private GithubTransports() {
+    }
+
+    @Nonnull
+    public static GithubTransport getTransport(@Nonnull String host) {
+        GithubTransport transport = ourHostTransports.get(normalizeHost(host));
+        if (transport == null) {
+            transport = getDefaultTransport();
+        }
+        for (GithubTransport.Decorator decorator : ourDecorators) {
+            transport = decorator.decorate(transport);
+        }
+        return transport;
+    }
+
+    @Nonnull
+    public static GithubTransport getDefaultTransport() {
+        return GithubSettings.getInstance().isUseJdkHttpClient() ? getJdkTransport() : getCommonsTransport();
+    }
+
+    /**
+     * @return HTTP/1.1 transport with a keep-alive connection pool
+     */
+    @Nonnull
+    public static GithubTransport getCommonsTransport() {
+        return GithubCommonsTransport.getInstance();
+    }
+
+    /**
+     * @return HTTP/2 transport, multiplexing concurrent requests to a host over one connection
+     */
+    @Nonnull
+    public static GithubTransport getJdkTransport() {
+        return GithubJdkTransport.getInstance();
+    }
+
+    /**
+     * @param transport transport for the host, or null to use the default one again
+     */
+    public static void setTransport(@Nonnull String host, @Nullable GithubTransport transport) {
+        if (transport == null) {
+            ourHostTransports.remove(normalizeHost(host));
+        }
+        else {
+            ourHostTransports.put(normalizeHost(host), transport);
+        }
+    }
+
+    public static void addDecorator(@Nonnull GithubTransport.Decorator decorator) {
+        ourDecorators.add(decorator);
+    }
+
+    public static void removeDecorator(@Nonnull GithubTransport.Decorator decorator) {
+        ourDecorators.remove(decorator);
+    }
+
+    @Nonnull
+    private static String normalizeHost(@Nonnull String host) {
+        return GithubUrlUtil.removeTrailingSlash(GithubUrlUtil.removeProtocolPrefix(host)).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,14 @@
+package org.jetbrains.plugins.github.exceptions;
+
+/**
+ * GitHub refused the request because the primary or secondary rate limit of the account is exhausted.
+ * Unlike {@link GithubAuthenticationException} this does not mean the credentials are wrong.
+ */
+public class GithubRateLimitException extends GithubStatusCodeException {
+    /**
+     * @param retryTime time in milliseconds when requests are allowed again, 0 if unknown
+     */
+    public GithubRateLimitException(String message, int statusCode, long retryTime) {
+        super(message, statusCode, retryTime);
+    }
+}
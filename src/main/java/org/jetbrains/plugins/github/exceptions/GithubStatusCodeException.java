@@ -22,13 +22,26 @@ import java.io.IOException;
  */
 public class GithubStatusCodeException extends IOException {
     private final int myStatusCode;
+    private final long myRetryTime;
 
     public GithubStatusCodeException(String message, int statusCode) {
+        this(message, statusCode, 0);
+    }
+
+    /**
+     * @param retryTime time in milliseconds from the {@code Retry-After} header, 0 if unknown
+     */
+    public GithubStatusCodeException(String message, int statusCode, long retryTime) {
         super(message);
         myStatusCode = statusCode;
+        myRetryTime = retryTime;
     }
 
     public int getStatusCode() {
         return myStatusCode;
     }
+
+    public long getRetryTime() {
+        return myRetryTime;
+    }
 }
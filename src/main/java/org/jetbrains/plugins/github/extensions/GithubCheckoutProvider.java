@@ -29,6 +29,7 @@ import git4idea.checkout.GitCloneDialog;
 import git4idea.commands.Git;
 import org.jetbrains.plugins.github.api.GithubApiUtil;
 import org.jetbrains.plugins.github.api.GithubRepo;
+import org.jetbrains.plugins.github.api.GithubTraceRecorder;
 import org.jetbrains.plugins.github.exceptions.GithubAuthenticationCanceledException;
 import org.jetbrains.plugins.github.util.GithubAuthData;
 import org.jetbrains.plugins.github.util.GithubNotifications;
@@ -50,6 +51,7 @@ public class GithubCheckoutProvider implements CheckoutProvider {
     @RequiredUIAccess
     public void doCheckout(@Nonnull final Project project, @Nullable final Listener listener) {
         BasicAction.saveAll();
+        GithubTraceRecorder.actionStarted("Checkout from GitHub");
 
         List<GithubRepo> availableRepos;
         try {
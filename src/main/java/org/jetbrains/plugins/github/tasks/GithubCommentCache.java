@@ -0,0 +1,208 @@
+package org.jetbrains.plugins.github.tasks;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.jetbrains.plugins.github.api.GithubApiAsync;
+import org.jetbrains.plugins.github.api.GithubApiUtil;
+import org.jetbrains.plugins.github.api.GithubIssue;
+import org.jetbrains.plugins.github.api.GithubIssueComment;
+import org.jetbrains.plugins.github.util.GithubAuthData;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Comments of the issues shown as tasks, loaded in background and kept until the issue changes.
+ * <p/>
+ * The comments of an issue are valid as long as its update time and comment count are the same as when they were
+ * loaded: a new, edited or deleted comment updates the issue. Issues without comments are never requested.
+ * <p/>
+ * {@link #prefetch} starts loading the comments of the issues as soon as they are shown, so that opening a task
+ * rarely has to wait. The prefetches run {@link GithubApiAsync#submitInBackground in background}, so they may be
+ * paced by the rate limiter. {@link #getComments} waits for at most {@link #MAX_WAIT} ms, and returns the comments
+ * of an earlier state of the issue if they are not there by then; if there are none, it waits for the comments,
+ * loading them interactively if the prefetch is still pending.
+ */
+final class GithubCommentCache {
+    private static final int MAX_ENTRIES = 500;
+    private static final long MAX_WAIT = 500;
+    // about as many tasks as the popup shows at once
+    private static final int PREFETCH_LIMIT = 10;
+
+    // guarded by this, the least recently used entries are evicted
+    private final Map<String, Entry> myEntries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * Starts loading the comments of the first issues of the list, the ones visible, that are not loaded yet,
+     * in background.
+     */
+    void prefetch(@Nonnull GithubAuthData auth, @Nonnull String owner, @Nonnull String repo, @Nonnull List<GithubIssue> issues) {
+        for (GithubIssue issue : issues.subList(0, Math.min(issues.size(), PREFETCH_LIMIT))) {
+            load(auth, owner, repo, issue, true);
+        }
+    }
+
+    /**
+     * @return the comments of the issue, of an earlier state of it if the current ones are still loading
+     * @throws IOException if the comments have failed to load
+     */
+    @Nonnull
+    List<GithubIssueComment> getComments(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String owner,
+        @Nonnull String repo,
+        @Nonnull GithubIssue issue
+    ) throws IOException {
+        Entry entry = load(auth, owner, repo, issue, false);
+        try {
+            entry.myComments.get(MAX_WAIT, TimeUnit.MILLISECONDS);
+        }
+        catch (TimeoutException e) {
+            if (entry.myPrevious != null) {
+                return entry.myPrevious;
+            }
+            // the user is waiting now, a prefetch may be held by the rate limiter
+            entry = loadInteractively(auth, owner, repo, issue, entry);
+        }
+        catch (CancellationException e) {
+            // replaced meanwhile by the load of a newer state of the issue
+            entry = load(auth, owner, repo, issue, false);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for GitHub issue comments");
+        }
+        catch (ExecutionException ignored) {
+            // reported by await
+        }
+        return GithubApiAsync.await(entry.myComments);
+    }
+
+    @Nonnull
+    private synchronized Entry load(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String owner,
+        @Nonnull String repo,
+        @Nonnull GithubIssue issue,
+        boolean background
+    ) {
+        String key = getKey(auth, owner, repo, issue);
+        Entry entry = myEntries.get(key);
+        if (entry != null && entry.isValidFor(issue) && !entry.myComments.isCompletedExceptionally()) {
+            return entry;
+        }
+        return start(key, auth, owner, repo, issue, entry, background);
+    }
+
+    /**
+     * Replaces the pending background load of the entry, if it is still the current one, with an interactive one.
+     */
+    @Nonnull
+    private synchronized Entry loadInteractively(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String owner,
+        @Nonnull String repo,
+        @Nonnull GithubIssue issue,
+        @Nonnull Entry entry
+    ) {
+        String key = getKey(auth, owner, repo, issue);
+        if (!entry.myBackground || entry.myComments.isDone() || myEntries.get(key) != entry) {
+            return entry;
+        }
+        return start(key, auth, owner, repo, issue, entry, false);
+    }
+
+    @Nonnull
+    private Entry start(
+        @Nonnull String key,
+        @Nonnull GithubAuthData auth,
+        @Nonnull String owner,
+        @Nonnull String repo,
+        @Nonnull GithubIssue issue,
+        @Nullable Entry entry,
+        boolean background
+    ) {
+        List<GithubIssueComment> previous = null;
+        if (entry != null) {
+            // the comments of an outdated state are still better than none while the new ones are loading
+            previous = entry.isLoaded() ? entry.myComments.join() : entry.myPrevious;
+            entry.myComments.cancel(true);
+        }
+
+        long number = issue.getNumber();
+        CompletableFuture<List<GithubIssueComment>> comments;
+        if (issue.getCommentsCount() == 0) {
+            comments = CompletableFuture.completedFuture(Collections.emptyList());
+        }
+        else if (background) {
+            comments = GithubApiAsync.submitInBackground(() -> GithubApiUtil.getIssueComments(auth, owner, repo, number));
+        }
+        else {
+            comments = GithubApiAsync.getIssueComments(auth, owner, repo, number);
+        }
+        entry = new Entry(issue, comments, previous, background);
+        myEntries.put(key, entry);
+        return entry;
+    }
+
+    /**
+     * The comments are told apart by account, like the issues of {@link GithubIssueStore}:
+     * another account may not be allowed to see them.
+     */
+    @Nonnull
+    private static String getKey(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String owner,
+        @Nonnull String repo,
+        @Nonnull GithubIssue issue
+    ) {
+        return GithubApiUtil.getAccountIdentity(auth) + " " + owner + "/" + repo + "#" + issue.getNumber();
+    }
+
+    private static final class Entry {
+        @Nonnull
+        private final Date myUpdatedAt;
+        private final int myCommentsCount;
+        @Nonnull
+        private final CompletableFuture<List<GithubIssueComment>> myComments;
+        @Nullable
+        private final List<GithubIssueComment> myPrevious;
+        private final boolean myBackground;
+
+        Entry(
+            @Nonnull GithubIssue issue,
+            @Nonnull CompletableFuture<List<GithubIssueComment>> comments,
+            @Nullable List<GithubIssueComment> previous,
+            boolean background
+        ) {
+            myUpdatedAt = issue.getUpdatedAt();
+            myCommentsCount = issue.getCommentsCount();
+            myComments = comments;
+            myPrevious = previous;
+            myBackground = background;
+        }
+
+        /**
+         * Tasks created from an older state of the issue may still be around, the newer comments are valid for them.
+         */
+        boolean isValidFor(@Nonnull GithubIssue issue) {
+            return myUpdatedAt.after(issue.getUpdatedAt())
+                || myUpdatedAt.equals(issue.getUpdatedAt()) && myCommentsCount == issue.getCommentsCount();
+        }
+
+        boolean isLoaded() {
+            return myComments.isDone() && !myComments.isCompletedExceptionally();
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package org.jetbrains.plugins.github.tasks;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.jetbrains.plugins.github.api.GithubIssue;
+import org.jetbrains.plugins.github.api.GithubUser;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index of the title, body, labels, number and assignees of issues, for searching them without the network.
+ * <p/>
+ * Every word of a query must match a word of the issue exactly, as a prefix, or, for longer words, with a typo or two
+ * after the first letter: only the words starting with the same letter are compared, so that a search doesn't
+ * scan the whole vocabulary while it holds the store.
+ * The issues are ranked by the sum of the best match of every query word, weighted by the field it is found in,
+ * by how close the match is and by how rare the matched word is.
+ * <p/>
+ * Not thread-safe: it is guarded by the owning {@link GithubIssueStore}.
+ */
+final class GithubIssueIndex {
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    // search API qualifiers, e.g. label:bug, is:open, -author:octocat
+    private static final Pattern QUALIFIER = Pattern.compile("(^|\\s)-?[\\p{L}_]+:\\S");
+
+    private static final float NUMBER_WEIGHT = 5;
+    private static final float TITLE_WEIGHT = 3;
+    private static final float LABEL_WEIGHT = 2;
+    private static final float ASSIGNEE_WEIGHT = 2;
+    private static final float BODY_WEIGHT = 1;
+
+    private static final float PREFIX_FACTOR = 0.7f;
+    private static final float FUZZY_FACTOR = 0.4f;
+    // shorter words have too many neighbours within one typo
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int TWO_TYPOS_LENGTH = 8;
+
+    // word -> issue number -> weight of the word in the issue; sorted, so that prefixes are ranges
+    private final NavigableMap<String, Map<Long, Float>> myPostings = new TreeMap<>();
+    // issue number -> its words, to remove the postings of an updated issue
+    private final Map<Long, Set<String>> myWords = new HashMap<>();
+
+    void add(@Nonnull GithubIssue issue) {
+        long number = issue.getNumber();
+        remove(number);
+
+        Map<String, Float> weights = new HashMap<>();
+        addWords(weights, String.valueOf(number), NUMBER_WEIGHT);
+        addWords(weights, issue.getTitle(), TITLE_WEIGHT);
+        for (String label : issue.getLabels()) {
+            addWords(weights, label, LABEL_WEIGHT);
+        }
+        for (GithubUser assignee : issue.getAssignees()) {
+            addWords(weights, assignee.getLogin(), ASSIGNEE_WEIGHT);
+        }
+        addWords(weights, issue.getBody(), BODY_WEIGHT);
+
+        for (Map.Entry<String, Float> entry : weights.entrySet()) {
+            myPostings.computeIfAbsent(entry.getKey(), word -> new HashMap<>()).put(number, entry.getValue());
+        }
+        myWords.put(number, weights.keySet());
+    }
+
+    void remove(long number) {
+        Set<String> words = myWords.remove(number);
+        if (words == null) {
+            return;
+        }
+        for (String word : words) {
+            Map<Long, Float> postings = myPostings.get(word);
+            postings.remove(number);
+            if (postings.isEmpty()) {
+                myPostings.remove(word);
+            }
+        }
+    }
+
+    void clear() {
+        myPostings.clear();
+        myWords.clear();
+    }
+
+    /**
+     * @return whether the query uses the qualifiers of the search API, which the index doesn't know
+     */
+    static boolean hasQualifiers(@Nonnull String query) {
+        return QUALIFIER.matcher(query).find();
+    }
+
+    /**
+     * @return numbers of the issues matching every word of the query, best match first
+     */
+    @Nonnull
+    List<Long> search(@Nonnull String query) {
+        Set<String> words = new LinkedHashSet<>(getWords(query));
+        if (words.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, Float> scores = null;
+        for (String word : words) {
+            Map<Long, Float> matches = match(word);
+            if (scores == null) {
+                scores = matches;
+            }
+            else {
+                scores.keySet().retainAll(matches.keySet());
+                for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+                    entry.setValue(entry.getValue() + matches.get(entry.getKey()));
+                }
+            }
+            if (scores.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+
+        List<Map.Entry<Long, Float>> ranked = new ArrayList<>(scores.entrySet());
+        // the newest issue first among equally good matches
+        ranked.sort(Map.Entry.<Long, Float>comparingByValue().thenComparing(Map.Entry.comparingByKey()).reversed());
+        List<Long> result = new ArrayList<>(ranked.size());
+        for (Map.Entry<Long, Float> entry : ranked) {
+            result.add(entry.getKey());
+        }
+        return result;
+    }
+
+    /**
+     * @return the score of the best match of the word in every issue that has one
+     */
+    @Nonnull
+    private Map<Long, Float> match(@Nonnull String word) {
+        Map<Long, Float> scores = new HashMap<>();
+        for (Map.Entry<String, Map<Long, Float>> entry : myPostings.subMap(word, true, word + Character.MAX_VALUE, false).entrySet()) {
+            float factor = entry.getKey().length() == word.length() ? 1 : PREFIX_FACTOR;
+            collect(scores, entry.getValue(), factor);
+        }
+        if (word.length() >= MIN_FUZZY_LENGTH) {
+            int maxTypos = word.length() >= TWO_TYPOS_LENGTH ? 2 : 1;
+            String first = word.substring(0, 1);
+            for (Map.Entry<String, Map<Long, Float>> entry : myPostings.subMap(first, true, first + Character.MAX_VALUE, false).entrySet()) {
+                String candidate = entry.getKey();
+                if (Math.abs(candidate.length() - word.length()) <= maxTypos
+                    && !candidate.startsWith(word)
+                    && isWithinDistance(word, candidate, maxTypos)) {
+                    collect(scores, entry.getValue(), FUZZY_FACTOR);
+                }
+            }
+        }
+        return scores;
+    }
+
+    private void collect(@Nonnull Map<Long, Float> scores, @Nonnull Map<Long, Float> postings, float factor) {
+        // rare words tell more about the issue
+        float idf = (float)Math.log(1 + (double)myWords.size() / postings.size());
+        for (Map.Entry<Long, Float> posting : postings.entrySet()) {
+            scores.merge(posting.getKey(), posting.getValue() * factor * idf, Math::max);
+        }
+    }
+
+    private static void addWords(@Nonnull Map<String, Float> weights, @Nullable String text, float weight) {
+        if (text == null) {
+            return;
+        }
+        for (String word : getWords(text)) {
+            weights.merge(word, weight, Math::max);
+        }
+    }
+
+    @Nonnull
+    private static List<String> getWords(@Nonnull String text) {
+        List<String> words = new ArrayList<>();
+        for (String word : WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Levenshtein distance, computed only as far as it can stay within the limit.
+     */
+    private static boolean isWithinDistance(@Nonnull String a, @Nonnull String b, int limit) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > limit) {
+                return false;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()] <= limit;
+    }
+}
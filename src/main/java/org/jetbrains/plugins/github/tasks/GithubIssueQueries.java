@@ -0,0 +1,142 @@
+package org.jetbrains.plugins.github.tasks;
+
+import consulo.application.progress.ProgressIndicator;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.jetbrains.plugins.github.api.GithubApiAsync;
+import org.jetbrains.plugins.github.api.GithubRequestContext;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs the issue queries of the task popup so that abandoned ones don't hold the popup up or use the rate limit.
+ * <p/>
+ * A query runs as {@link GithubApiAsync} operations, and their HTTP requests are aborted as soon as the progress
+ * of the caller is cancelled (e.g. the popup is closed) or a query with another text arrives.
+ * A typed query is answered locally if possible; otherwise it goes to the network only once the user has stopped
+ * typing for {@link #DEBOUNCE_DELAY}, and it waits for that on the thread of the caller, not in the shared pool.
+ */
+final class GithubIssueQueries {
+    private static final long DEBOUNCE_DELAY = 300;
+    private static final long CANCELLATION_CHECK_INTERVAL = 50;
+
+    // guarded by this: the text of the latest query from the popup, and its running operations
+    @Nullable
+    private String myLatestQuery;
+    private final Set<CompletableFuture<?>> myOperations = new HashSet<>();
+
+    /**
+     * @param query text typed by the user, null for queries that are not typed (e.g. the periodic update)
+     * @param indicator progress of the caller, its cancellation is reported by {@link ProgressIndicator#checkCanceled()}
+     * @param local answers the query without waiting, e.g. from {@link GithubIssueStore}; returns null if it can't
+     * @param remote answers the query from the network
+     * @return null if a query with another text has arrived meanwhile
+     */
+    @Nullable
+    <T> T run(
+        @Nullable String query,
+        @Nullable ProgressIndicator indicator,
+        @Nonnull GithubRequestContext.Request<T> local,
+        @Nonnull GithubRequestContext.Request<T> remote
+    ) throws IOException {
+        if (query != null) {
+            started(query);
+        }
+        T result = await(query, indicator, local);
+        if (result != null || isSuperseded(query)) {
+            return result;
+        }
+        if (query != null && !debounce(query, indicator)) {
+            return null;
+        }
+        return await(query, indicator, remote);
+    }
+
+    private synchronized void started(@Nonnull String query) {
+        if (query.equals(myLatestQuery)) {
+            return;
+        }
+        myLatestQuery = query;
+        for (CompletableFuture<?> operation : new ArrayList<>(myOperations)) {
+            operation.cancel(true);
+        }
+        myOperations.clear();
+        // wakes up the queries waiting for the user to stop typing
+        notifyAll();
+    }
+
+    @Nullable
+    private <T> T await(
+        @Nullable String query,
+        @Nullable ProgressIndicator indicator,
+        @Nonnull GithubRequestContext.Request<T> request
+    ) throws IOException {
+        CompletableFuture<T> future = GithubApiAsync.submit(request);
+        if (query != null) {
+            synchronized (this) {
+                if (isSuperseded(query)) {
+                    future.cancel(true);
+                    return null;
+                }
+                myOperations.add(future);
+            }
+            future.whenComplete((result, error) -> {
+                synchronized (this) {
+                    myOperations.remove(future);
+                }
+            });
+        }
+        try {
+            return GithubApiAsync.await(future, () -> isCanceled(indicator));
+        }
+        catch (InterruptedIOException e) {
+            if (isSuperseded(query)) {
+                return null;
+            }
+            if (indicator != null) {
+                indicator.checkCanceled();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Waits for the user to stop typing.
+     *
+     * @return false if a query with another text has arrived meanwhile
+     */
+    private synchronized boolean debounce(@Nonnull String query, @Nullable ProgressIndicator indicator) throws IOException {
+        long deadline = System.currentTimeMillis() + DEBOUNCE_DELAY;
+        long delay;
+        while ((delay = deadline - System.currentTimeMillis()) > 0) {
+            if (isSuperseded(query)) {
+                return false;
+            }
+            if (indicator != null) {
+                indicator.checkCanceled();
+            }
+            try {
+                wait(Math.min(delay, CANCELLATION_CHECK_INTERVAL));
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the next GitHub issue query");
+            }
+        }
+        return !isSuperseded(query);
+    }
+
+    private synchronized boolean isSuperseded(@Nullable String query) {
+        return query != null && !Objects.equals(query, myLatestQuery);
+    }
+
+    private static boolean isCanceled(@Nullable ProgressIndicator indicator) {
+        return indicator != null && indicator.isCanceled();
+    }
+}
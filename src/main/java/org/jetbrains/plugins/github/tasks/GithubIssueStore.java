@@ -0,0 +1,310 @@
+package org.jetbrains.plugins.github.tasks;
+
+import consulo.logging.Logger;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.jetbrains.plugins.github.api.GithubApiAsync;
+import org.jetbrains.plugins.github.api.GithubApiUtil;
+import org.jetbrains.plugins.github.api.GithubIssue;
+import org.jetbrains.plugins.github.api.GithubUser;
+import org.jetbrains.plugins.github.util.GithubAuthData;
+import org.jetbrains.plugins.github.util.GithubUtil;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local copy of the issues of a repository, kept up to date incrementally: after the initial load only the issues
+ * updated since the last sync are requested, so the cost of a refresh scales with the number of changes rather than
+ * with the size of the repository.
+ * <p/>
+ * The initial load takes the open issues, the ones the task list shows and searches.
+ * The updates take every changed issue, open or closed, so closed issues are noticed as well.
+ * Every stored issue is kept in a {@link GithubIssueIndex}, so that searches don't need the search API.
+ * Issues deleted or transferred to another repository are not reported as updates; they are dropped by a full
+ * reload once a day.
+ * <p/>
+ * The high-water mark starts at the time the initial load started, any later change is reported as an update.
+ * It only moves forward with the updates, which come in the order of their update time: issues changed while
+ * the initial load is paging are returned in their old state or not at all, so their update time is no safe mark.
+ * <p/>
+ * The initial load runs in background and adds the issues page by page. Until it is finished {@link #getAssignedIssues}
+ * and {@link #search} answer only if the issues loaded so far fill the requested window, and return null otherwise.
+ * The issues come newest first, so the first windows of the task list are exact long before the load finishes;
+ * searches are ranked among the issues loaded so far.
+ * Later calls sync at most every {@link #MIN_SYNC_INTERVAL}, searches typed one key after another don't go to the network.
+ */
+final class GithubIssueStore {
+    private static final Logger LOG = GithubUtil.LOG;
+
+    private static final long FULL_SYNC_INTERVAL = TimeUnit.DAYS.toMillis(1);
+    private static final long MIN_SYNC_INTERVAL = TimeUnit.SECONDS.toMillis(30);
+    // the high-water mark of the initial load is the local time, the server clock may be behind
+    private static final long CLOCK_SKEW_MARGIN = TimeUnit.MINUTES.toMillis(10);
+    private static final Comparator<GithubIssue> NEWEST_FIRST = Comparator.comparing(GithubIssue::getCreatedAt)
+        .thenComparingLong(GithubIssue::getNumber)
+        .reversed();
+
+    private final long myMinSyncInterval;
+
+    // guarded by this
+    private final Map<Long, GithubIssue> myIssues = new HashMap<>();
+    private final GithubIssueIndex myIndex = new GithubIssueIndex();
+    @Nullable
+    private Key myKey;
+    // incremented by every initial load, the results of requests made for an earlier one are dropped
+    private int myGeneration;
+    // the latest update time of the stored issues, the next sync asks for the issues updated since then
+    @Nullable
+    private Date myHighWaterMark;
+    private long myFullSyncTime;
+    private long mySyncTime;
+    @Nullable
+    private CompletableFuture<?> myInitialRequest;
+    // completes once the initial request is finished and its failure, if any, is handled
+    @Nullable
+    private CompletableFuture<?> myInitialLoad;
+
+    GithubIssueStore() {
+        this(MIN_SYNC_INTERVAL);
+    }
+
+    /**
+     * @param minSyncInterval how long the stored issues are served without asking for updates
+     */
+    GithubIssueStore(long minSyncInterval) {
+        myMinSyncInterval = minSyncInterval;
+    }
+
+    /**
+     * Updates the store and returns the issues from {@code offset} to {@code offset + limit}
+     * assigned to the user, open ones only, newest first.
+     *
+     * @return null if the initial load has not reached the end of the window yet
+     */
+    @Nullable
+    List<GithubIssue> getAssignedIssues(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String owner,
+        @Nonnull String repo,
+        @Nonnull String assignee,
+        int offset,
+        int limit
+    ) throws IOException {
+        boolean loaded = sync(auth, owner, repo);
+        List<GithubIssue> result = new ArrayList<>();
+        synchronized (this) {
+            for (GithubIssue issue : myIssues.values()) {
+                if (isOpen(issue) && isAssignedTo(issue, assignee)) {
+                    result.add(issue);
+                }
+            }
+        }
+        result.sort(NEWEST_FIRST);
+        return getWindow(result, offset, limit, loaded);
+    }
+
+    /**
+     * Updates the store and returns the open issues from {@code offset} to {@code offset + limit}
+     * matching the query, best match first.
+     *
+     * @return null if the initial load has not found enough issues to fill the window yet,
+     * or if the query has qualifiers only the search API understands
+     * @see GithubIssueIndex
+     */
+    @Nullable
+    List<GithubIssue> search(
+        @Nonnull GithubAuthData auth,
+        @Nonnull String owner,
+        @Nonnull String repo,
+        @Nonnull String query,
+        int offset,
+        int limit
+    ) throws IOException {
+        if (GithubIssueIndex.hasQualifiers(query)) {
+            return null;
+        }
+        boolean loaded = sync(auth, owner, repo);
+        List<GithubIssue> result = new ArrayList<>();
+        synchronized (this) {
+            for (Long number : myIndex.search(query)) {
+                GithubIssue issue = myIssues.get(number);
+                if (isOpen(issue)) {
+                    result.add(issue);
+                }
+            }
+        }
+        return getWindow(result, offset, limit, loaded);
+    }
+
+    /**
+     * @return false if the initial load is not finished yet
+     */
+    private boolean sync(@Nonnull GithubAuthData auth, @Nonnull String owner, @Nonnull String repo) throws IOException {
+        Key key = new Key(auth, owner, repo);
+        Date since;
+        int generation;
+        long previousSyncTime;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            if (!key.equals(myKey) || now - myFullSyncTime > FULL_SYNC_INTERVAL) {
+                startInitialLoad(key);
+                return false;
+            }
+            if (myInitialLoad != null && !myInitialLoad.isDone()) {
+                return false;
+            }
+            myInitialLoad = null;
+            myInitialRequest = null;
+            if (now - mySyncTime < myMinSyncInterval) {
+                return true;
+            }
+            previousSyncTime = mySyncTime;
+            mySyncTime = now;
+            since = myHighWaterMark;
+            generation = myGeneration;
+        }
+
+        List<GithubIssue> updates;
+        try {
+            updates = GithubApiUtil.getIssuesUpdatedSince(auth, owner, repo, since);
+        }
+        catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                // the updates are still to be fetched, the next call shouldn't wait for the sync interval
+                if (myGeneration == generation) {
+                    mySyncTime = previousSyncTime;
+                }
+            }
+            throw e;
+        }
+        synchronized (this) {
+            // merging is idempotent, concurrent syncs may overlap; the updates since the mark of an earlier load
+            // may miss the changes made before the mark of the current one
+            if (myGeneration == generation) {
+                merge(updates, true);
+            }
+        }
+        return true;
+    }
+
+    private void startInitialLoad(@Nonnull Key key) {
+        if (myInitialRequest != null) {
+            myInitialRequest.cancel(true);
+        }
+        myKey = key;
+        int generation = ++myGeneration;
+        myIssues.clear();
+        myIndex.clear();
+        myFullSyncTime = System.currentTimeMillis();
+        mySyncTime = myFullSyncTime;
+        myHighWaterMark = new Date(myFullSyncTime - CLOCK_SKEW_MARGIN);
+        myInitialRequest = GithubApiAsync.submit(() -> {
+            GithubApiUtil.getIssuesAssigned(key.myAuth, key.myOwner, key.myRepo, null, page -> {
+                synchronized (this) {
+                    if (myGeneration == generation) {
+                        merge(page, false);
+                    }
+                }
+            });
+            return null;
+        });
+        myInitialLoad = myInitialRequest.whenComplete((result, error) -> {
+            synchronized (this) {
+                if (myGeneration != generation || error == null) {
+                    return;
+                }
+                // the next call starts over, the issues loaded so far are not to be served as complete
+                LOG.info("Can't load GitHub issues of " + key.myOwner + "/" + key.myRepo, error);
+                myKey = null;
+                myIssues.clear();
+                myIndex.clear();
+            }
+        });
+    }
+
+    /**
+     * The latest state of every issue wins, whichever request returned it.
+     *
+     * @param updates whether the issues are a complete list of the updates since the high-water mark
+     */
+    private void merge(@Nonnull List<GithubIssue> issues, boolean updates) {
+        for (GithubIssue issue : issues) {
+            GithubIssue stored = myIssues.get(issue.getNumber());
+            if (stored == null || !stored.getUpdatedAt().after(issue.getUpdatedAt())) {
+                myIssues.put(issue.getNumber(), issue);
+                myIndex.add(issue);
+            }
+            if (updates && (myHighWaterMark == null || issue.getUpdatedAt().after(myHighWaterMark))) {
+                myHighWaterMark = issue.getUpdatedAt();
+            }
+        }
+    }
+
+    /**
+     * @param complete whether the issues are all there are, a window past their end is incomplete otherwise
+     */
+    @Nullable
+    private static List<GithubIssue> getWindow(@Nonnull List<GithubIssue> issues, int offset, int limit, boolean complete) {
+        if (!complete && (long)offset + limit > issues.size()) {
+            return null;
+        }
+        int from = Math.min(offset, issues.size());
+        return new ArrayList<>(issues.subList(from, from + Math.min(limit, issues.size() - from)));
+    }
+
+    private static boolean isOpen(@Nonnull GithubIssue issue) {
+        return "open".equals(issue.getState());
+    }
+
+    private static boolean isAssignedTo(@Nonnull GithubIssue issue, @Nonnull String login) {
+        for (GithubUser assignee : issue.getAssignees()) {
+            if (login.equalsIgnoreCase(assignee.getLogin())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The stored issues belong to one account and repository, any change of the settings starts over.
+     */
+    private static final class Key {
+        @Nonnull
+        private final GithubAuthData myAuth;
+        @Nonnull
+        private final String myOwner;
+        @Nonnull
+        private final String myRepo;
+        // tells the accounts apart, logins included, without comparing the secrets
+        @Nonnull
+        private final String myIdentity;
+
+        Key(@Nonnull GithubAuthData auth, @Nonnull String owner, @Nonnull String repo) {
+            myAuth = auth;
+            myOwner = owner;
+            myRepo = repo;
+            myIdentity = GithubApiUtil.getAccountIdentity(auth);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key key)) {
+                return false;
+            }
+            return myIdentity.equals(key.myIdentity)
+                && myOwner.equals(key.myOwner)
+                && myRepo.equals(key.myRepo);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(myIdentity, myOwner, myRepo);
+        }
+    }
+}
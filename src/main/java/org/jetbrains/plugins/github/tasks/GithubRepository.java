@@ -1,6 +1,7 @@
 package org.jetbrains.plugins.github.tasks;
 
 import com.intellij.tasks.impl.BaseRepositoryImpl;
+import consulo.application.progress.ProgressIndicator;
 import consulo.application.util.PasswordUtil;
 import consulo.github.icon.GitHubIconGroup;
 import consulo.logging.Logger;
@@ -13,6 +14,7 @@ import consulo.util.xml.serializer.annotation.Transient;
 import org.jetbrains.plugins.github.api.GithubApiUtil;
 import org.jetbrains.plugins.github.api.GithubIssue;
 import org.jetbrains.plugins.github.api.GithubIssueComment;
+import org.jetbrains.plugins.github.api.GithubRequestContext;
 import org.jetbrains.plugins.github.exceptions.GithubAuthenticationException;
 import org.jetbrains.plugins.github.exceptions.GithubJsonException;
 import org.jetbrains.plugins.github.exceptions.GithubStatusCodeException;
@@ -33,6 +35,7 @@ import java.util.regex.Pattern;
 @Tag("GitHub")
 public class GithubRepository extends BaseRepositoryImpl {
     private static final Logger LOG = GithubUtil.LOG;
+    private static final String TRACE_ACTION = "Tasks";
 
     private Pattern myPattern = Pattern.compile("($^)");
     @Nonnull
@@ -43,6 +46,13 @@ public class GithubRepository extends BaseRepositoryImpl {
     private String myUser = "";
     @Nonnull
     private String myToken = "";
+    // shared with the copies, it starts over by itself if their settings differ
+    @Nonnull
+    private GithubIssueStore myIssueStore = new GithubIssueStore();
+    @Nonnull
+    private GithubIssueQueries myIssueQueries = new GithubIssueQueries();
+    @Nonnull
+    private GithubCommentCache myCommentCache = new GithubCommentCache();
 
     {
         setUrl(GithubApiUtil.DEFAULT_GITHUB_HOST);
@@ -57,15 +67,32 @@ public class GithubRepository extends BaseRepositoryImpl {
         setRepoName(other.myRepoName);
         setRepoAuthor(other.myRepoAuthor);
         setToken(other.myToken);
+        myIssueStore = other.myIssueStore;
+        myIssueQueries = other.myIssueQueries;
+        myCommentCache = other.myCommentCache;
     }
 
     public GithubRepository(GithubRepositoryType type) {
         super(type);
     }
 
+    /**
+     * Checks the credentials and the access to the repository with a single request.
+     */
     @Override
     public void testConnection() throws Exception {
-        getIssues("", 10, 0);
+        try {
+            GithubRequestContext.action(
+                TRACE_ACTION,
+                () -> GithubApiUtil.getDetailedRepoInfo(getAuthData(), getRepoAuthor(), getRepoName())
+            );
+        }
+        catch (GithubAuthenticationException | GithubStatusCodeException e) {
+            throw new Exception(e.getMessage(), e);
+        }
+        catch (GithubJsonException e) {
+            throw new Exception("Bad response format", e);
+        }
     }
 
     @Override
@@ -83,8 +110,30 @@ public class GithubRepository extends BaseRepositoryImpl {
 
     @Override
     public Task[] getIssues(@Nullable String query, int max, long since) throws Exception {
+        return findIssues(query, 0, max, false, null);
+    }
+
+    @Override
+    public Task[] getIssues(
+        @Nullable String query,
+        int offset,
+        int limit,
+        boolean withClosed,
+        @Nonnull ProgressIndicator cancelled
+    ) throws Exception {
+        return findIssues(query, offset, limit, withClosed, cancelled);
+    }
+
+    @Nonnull
+    private Task[] findIssues(
+        @Nullable String query,
+        int offset,
+        int limit,
+        boolean withClosed,
+        @Nullable ProgressIndicator indicator
+    ) throws Exception {
         try {
-            return getIssues(query);
+            return doGetIssues(query, offset, limit, withClosed, indicator);
         }
         catch (GithubAuthenticationException | GithubStatusCodeException e) {
             throw new Exception(e.getMessage(), e);
@@ -94,19 +143,59 @@ public class GithubRepository extends BaseRepositoryImpl {
         }
     }
 
+    /**
+     * The open issues assigned to the user, and the plain text searches among open issues, are served from the
+     * {@link GithubIssueStore}, which only asks for the issues updated since the last refresh. Until it is loaded,
+     * and for closed issues, only the pages of the requested window are fetched; the Tasks subsystem asks for more
+     * as the user scrolls.
+     * <p/>
+     * Queries are run by {@link GithubIssueQueries}: they are aborted when the popup is closed or the user types on,
+     * and searches go to the network only once the user stops typing.
+     * The comments of the returned issues are prefetched by the {@link GithubCommentCache}.
+     */
     @Nonnull
-    private Task[] getIssues(@Nullable String query) throws Exception {
+    private Task[] doGetIssues(
+        @Nullable String query,
+        int offset,
+        int limit,
+        boolean withClosed,
+        @Nullable ProgressIndicator indicator
+    ) throws Exception {
         List<GithubIssue> issues;
         if (StringUtil.isEmptyOrSpaces(query)) {
-            if (StringUtil.isEmptyOrSpaces(myUser)) {
-                myUser = GithubApiUtil.getCurrentUser(getAuthData()).getLogin();
-            }
-            issues = GithubApiUtil.getIssuesAssigned(getAuthData(), getRepoAuthor(), getRepoName(), myUser);
+            // issues without a query are requested by the periodic task list update, and by the popup opened
+            // with an empty field, which waits for them, so they are not requested in background
+            issues = GithubRequestContext.action(TRACE_ACTION, () -> myIssueQueries.run(
+                null,
+                indicator,
+                () -> {
+                    if (StringUtil.isEmptyOrSpaces(myUser)) {
+                        myUser = GithubApiUtil.getCurrentUser(getAuthData()).getLogin();
+                    }
+                    return withClosed
+                        ? null
+                        : myIssueStore.getAssignedIssues(getAuthData(), getRepoAuthor(), getRepoName(), myUser, offset, limit);
+                },
+                () -> GithubApiUtil.getIssuesAssigned(getAuthData(), getRepoAuthor(), getRepoName(), myUser, offset, limit, withClosed)
+            ));
         }
         else {
-            issues = GithubApiUtil.getIssuesQueried(getAuthData(), getRepoAuthor(), getRepoName(), query);
+            issues = GithubRequestContext.action(TRACE_ACTION, () -> myIssueQueries.run(
+                query,
+                indicator,
+                () -> withClosed ? null : myIssueStore.search(getAuthData(), getRepoAuthor(), getRepoName(), query, offset, limit),
+                () -> GithubApiUtil.getIssuesQueried(getAuthData(), getRepoAuthor(), getRepoName(), query, offset, limit, withClosed)
+            ));
+        }
+        if (issues == null) {
+            // superseded by the next query, its results are the ones shown
+            return Task.EMPTY_ARRAY;
         }
 
+        GithubRequestContext.action(TRACE_ACTION, () -> {
+            myCommentCache.prefetch(getAuthData(), getRepoAuthor(), getRepoName(), issues);
+            return null;
+        });
         return ContainerUtil.map2Array(issues, Task.class, this::createTask);
     }
 
@@ -147,7 +236,7 @@ public class GithubRepository extends BaseRepositoryImpl {
             @Override
             public Comment[] getComments() {
                 try {
-                    return fetchComments(issue.getNumber());
+                    return fetchComments(issue);
                 }
                 catch (Exception e) {
                     LOG.warn("Error fetching comments for " + issue.getNumber(), e);
@@ -194,9 +283,11 @@ public class GithubRepository extends BaseRepositoryImpl {
         };
     }
 
-    private Comment[] fetchComments(final long id) throws Exception {
-        List<GithubIssueComment> result =
-            GithubApiUtil.getIssueComments(getAuthData(), getRepoAuthor(), getRepoName(), id);
+    private Comment[] fetchComments(@Nonnull GithubIssue issue) throws Exception {
+        List<GithubIssueComment> result = GithubRequestContext.action(
+            TRACE_ACTION,
+            () -> myCommentCache.getComments(getAuthData(), getRepoAuthor(), getRepoName(), issue)
+        );
 
         return ContainerUtil.map2Array(
             result,
@@ -221,7 +312,10 @@ public class GithubRepository extends BaseRepositoryImpl {
     @Nullable
     @Override
     public Task findTask(@Nonnull String id) throws Exception {
-        return createTask(GithubApiUtil.getIssue(getAuthData(), getRepoAuthor(), getRepoName(), id));
+        return createTask(GithubRequestContext.action(
+            TRACE_ACTION,
+            () -> GithubApiUtil.getIssue(getAuthData(), getRepoAuthor(), getRepoName(), id)
+        ));
     }
 
     @Nonnull
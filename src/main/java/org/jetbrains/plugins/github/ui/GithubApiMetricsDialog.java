@@ -0,0 +1,176 @@
+package org.jetbrains.plugins.github.ui;
+
+import consulo.project.Project;
+import consulo.ui.ex.awt.DialogWrapper;
+import consulo.ui.ex.awt.JBLabel;
+import consulo.ui.ex.awt.ScrollPaneFactory;
+import consulo.ui.ex.awt.table.JBTable;
+import consulo.util.lang.StringUtil;
+import org.jetbrains.plugins.github.api.GithubApiMetrics;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Shows {@link GithubApiMetrics} of the current session, refreshed while the dialog is open.
+ */
+public class GithubApiMetricsDialog extends DialogWrapper {
+    private static final int REFRESH_INTERVAL = 2000;
+
+    private final MetricsTableModel myModel = new MetricsTableModel();
+    private final JBLabel mySummary = new JBLabel();
+    private final Timer myRefreshTimer = new Timer(REFRESH_INTERVAL, e -> refresh());
+
+    public GithubApiMetricsDialog(@Nullable Project project) {
+        super(project, false);
+        setTitle("GitHub API Metrics");
+        setModal(false);
+        init();
+        refresh();
+        myRefreshTimer.start();
+    }
+
+    @Nullable
+    @Override
+    protected JComponent createCenterPanel() {
+        JBTable table = new JBTable(myModel);
+        table.setAutoCreateRowSorter(true);
+        table.getColumnModel().getColumn(0).setPreferredWidth(300);
+
+        JButton reset = new JButton("Reset");
+        reset.addActionListener(e -> {
+            GithubApiMetrics.getInstance().reset();
+            refresh();
+        });
+
+        JPanel header = new JPanel(new BorderLayout());
+        header.add(mySummary, BorderLayout.CENTER);
+        header.add(reset, BorderLayout.EAST);
+
+        JPanel panel = new JPanel(new BorderLayout(0, 5));
+        panel.add(header, BorderLayout.NORTH);
+        panel.add(ScrollPaneFactory.createScrollPane(table), BorderLayout.CENTER);
+        panel.setPreferredSize(new Dimension(1000, 400));
+        return panel;
+    }
+
+    @Nonnull
+    @Override
+    protected Action[] createActions() {
+        return new Action[]{getOKAction()};
+    }
+
+    @Override
+    protected String getDimensionServiceKey() {
+        return "Github.ApiMetricsDialog";
+    }
+
+    @Override
+    protected void dispose() {
+        myRefreshTimer.stop();
+        super.dispose();
+    }
+
+    private void refresh() {
+        GithubApiMetrics metrics = GithubApiMetrics.getInstance();
+        myModel.setEndpoints(metrics.getEndpoints());
+        double hitRatio = metrics.getCacheHitRatio();
+        mySummary.setText(
+            "Requests: " + metrics.getRequestCount() +
+                ", failed: " + metrics.getFailureCount() +
+                ", received: " + StringUtil.formatFileSize(metrics.getResponseBytes()) +
+                ", not modified: " + formatRatio(hitRatio)
+        );
+    }
+
+    @Nonnull
+    private static String formatRatio(double ratio) {
+        return ratio < 0 ? "-" : Math.round(ratio * 100) + "%";
+    }
+
+    @Nonnull
+    private static String formatLatency(@Nonnull GithubApiMetrics.LatencyStatistics latency) {
+        return latency.getCount() == 0 ? "-" : latency.getMedianMillis() + " / " + latency.getP95Millis();
+    }
+
+    private static class MetricsTableModel extends AbstractTableModel {
+        private static final String[] COLUMNS = {
+            "Endpoint",
+            "Requests",
+            "Failed",
+            "Status codes",
+            "Headers, ms (p50 / p95)",
+            "Body, ms (p50 / p95)",
+            "Decoding, ms (p50 / p95)",
+            "Received",
+            "Not modified",
+            "Rate limit left"
+        };
+
+        @Nonnull
+        private List<GithubApiMetrics.EndpointStatistics> myEndpoints = Collections.emptyList();
+
+        void setEndpoints(@Nonnull List<GithubApiMetrics.EndpointStatistics> endpoints) {
+            myEndpoints = endpoints;
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return myEndpoints.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return column == 1 || column == 2 ? Long.class : String.class;
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            GithubApiMetrics.EndpointStatistics endpoint = myEndpoints.get(row);
+            switch (column) {
+                case 0:
+                    return endpoint.getEndpoint();
+                case 1:
+                    return endpoint.getRequests();
+                case 2:
+                    return endpoint.getFailures();
+                case 3:
+                    return endpoint.getStatusCodes().entrySet().stream()
+                        .map((Map.Entry<String, Long> entry) -> entry.getKey() + ": " + entry.getValue())
+                        .collect(Collectors.joining(", "));
+                case 4:
+                    return formatLatency(endpoint.getTimeToFirstByte());
+                case 5:
+                    return formatLatency(endpoint.getBody());
+                case 6:
+                    return formatLatency(endpoint.getParse());
+                case 7:
+                    return StringUtil.formatFileSize(endpoint.getResponseBytes());
+                case 8:
+                    return formatRatio(endpoint.getCacheHitRatio());
+                case 9:
+                    return endpoint.getRateLimitRemaining() < 0 ? "-" : String.valueOf(endpoint.getRateLimitRemaining());
+                default:
+                    throw new IllegalArgumentException("Unknown column: " + column);
+            }
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package org.jetbrains.plugins.github.ui;
+
+import consulo.application.progress.ProgressIndicator;
+import consulo.application.progress.Task;
+import consulo.ui.annotation.RequiredUIAccess;
+import consulo.ui.ex.awt.IdeBorderFactory;
+import consulo.ui.ex.awt.JBLabel;
+import consulo.ui.ex.awt.ScrollPaneFactory;
+import consulo.ui.ex.awt.Splitter;
+import consulo.ui.ex.awt.table.JBTable;
+import consulo.util.lang.StringUtil;
+import org.jetbrains.plugins.github.api.GithubApiMetrics;
+import org.jetbrains.plugins.github.api.GithubApiUtil;
+import org.jetbrains.plugins.github.api.GithubRequestContext;
+import org.jetbrains.plugins.github.util.GithubAuthData;
+import org.jetbrains.plugins.github.util.GithubNotifications;
+import org.jetbrains.plugins.github.util.GithubUtil;
+
+import jakarta.annotation.Nonnull;
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Rate limits and request volume of every GitHub account used in this session, refreshed while the settings are open.
+ * Tells why background features (e.g. the issue updates of Tasks) have slowed down or paused.
+ */
+public class GithubApiUsagePanel {
+    private static final int REFRESH_INTERVAL = 2000;
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    @Nonnull
+    private final Supplier<GithubAuthData> myAuthData;
+    private final RateLimitsTableModel myRateLimits = new RateLimitsTableModel();
+    private final FeaturesTableModel myFeatures = new FeaturesTableModel();
+    private final JBLabel mySummary = new JBLabel();
+    private final JBLabel myPausedLabel = new JBLabel();
+    private final JPanel myPanel;
+    private final Timer myRefreshTimer = new Timer(REFRESH_INTERVAL, e -> refresh());
+
+    /**
+     * @param authData account whose rate limits are requested by the "Refresh Rate Limits" button
+     */
+    public GithubApiUsagePanel(@Nonnull Supplier<GithubAuthData> authData) {
+        myAuthData = authData;
+
+        JButton refreshRateLimits = new JButton("Refresh Rate Limits");
+        refreshRateLimits.addActionListener(e -> refreshRateLimits());
+        JButton reset = new JButton("Reset Statistics");
+        reset.addActionListener(e -> {
+            GithubApiMetrics.getInstance().reset();
+            refresh();
+        });
+
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
+        buttons.add(refreshRateLimits);
+        buttons.add(reset);
+
+        JPanel labels = new JPanel(new GridLayout(2, 1));
+        labels.add(mySummary);
+        labels.add(myPausedLabel);
+
+        JPanel header = new JPanel(new BorderLayout());
+        header.add(labels, BorderLayout.CENTER);
+        header.add(buttons, BorderLayout.EAST);
+
+        Splitter tables = new Splitter(true, 0.4f);
+        tables.setFirstComponent(ScrollPaneFactory.createScrollPane(createTable(myRateLimits)));
+        tables.setSecondComponent(ScrollPaneFactory.createScrollPane(createTable(myFeatures)));
+
+        myPanel = new JPanel(new BorderLayout(0, 5));
+        myPanel.setBorder(IdeBorderFactory.createTitledBorder("API Usage in This Session"));
+        myPanel.add(header, BorderLayout.NORTH);
+        myPanel.add(tables, BorderLayout.CENTER);
+        myPanel.setPreferredSize(new Dimension(800, 300));
+
+        refresh();
+        myRefreshTimer.start();
+    }
+
+    @Nonnull
+    public JComponent getPanel() {
+        return myPanel;
+    }
+
+    public void dispose() {
+        myRefreshTimer.stop();
+    }
+
+    @Nonnull
+    private static JBTable createTable(@Nonnull AbstractTableModel model) {
+        JBTable table = new JBTable(model);
+        table.setAutoCreateRowSorter(true);
+        return table;
+    }
+
+    private void refresh() {
+        GithubApiMetrics metrics = GithubApiMetrics.getInstance();
+        List<GithubApiMetrics.RateLimitStatistics> rateLimits = metrics.getRateLimits();
+        myRateLimits.setRows(rateLimits);
+        myFeatures.setRows(metrics.getFeatures());
+
+        mySummary.setText(
+            "Requests: " + metrics.getRequestCount() +
+                ", received: " + StringUtil.formatFileSize(metrics.getResponseBytes()) +
+                ", not modified: " + formatRatio(metrics.getCacheHitRatio()) +
+                ", saved by the cache: " + StringUtil.formatFileSize(metrics.getSavedBytes())
+        );
+
+        List<String> paused = new ArrayList<>();
+        for (GithubApiMetrics.RateLimitStatistics rateLimit : rateLimits) {
+            if (rateLimit.getState() != GithubApiMetrics.RateLimitState.NORMAL) {
+                paused.add(rateLimit.getHost() + " " + rateLimit.getResource() + " " + formatState(rateLimit).toLowerCase());
+            }
+        }
+        myPausedLabel.setText(paused.isEmpty() ? "Background requests are not limited" : "Background requests: " + StringUtil.join(paused, "; "));
+    }
+
+    @RequiredUIAccess
+    private void refreshRateLimits() {
+        GithubAuthData auth = myAuthData.get();
+        new Task.Backgroundable(null, "Refreshing GitHub rate limits...") {
+            private IOException myError;
+
+            @Override
+            public void run(@Nonnull ProgressIndicator indicator) {
+                try {
+                    GithubRequestContext.action("Settings", () -> {
+                        GithubApiUtil.refreshRateLimits(auth);
+                        return null;
+                    });
+                }
+                catch (IOException e) {
+                    myError = e;
+                }
+            }
+
+            @RequiredUIAccess
+            @Override
+            public void onSuccess() {
+                if (myError != null) {
+                    GithubNotifications.showErrorDialog(myPanel, "Can't Refresh Rate Limits", GithubUtil.getErrorTextFromException(myError));
+                }
+                refresh();
+            }
+        }.queue();
+    }
+
+    @Nonnull
+    private static String formatRatio(double ratio) {
+        return ratio < 0 ? "-" : Math.round(ratio * 100) + "%";
+    }
+
+    @Nonnull
+    private static String formatTime(long millis) {
+        return millis <= 0 ? "-" : TIME_FORMAT.format(Instant.ofEpochMilli(millis));
+    }
+
+    @Nonnull
+    private static String formatState(@Nonnull GithubApiMetrics.RateLimitStatistics rateLimit) {
+        String until = formatTime(rateLimit.getStateUntil());
+        switch (rateLimit.getState()) {
+            case NORMAL:
+                return "Running";
+            case PACED:
+                return "Slowed down until " + until + ", the limit is running low";
+            case DEFERRED:
+                return "Paused until " + until + ", the rest of the limit is kept for interactive requests";
+            case EXHAUSTED:
+                return "Paused until " + until + ", the limit is used up";
+            case BLOCKED:
+                return "Paused until " + until + ", the server refused requests";
+            default:
+                throw new IllegalArgumentException("Unknown state: " + rateLimit.getState());
+        }
+    }
+
+    private abstract static class RowsTableModel<T> extends AbstractTableModel {
+        @Nonnull
+        private final String[] myColumns;
+        @Nonnull
+        private List<T> myRows = Collections.emptyList();
+
+        RowsTableModel(@Nonnull String... columns) {
+            myColumns = columns;
+        }
+
+        void setRows(@Nonnull List<T> rows) {
+            myRows = rows;
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return myRows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return myColumns.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return myColumns[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            return getValueAt(myRows.get(row), column);
+        }
+
+        protected abstract Object getValueAt(@Nonnull T row, int column);
+    }
+
+    private static class RateLimitsTableModel extends RowsTableModel<GithubApiMetrics.RateLimitStatistics> {
+        RateLimitsTableModel() {
+            super("Host", "Account", "Resource", "Remaining", "Resets at", "Background requests");
+        }
+
+        @Override
+        protected Object getValueAt(@Nonnull GithubApiMetrics.RateLimitStatistics rateLimit, int column) {
+            switch (column) {
+                case 0:
+                    return rateLimit.getHost();
+                case 1:
+                    return rateLimit.getAccount();
+                case 2:
+                    return rateLimit.getResource();
+                case 3:
+                    return rateLimit.getRemaining() < 0 ? "-" : rateLimit.getRemaining() + " / " + rateLimit.getLimit();
+                case 4:
+                    return formatTime(rateLimit.getResetTime());
+                case 5:
+                    return formatState(rateLimit);
+                default:
+                    throw new IllegalArgumentException("Unknown column: " + column);
+            }
+        }
+    }
+
+    private static class FeaturesTableModel extends RowsTableModel<GithubApiMetrics.FeatureStatistics> {
+        FeaturesTableModel() {
+            super("Host", "Account", "Feature", "Requests", "Failed", "Received", "Not modified", "Saved");
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return column == 3 || column == 4 ? Long.class : String.class;
+        }
+
+        @Override
+        protected Object getValueAt(@Nonnull GithubApiMetrics.FeatureStatistics feature, int column) {
+            switch (column) {
+                case 0:
+                    return feature.getHost();
+                case 1:
+                    return feature.getAccount();
+                case 2:
+                    return feature.getFeature();
+                case 3:
+                    return feature.getRequests();
+                case 4:
+                    return feature.getFailures();
+                case 5:
+                    return StringUtil.formatFileSize(feature.getResponseBytes());
+                case 6:
+                    return formatRatio(feature.getCacheHitRatio());
+                case 7:
+                    return StringUtil.formatFileSize(feature.getSavedBytes());
+                default:
+                    throw new IllegalArgumentException("Unknown column: " + column);
+            }
+        }
+    }
+}
@@ -14,6 +14,7 @@ import org.jetbrains.plugins.github.util.GithubSettings;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import javax.swing.*;
+import java.awt.*;
 
 /**
  * @author oleg
@@ -21,6 +22,9 @@ import javax.swing.*;
 @ExtensionImpl
 public class GithubSettingsConfigurable implements SearchableConfigurable, VcsConfigurableProvider {
     private GithubSettingsPanel mySettingsPane;
+    private GithubApiUsagePanel myUsagePane;
+    private JCheckBox myUseJdkHttpClient;
+    private JComponent myComponent;
     private final GithubSettings mySettings;
 
     @Inject
@@ -46,14 +50,30 @@ public class GithubSettingsConfigurable implements SearchableConfigurable, VcsCo
     public JComponent createComponent() {
         if (mySettingsPane == null) {
             mySettingsPane = new GithubSettingsPanel(mySettings);
+            myUsagePane = new GithubApiUsagePanel(mySettingsPane::getAuthData);
+            myUseJdkHttpClient = new JCheckBox("Use HTTP/2 for GitHub API requests");
+            myUseJdkHttpClient.setToolTipText(
+                "Concurrent requests share one connection. Requests through a proxy with authentication keep using HTTP/1.1."
+            );
+            myUseJdkHttpClient.setSelected(mySettings.isUseJdkHttpClient());
+
+            JPanel settings = new JPanel(new BorderLayout(0, 5));
+            settings.add(mySettingsPane.getPanel(), BorderLayout.CENTER);
+            settings.add(myUseJdkHttpClient, BorderLayout.SOUTH);
+
+            JPanel panel = new JPanel(new BorderLayout(0, 10));
+            panel.add(settings, BorderLayout.NORTH);
+            panel.add(myUsagePane.getPanel(), BorderLayout.CENTER);
+            myComponent = panel;
         }
-        return mySettingsPane.getPanel();
+        return myComponent;
     }
 
     @Override
     @RequiredUIAccess
     public boolean isModified() {
-        return mySettingsPane != null && mySettingsPane.isModified();
+        return mySettingsPane != null
+            && (mySettingsPane.isModified() || myUseJdkHttpClient.isSelected() != mySettings.isUseJdkHttpClient());
     }
 
     @Override
@@ -62,6 +82,7 @@ public class GithubSettingsConfigurable implements SearchableConfigurable, VcsCo
         if (mySettingsPane != null) {
             mySettings.setCredentials(mySettingsPane.getHost(), mySettingsPane.getAuthData(), true);
             mySettingsPane.resetCredentialsModification();
+            mySettings.setUseJdkHttpClient(myUseJdkHttpClient.isSelected());
         }
     }
 
@@ -70,13 +91,20 @@ public class GithubSettingsConfigurable implements SearchableConfigurable, VcsCo
     public void reset() {
         if (mySettingsPane != null) {
             mySettingsPane.reset();
+            myUseJdkHttpClient.setSelected(mySettings.isUseJdkHttpClient());
         }
     }
 
     @Override
     @RequiredUIAccess
     public void disposeUIResources() {
+        if (myUsagePane != null) {
+            myUsagePane.dispose();
+        }
         mySettingsPane = null;
+        myUsagePane = null;
+        myUseJdkHttpClient = null;
+        myComponent = null;
     }
 
     @Override
@@ -79,7 +79,9 @@ public class GithubSettings implements PersistentStateComponent<GithubSettings.S
         @Nullable
         public String CREATE_PULL_REQUEST_DEFAULT_BRANCH = null;
         public boolean VALID_GIT_AUTH = true;
-
+        public int MAX_CONNECTIONS_PER_HOST = 8;
+        public long IDLE_CONNECTION_TIMEOUT = 60000;
+        public boolean USE_JDK_HTTP_CLIENT = false;
     }
 
     public static GithubSettings getInstance() {
@@ -133,6 +135,26 @@ public class GithubSettings implements PersistentStateComponent<GithubSettings.S
         return myState.VALID_GIT_AUTH;
     }
 
+    public int getMaxConnectionsPerHost() {
+        return myState.MAX_CONNECTIONS_PER_HOST;
+    }
+
+    public long getIdleConnectionTimeout() {
+        return myState.IDLE_CONNECTION_TIMEOUT;
+    }
+
+    /**
+     * @return true if requests go through the JDK HTTP client (HTTP/2) instead of commons-httpclient,
+     * except HTTPS requests through a proxy with authentication
+     */
+    public boolean isUseJdkHttpClient() {
+        return myState.USE_JDK_HTTP_CLIENT;
+    }
+
+    public void setUseJdkHttpClient(boolean useJdkHttpClient) {
+        myState.USE_JDK_HTTP_CLIENT = useJdkHttpClient;
+    }
+
     public boolean isSavePassword() {
         return myState.SAVE_PASSWORD;
     }
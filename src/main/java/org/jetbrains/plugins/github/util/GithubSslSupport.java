@@ -35,6 +35,8 @@ import org.apache.commons.httpclient.protocol.ProtocolSocketFactory;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Provides various methods to work with SSL certificate protected HTTPS connections.
@@ -49,12 +51,20 @@ public class GithubSslSupport {
         return ServiceManager.getService(GithubSslSupport.class);
     }
 
+    /**
+     * Protocols accepting self-signed certificates, by trusted host and port. Every protocol keeps its own
+     * {@link javax.net.ssl.SSLContext}, so TLS sessions are resumed instead of negotiated for every connection.
+     */
+    private final Map<String, Protocol> myTrustedProtocols = new ConcurrentHashMap<>();
+
     /**
      * Tries to execute the {@link HttpMethod} and captures the {@link sun.security.validator.ValidatorException exception} which is thrown if
      * user connects
      * to an HTTPS server with a non-trusted (probably, self-signed) SSL certificate. In which case proposes to cancel
      * the connection
      * or to proceed without certificate check.
+     * <p/>
+     * Requests to hosts the user already trusts skip the certificate check right away.
      *
      * @param methodCreator a function to create the HttpMethod. This is required instead of just {@link HttpMethod}
      *                      instance, because the
@@ -69,6 +79,12 @@ public class GithubSslSupport {
         @Nonnull String uri,
         @Nonnull ThrowableFunction<String, HttpMethod, IOException> methodCreator
     ) throws IOException {
+        URI parsedUri = new URI(uri, false);
+        String host = parsedUri.getHost();
+        if (host != null && "https".equalsIgnoreCase(parsedUri.getScheme()) && isTrusted(host)) {
+            return executeTrusted(client, host, parsedUri, methodCreator);
+        }
+
         HttpMethod method = methodCreator.apply(uri);
         try {
             client.executeMethod(method);
@@ -84,7 +100,7 @@ public class GithubSslSupport {
     }
 
     @Nullable
-    private static HttpMethod handleCertificateExceptionAndRetry(
+    private HttpMethod handleCertificateExceptionAndRetry(
         @Nonnull IOException e,
         @Nonnull String host,
         @Nonnull HttpClient client,
@@ -96,28 +112,48 @@ public class GithubSslSupport {
         }
 
         if (isTrusted(host)) {
-            // creating a special configuration that allows connections to non-trusted HTTPS hosts
-            // see the javadoc to EasySSLProtocolSocketFactory for details
-            Protocol easyHttps = new Protocol("https", (ProtocolSocketFactory)new EasySSLProtocolSocketFactory(), 443);
-            HostConfiguration hc = new HostConfiguration();
-            hc.setHost(host, 443, easyHttps);
-            String relativeUri = new URI(uri.getPathQuery(), false).getURI();
-            // it is important to use relative URI here, otherwise our custom protocol won't work.
-            // we have to recreate the method, because HttpMethod#setUri won't overwrite the host,
-            // and changing host by hands (HttpMethodBase#setHostConfiguration) is deprecated.
-            HttpMethod method = methodCreator.apply(relativeUri);
-            client.executeMethod(hc, method);
-            return method;
+            return executeTrusted(client, host, uri, methodCreator);
         }
         throw e;
     }
 
+    @Nonnull
+    private HttpMethod executeTrusted(
+        @Nonnull HttpClient client,
+        @Nonnull String host,
+        @Nonnull URI uri,
+        @Nonnull ThrowableFunction<String, HttpMethod, IOException> methodCreator
+    ) throws IOException {
+        // a special configuration that allows connections to non-trusted HTTPS hosts
+        // see the javadoc to EasySSLProtocolSocketFactory for details
+        int port = uri.getPort() > 0 ? uri.getPort() : 443;
+        Protocol easyHttps = myTrustedProtocols.computeIfAbsent(
+            host + ":" + port,
+            key -> new Protocol("https", (ProtocolSocketFactory)new EasySSLProtocolSocketFactory(), port)
+        );
+        // the client configuration carries the proxy settings
+        HostConfiguration hc = new HostConfiguration(client.getHostConfiguration());
+        hc.setHost(host, port, easyHttps);
+        String relativeUri = new URI(uri.getPathQuery(), false).getURI();
+        // it is important to use relative URI here, otherwise our custom protocol won't work.
+        // we have to recreate the method, because HttpMethod#setUri won't overwrite the host,
+        // and changing host by hands (HttpMethodBase#setHostConfiguration) is deprecated.
+        HttpMethod method = methodCreator.apply(relativeUri);
+        client.executeMethod(hc, method);
+        return method;
+    }
+
     public static boolean isCertificateException(IOException e) {
-        Throwable cause = e.getCause();
-        return cause != null && "sun.security.validator.ValidatorException".equals(cause.getClass().getName());
+        // the JDK HttpClient wraps the handshake failure once more
+        for (Throwable cause = e.getCause(); cause != null && cause != cause.getCause(); cause = cause.getCause()) {
+            if ("sun.security.validator.ValidatorException".equals(cause.getClass().getName())) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private static boolean isTrusted(@Nonnull String host) {
+    public static boolean isTrusted(@Nonnull String host) {
         return GithubSettings.getInstance().getTrustedHosts().contains(host);
     }
 
@@ -0,0 +1,118 @@
+package org.jetbrains.plugins.github.api;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import jakarta.annotation.Nonnull;
+import org.jetbrains.plugins.github.performance.GithubFixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Throughput of decoding API responses into the plugin model. Run with the gc profiler to see the allocation rate:
+ * <pre>mvn -Pperformance test-compile exec:exec -Djmh.args="GithubDecodingBenchmark -prof gc"</pre>
+ * <p/>
+ * {@link #streaming} is the decoder {@link GithubApiUtil} uses, the others are alternatives to compare it against:
+ * {@link #tree} builds the whole json tree first, {@link #binding} binds the complete response at once.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Benchmark)
+public class GithubDecodingBenchmark {
+    public enum Fixture {
+        // a page of /user/repos
+        REPOS(() -> GithubFixtures.repos("octocat", 0, 100), GithubRepoRaw.class, GithubRepo.class, true),
+        // a page of /repos/{owner}/{repo}/issues, bodies of a few kilobytes
+        ISSUES(() -> GithubFixtures.issues("octocat", "hello-world", 1, 100, 4000), GithubIssueRaw.class, GithubIssue.class, true),
+        // /repos/{owner}/{repo}/pulls/{number}/files of a large pull request
+        PULL_REQUEST_FILES(() -> GithubFixtures.pullRequestFiles("octocat", "hello-world", 100, 200), GithubFileRaw.class, GithubFile.class, true),
+        // /repos/{owner}/{repo}/commits/{sha}
+        COMMIT(() -> GithubFixtures.commit("octocat", "hello-world", 1, 50, 100), GithubCommitRaw.class, GithubCommitDetailed.class, false);
+
+        @Nonnull
+        private final Supplier<byte[]> myBody;
+        @Nonnull
+        private final Class<? extends DataConstructor> myRawClass;
+        @Nonnull
+        private final Class<?> myResultClass;
+        private final boolean myArray;
+
+        Fixture(
+            @Nonnull Supplier<byte[]> body,
+            @Nonnull Class<? extends DataConstructor> rawClass,
+            @Nonnull Class<?> resultClass,
+            boolean array
+        ) {
+            myBody = body;
+            myRawClass = rawClass;
+            myResultClass = resultClass;
+            myArray = array;
+        }
+    }
+
+    @Param
+    public Fixture fixture;
+
+    private byte[] myBody;
+
+    @Setup
+    public void setUp() {
+        myBody = fixture.myBody.get();
+    }
+
+    @Benchmark
+    public Object streaming() throws IOException {
+        ByteArrayInputStream body = new ByteArrayInputStream(myBody);
+        return fixture.myArray
+            ? GithubApiUtil.decodeArray(body, fixture.myRawClass, fixture.myResultClass)
+            : GithubApiUtil.decodeObject(body, fixture.myRawClass, fixture.myResultClass);
+    }
+
+    @Benchmark
+    public Object tree() throws IOException {
+        try (Reader reader = createReader()) {
+            JsonElement json = JsonParser.parseReader(reader);
+            if (!fixture.myArray) {
+                return GithubApiUtil.createDataFromRaw(GithubApiUtil.getGson().fromJson(json, fixture.myRawClass), fixture.myResultClass);
+            }
+            List<Object> result = new ArrayList<>();
+            for (JsonElement element : json.getAsJsonArray()) {
+                result.add(GithubApiUtil.createDataFromRaw(GithubApiUtil.getGson().fromJson(element, fixture.myRawClass), fixture.myResultClass));
+            }
+            return result;
+        }
+    }
+
+    @Benchmark
+    public Object binding() throws IOException {
+        try (Reader reader = createReader()) {
+            if (!fixture.myArray) {
+                return GithubApiUtil.createDataFromRaw(GithubApiUtil.getGson().fromJson(reader, fixture.myRawClass), fixture.myResultClass);
+            }
+            Class<?> arrayClass = Array.newInstance(fixture.myRawClass, 0).getClass();
+            DataConstructor[] raw = (DataConstructor[])GithubApiUtil.getGson().fromJson(reader, arrayClass);
+            List<Object> result = new ArrayList<>(raw.length);
+            for (DataConstructor element : raw) {
+                result.add(GithubApiUtil.createDataFromRaw(element, fixture.myResultClass));
+            }
+            return result;
+        }
+    }
+
+    @Nonnull
+    private Reader createReader() {
+        return new InputStreamReader(new ByteArrayInputStream(myBody), StandardCharsets.UTF_8);
+    }
+}
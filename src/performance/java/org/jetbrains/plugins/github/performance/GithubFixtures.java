@@ -0,0 +1,824 @@
+package org.jetbrains.plugins.github.performance;
+
+import com.google.gson.stream.JsonWriter;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates GitHub API v3 responses of realistic shape and size: every object has the full set of fields GitHub sends,
+ * most of which the plugin skips, with text of realistic length.
+ * <p/>
+ * The data is deterministic: an item only depends on its index, so any page of a large collection can be generated
+ * on its own, and results are comparable between runs.
+ */
+public final class GithubFixtures {
+    public static final String API_URL = "https://api.github.com";
+    public static final String WEB_URL = "https://github.com";
+
+    private static final String[] WORDS = {
+        "repository", "branch", "commit", "merge", "request", "issue", "fix", "update", "module", "api", "cache",
+        "parser", "thread", "pool", "connection", "timeout", "null", "pointer", "exception", "test", "build", "release",
+        "version", "plugin", "settings", "dialog", "action", "editor", "project", "index", "search", "query", "page",
+        "response", "header", "token", "user", "organization", "fork", "remote", "push", "pull", "rebase", "conflict"
+    };
+    private static final String[] LANGUAGES = {"Java", "Kotlin", "Python", "Go", "JavaScript", "TypeScript", "C++", "Rust"};
+    private static final String[] FILE_STATUSES = {"modified", "added", "removed", "renamed"};
+    private static final Instant EPOCH = Instant.parse("2015-01-01T00:00:00Z");
+
+    private GithubFixtures() {
+    }
+
+    /**
+     * @return json array of {@code count} repositories of the owner, starting with the one at {@code from}
+     */
+    @Nonnull
+    public static byte[] repos(@Nonnull String owner, int from, int count) {
+        return write(writer -> {
+            writer.beginArray();
+            for (int i = from; i < from + count; i++) {
+                writeRepo(writer, owner, i);
+            }
+            writer.endArray();
+        });
+    }
+
+    /**
+     * @return json array of {@code count} issues of the repository, starting with the one numbered {@code from}
+     */
+    @Nonnull
+    public static byte[] issues(@Nonnull String owner, @Nonnull String repo, int from, int count, int bodyLength) {
+        return write(writer -> {
+            writer.beginArray();
+            for (int number = from; number < from + count; number++) {
+                writeIssue(writer, owner, repo, number, bodyLength);
+            }
+            writer.endArray();
+        });
+    }
+
+    /**
+     * @return json array of pull request files with patches of {@code patchLines} lines each
+     */
+    @Nonnull
+    public static byte[] pullRequestFiles(@Nonnull String owner, @Nonnull String repo, int count, int patchLines) {
+        return write(writer -> {
+            writer.beginArray();
+            for (int i = 0; i < count; i++) {
+                writeFile(writer, owner, repo, i, patchLines);
+            }
+            writer.endArray();
+        });
+    }
+
+    /**
+     * @return json object of a commit with its files and patches
+     */
+    @Nonnull
+    public static byte[] commit(@Nonnull String owner, @Nonnull String repo, int index, int files, int patchLines) {
+        return write(writer -> writeCommit(writer, owner, repo, index, files, patchLines));
+    }
+
+    @Nonnull
+    public static String login(int index) {
+        return "user" + index;
+    }
+
+    @Nonnull
+    public static String repoName(int index) {
+        return word(index) + "-" + word(index / WORDS.length + 7) + "-" + index;
+    }
+
+    @Nonnull
+    public static String sha(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        StringBuilder sha = new StringBuilder(40);
+        for (int i = 0; i < 40; i++) {
+            sha.append(Character.forDigit(random.nextInt(16), 16));
+        }
+        return sha.toString();
+    }
+
+    @Nonnull
+    public static String date(long seed) {
+        return DateTimeFormatter.ISO_INSTANT.format(EPOCH.plus(seed % (3000L * 24 * 60), ChronoUnit.MINUTES));
+    }
+
+    @Nonnull
+    public static String formatTime(long millis) {
+        return DateTimeFormatter.ISO_INSTANT.format(Instant.ofEpochMilli(millis));
+    }
+
+    public static void writeUser(@Nonnull JsonWriter writer, int index) throws IOException {
+        writeUser(writer, login(index), 1000 + index);
+    }
+
+    public static void writeUser(@Nonnull JsonWriter writer, @Nonnull String login, long id) throws IOException {
+        String url = API_URL + "/users/" + login;
+        writer.beginObject();
+        writer.name("login").value(login);
+        writer.name("id").value(id);
+        writer.name("node_id").value("MDQ6VXNlcj" + id);
+        writer.name("avatar_url").value("https://avatars.githubusercontent.com/u/" + id + "?v=4");
+        writer.name("gravatar_id").value("");
+        writer.name("url").value(url);
+        writer.name("html_url").value(WEB_URL + "/" + login);
+        writer.name("followers_url").value(url + "/followers");
+        writer.name("following_url").value(url + "/following{/other_user}");
+        writer.name("gists_url").value(url + "/gists{/gist_id}");
+        writer.name("starred_url").value(url + "/starred{/owner}{/repo}");
+        writer.name("subscriptions_url").value(url + "/subscriptions");
+        writer.name("organizations_url").value(url + "/orgs");
+        writer.name("repos_url").value(url + "/repos");
+        writer.name("events_url").value(url + "/events{/privacy}");
+        writer.name("received_events_url").value(url + "/received_events");
+        writer.name("type").value("User");
+        writer.name("site_admin").value(false);
+        writer.endObject();
+    }
+
+    public static void writeRepo(@Nonnull JsonWriter writer, @Nonnull String owner, int index) throws IOException {
+        writeRepo(writer, owner, repoName(index), index);
+    }
+
+    public static void writeRepo(@Nonnull JsonWriter writer, @Nonnull String owner, @Nonnull String name, int index) throws IOException {
+        writer.beginObject();
+        writeRepoFields(writer, owner, name, index);
+        writer.endObject();
+    }
+
+    /**
+     * Repository as returned by {@code /repos/{owner}/{repo}}: forks have their parent and source.
+     */
+    public static void writeRepoDetailed(@Nonnull JsonWriter writer, @Nonnull String owner, @Nonnull String name, int index)
+        throws IOException {
+        writer.beginObject();
+        writeRepoFields(writer, owner, name, index);
+        if (isFork(index)) {
+            writer.name("parent");
+            writeRepo(writer, getUpstreamOwner(index), name, index);
+            writer.name("source");
+            writeRepo(writer, getUpstreamOwner(index), name, index);
+        }
+        writer.name("network_count").value(index % 1000);
+        writer.name("subscribers_count").value(index % 300);
+        writer.endObject();
+    }
+
+    public static boolean isFork(int repoIndex) {
+        return repoIndex % 7 == 0;
+    }
+
+    @Nonnull
+    public static String getUpstreamOwner(int repoIndex) {
+        return login(100 + repoIndex % 50);
+    }
+
+    private static void writeRepoFields(@Nonnull JsonWriter writer, @Nonnull String owner, @Nonnull String name, int index)
+        throws IOException {
+        SplittableRandom random = new SplittableRandom(index);
+        String fullName = owner + "/" + name;
+        String url = API_URL + "/repos/" + fullName;
+        writer.name("id").value(100000 + index);
+        writer.name("node_id").value("MDEwOlJlcG9zaXRvcnk" + index);
+        writer.name("name").value(name);
+        writer.name("full_name").value(fullName);
+        writer.name("private").value(index % 5 == 0);
+        writer.name("owner");
+        writeUser(writer, owner, owner.hashCode() & 0xffffff);
+        writer.name("html_url").value(WEB_URL + "/" + fullName);
+        writer.name("description").value(sentence(random, 8 + random.nextInt(20)));
+        writer.name("fork").value(isFork(index));
+        writer.name("url").value(url);
+        for (String collection : new String[]{
+            "forks", "keys", "collaborators", "teams", "hooks", "issue_events", "events", "assignees", "branches", "tags",
+            "blobs", "git_tags", "git_refs", "trees", "statuses", "languages", "stargazers", "contributors", "subscribers",
+            "subscription", "commits", "git_commits", "comments", "issue_comment", "contents", "compare", "merges",
+            "archive", "downloads", "issues", "pulls", "milestones", "notifications", "labels", "releases", "deployments"
+        }) {
+            writer.name(collection + "_url").value(url + "/" + collection.replace('_', '/') + "{/id}");
+        }
+        writer.name("created_at").value(date(random.nextLong(1L << 40)));
+        writer.name("updated_at").value(date(random.nextLong(1L << 40)));
+        writer.name("pushed_at").value(date(random.nextLong(1L << 40)));
+        writer.name("git_url").value("git://github.com/" + fullName + ".git");
+        writer.name("ssh_url").value("git@github.com:" + fullName + ".git");
+        writer.name("clone_url").value(WEB_URL + "/" + fullName + ".git");
+        writer.name("svn_url").value(WEB_URL + "/" + fullName);
+        writer.name("homepage").nullValue();
+        writer.name("size").value(random.nextInt(500000));
+        writer.name("stargazers_count").value(random.nextInt(5000));
+        writer.name("watchers_count").value(random.nextInt(5000));
+        writer.name("language").value(LANGUAGES[random.nextInt(LANGUAGES.length)]);
+        writer.name("has_issues").value(true);
+        writer.name("has_projects").value(true);
+        writer.name("has_downloads").value(true);
+        writer.name("has_wiki").value(index % 2 == 0);
+        writer.name("has_pages").value(false);
+        writer.name("has_discussions").value(false);
+        writer.name("forks_count").value(random.nextInt(1000));
+        writer.name("mirror_url").nullValue();
+        writer.name("archived").value(false);
+        writer.name("disabled").value(false);
+        writer.name("open_issues_count").value(random.nextInt(300));
+        writer.name("license");
+        writer.beginObject();
+        writer.name("key").value("apache-2.0");
+        writer.name("name").value("Apache License 2.0");
+        writer.name("spdx_id").value("Apache-2.0");
+        writer.name("url").value(API_URL + "/licenses/apache-2.0");
+        writer.name("node_id").value("MDc6TGljZW5zZTI=");
+        writer.endObject();
+        writer.name("allow_forking").value(true);
+        writer.name("is_template").value(false);
+        writer.name("web_commit_signoff_required").value(false);
+        writer.name("topics");
+        writer.beginArray();
+        int topics = random.nextInt(6);
+        for (int i = 0; i < topics; i++) {
+            writer.value(word(random.nextInt(WORDS.length)));
+        }
+        writer.endArray();
+        writer.name("visibility").value(index % 5 == 0 ? "private" : "public");
+        writer.name("forks").value(random.nextInt(1000));
+        writer.name("open_issues").value(random.nextInt(300));
+        writer.name("watchers").value(random.nextInt(5000));
+        writer.name("default_branch").value(index % 3 == 0 ? "master" : "main");
+        writer.name("permissions");
+        writer.beginObject();
+        writer.name("admin").value(index % 4 == 0);
+        writer.name("maintain").value(index % 4 == 0);
+        writer.name("push").value(true);
+        writer.name("triage").value(true);
+        writer.name("pull").value(true);
+        writer.endObject();
+    }
+
+    /**
+     * User as returned by {@code /user}, with the private counters and the plan.
+     */
+    public static void writeUserDetailed(@Nonnull JsonWriter writer, @Nonnull String login, int ownedRepos) throws IOException {
+        long id = login.hashCode() & 0xffffff;
+        writer.beginObject();
+        writer.name("login").value(login);
+        writer.name("id").value(id);
+        writer.name("avatar_url").value("https://avatars.githubusercontent.com/u/" + id + "?v=4");
+        writer.name("gravatar_id").value("");
+        writer.name("url").value(API_URL + "/users/" + login);
+        writer.name("html_url").value(WEB_URL + "/" + login);
+        writer.name("type").value("User");
+        writer.name("site_admin").value(false);
+        writer.name("name").value(capitalize(login));
+        writer.name("company").value("Example");
+        writer.name("blog").value("");
+        writer.name("location").nullValue();
+        writer.name("email").value(login + "@example.com");
+        writer.name("hireable").nullValue();
+        writer.name("bio").nullValue();
+        writer.name("public_repos").value(ownedRepos - ownedRepos / 5);
+        writer.name("public_gists").value(3);
+        writer.name("followers").value(12);
+        writer.name("following").value(4);
+        writer.name("created_at").value(date(id));
+        writer.name("updated_at").value(date(id * 7));
+        writer.name("private_gists").value(1);
+        writer.name("total_private_repos").value(ownedRepos / 5);
+        writer.name("owned_private_repos").value(ownedRepos / 5);
+        writer.name("disk_usage").value(ownedRepos * 1000L);
+        writer.name("collaborators").value(0);
+        writer.name("two_factor_authentication").value(true);
+        writer.name("plan");
+        writer.beginObject();
+        writer.name("name").value("pro");
+        writer.name("space").value(976562499);
+        writer.name("collaborators").value(0);
+        writer.name("private_repos").value(9999);
+        writer.endObject();
+        writer.endObject();
+    }
+
+    public static void writeOrg(@Nonnull JsonWriter writer, @Nonnull String login) throws IOException {
+        String url = API_URL + "/orgs/" + login;
+        writer.beginObject();
+        writer.name("login").value(login);
+        writer.name("id").value(login.hashCode() & 0xffffff);
+        writer.name("url").value(url);
+        writer.name("repos_url").value(url + "/repos");
+        writer.name("events_url").value(url + "/events");
+        writer.name("hooks_url").value(url + "/hooks");
+        writer.name("issues_url").value(url + "/issues");
+        writer.name("members_url").value(url + "/members{/member}");
+        writer.name("public_members_url").value(url + "/public_members{/member}");
+        writer.name("avatar_url").value("https://avatars.githubusercontent.com/u/" + (login.hashCode() & 0xffffff) + "?v=4");
+        writer.name("description").value("Organization " + login);
+        writer.endObject();
+    }
+
+    /**
+     * @param index 0 is the default branch, the others are feature branches
+     */
+    public static void writeBranch(@Nonnull JsonWriter writer, @Nonnull String owner, @Nonnull String repo, int index) throws IOException {
+        String sha = sha(index * 13L + repo.hashCode());
+        writer.beginObject();
+        writer.name("name").value(getBranchName(index));
+        writer.name("commit");
+        writer.beginObject();
+        writer.name("sha").value(sha);
+        writer.name("url").value(API_URL + "/repos/" + owner + "/" + repo + "/commits/" + sha);
+        writer.endObject();
+        writer.name("protected").value(index == 0);
+        writer.endObject();
+    }
+
+    @Nonnull
+    public static String getBranchName(int index) {
+        return index == 0 ? "master" : "feature/" + word(index) + "-" + index;
+    }
+
+    /**
+     * Comment as returned with the {@code html} media type: both the markdown and the rendered body.
+     */
+    public static void writeComment(
+        @Nonnull JsonWriter writer,
+        @Nonnull String owner,
+        @Nonnull String repo,
+        int issue,
+        int index
+    ) throws IOException {
+        SplittableRandom random = new SplittableRandom(issue * 1009L + index);
+        long id = 9000000L + issue * 100L + index;
+        String body = paragraphs(random, 200 + random.nextInt(1500));
+        long created = getIssueCreatedAt(issue) + TimeUnit.HOURS.toMillis(index + 1);
+        writer.beginObject();
+        writer.name("url").value(API_URL + "/repos/" + owner + "/" + repo + "/issues/comments/" + id);
+        writer.name("html_url").value(WEB_URL + "/" + owner + "/" + repo + "/issues/" + issue + "#issuecomment-" + id);
+        writer.name("issue_url").value(API_URL + "/repos/" + owner + "/" + repo + "/issues/" + issue);
+        writer.name("id").value(id);
+        writer.name("node_id").value("MDEyOklzc3VlQ29tbWVudA" + id);
+        writer.name("user");
+        writeUser(writer, random.nextInt(500));
+        writer.name("created_at").value(formatTime(created));
+        writer.name("updated_at").value(formatTime(created));
+        writer.name("author_association").value("CONTRIBUTOR");
+        writer.name("body").value(body);
+        writer.name("body_html").value(html(body));
+        writer.endObject();
+    }
+
+    public static void writePullRequest(
+        @Nonnull JsonWriter writer,
+        @Nonnull String owner,
+        @Nonnull String repo,
+        int repoIndex,
+        int number,
+        int bodyLength
+    ) throws IOException {
+        SplittableRandom random = new SplittableRandom(number * 61L + repo.hashCode());
+        String url = API_URL + "/repos/" + owner + "/" + repo + "/pulls/" + number;
+        String htmlUrl = WEB_URL + "/" + owner + "/" + repo + "/pull/" + number;
+        String body = paragraphs(random, bodyLength);
+        String author = login(random.nextInt(500));
+        boolean closed = isIssueClosed(number);
+        writer.beginObject();
+        writer.name("url").value(url);
+        writer.name("id").value(7000000L + number);
+        writer.name("html_url").value(htmlUrl);
+        writer.name("diff_url").value(htmlUrl + ".diff");
+        writer.name("patch_url").value(htmlUrl + ".patch");
+        writer.name("issue_url").value(API_URL + "/repos/" + owner + "/" + repo + "/issues/" + number);
+        writer.name("number").value(number);
+        writer.name("state").value(closed ? "closed" : "open");
+        writer.name("locked").value(false);
+        writer.name("title").value(getIssueTitle(number));
+        writer.name("user");
+        writeUser(writer, author, 1000 + number % 500);
+        writer.name("body").value(body);
+        writer.name("body_html").value(html(body));
+        writer.name("created_at").value(formatTime(getIssueCreatedAt(number)));
+        writer.name("updated_at").value(formatTime(getIssueUpdatedAt(number)));
+        writer.name("closed_at").value(closed ? formatTime(getIssueUpdatedAt(number)) : null);
+        writer.name("merged_at").value(closed && number % 8 == 0 ? formatTime(getIssueUpdatedAt(number)) : null);
+        writer.name("merge_commit_sha").value(sha(number));
+        writer.name("draft").value(false);
+        writer.name("head");
+        writeLink(writer, author, repo, repoIndex, getBranchName(number % 20 + 1), sha(number + 1L));
+        writer.name("base");
+        writeLink(writer, owner, repo, repoIndex, getBranchName(0), sha(number + 2L));
+        writer.name("author_association").value("CONTRIBUTOR");
+        writer.name("merged").value(closed && number % 8 == 0);
+        writer.name("mergeable").value(true);
+        writer.name("comments").value(getIssueComments(number));
+        writer.name("commits").value(getPullRequestCommits(number));
+        writer.name("additions").value(number * 13 % 500);
+        writer.name("deletions").value(number * 7 % 300);
+        writer.name("changed_files").value(number % 40 + 1);
+        writer.endObject();
+    }
+
+    public static int getPullRequestCommits(int number) {
+        return number % 5 + 1;
+    }
+
+    private static void writeLink(
+        @Nonnull JsonWriter writer,
+        @Nonnull String owner,
+        @Nonnull String repo,
+        int repoIndex,
+        @Nonnull String ref,
+        @Nonnull String sha
+    ) throws IOException {
+        writer.beginObject();
+        writer.name("label").value(owner + ":" + ref);
+        writer.name("ref").value(ref);
+        writer.name("sha").value(sha);
+        writer.name("user");
+        writeUser(writer, owner, owner.hashCode() & 0xffffff);
+        writer.name("repo");
+        writeRepo(writer, owner, repo, repoIndex);
+        writer.endObject();
+    }
+
+    public static void writeGist(
+        @Nonnull JsonWriter writer,
+        @Nonnull String owner,
+        @Nonnull String id,
+        @Nullable String description,
+        boolean isPublic,
+        @Nonnull Map<String, String> files
+    ) throws IOException {
+        String url = API_URL + "/gists/" + id;
+        writer.beginObject();
+        writer.name("url").value(url);
+        writer.name("id").value(id);
+        writer.name("html_url").value("https://gist.github.com/" + id);
+        writer.name("git_pull_url").value("https://gist.github.com/" + id + ".git");
+        writer.name("git_push_url").value("https://gist.github.com/" + id + ".git");
+        writer.name("public").value(isPublic);
+        writer.name("description").value(description);
+        writer.name("files");
+        writer.beginObject();
+        for (Map.Entry<String, String> file : files.entrySet()) {
+            writer.name(file.getKey());
+            writer.beginObject();
+            writer.name("filename").value(file.getKey());
+            writer.name("type").value("text/plain");
+            writer.name("language").value("Text");
+            writer.name("raw_url").value("https://gist.githubusercontent.com/" + owner + "/" + id + "/raw/" + file.getKey());
+            writer.name("size").value(file.getValue().length());
+            writer.name("truncated").value(false);
+            writer.name("content").value(file.getValue());
+            writer.endObject();
+        }
+        writer.endObject();
+        writer.name("user");
+        writeUser(writer, owner, owner.hashCode() & 0xffffff);
+        writer.name("comments").value(0);
+        writer.name("created_at").value(date(id.hashCode() & 0xffffff));
+        writer.name("updated_at").value(date(id.hashCode() & 0xffffff));
+        writer.endObject();
+    }
+
+    public static void writeAuthorization(
+        @Nonnull JsonWriter writer,
+        long id,
+        @Nonnull String token,
+        @Nullable String note,
+        @Nonnull List<String> scopes
+    ) throws IOException {
+        writer.beginObject();
+        writer.name("id").value(id);
+        writer.name("url").value(API_URL + "/authorizations/" + id);
+        writer.name("token").value(token);
+        writer.name("note").value(note);
+        writer.name("note_url").nullValue();
+        writer.name("scopes");
+        writer.beginArray();
+        for (String scope : scopes) {
+            writer.value(scope);
+        }
+        writer.endArray();
+        writer.endObject();
+    }
+
+    public static void writeIssue(
+        @Nonnull JsonWriter writer,
+        @Nonnull String owner,
+        @Nonnull String repo,
+        int number,
+        int bodyLength
+    ) throws IOException {
+        SplittableRandom random = new SplittableRandom(number * 31L + repo.hashCode());
+        String url = API_URL + "/repos/" + owner + "/" + repo + "/issues/" + number;
+        boolean closed = isIssueClosed(number);
+        String assignee = getIssueAssignee(number);
+        writer.beginObject();
+        writer.name("url").value(url);
+        writer.name("repository_url").value(API_URL + "/repos/" + owner + "/" + repo);
+        writer.name("labels_url").value(url + "/labels{/name}");
+        writer.name("comments_url").value(url + "/comments");
+        writer.name("events_url").value(url + "/events");
+        writer.name("html_url").value(WEB_URL + "/" + owner + "/" + repo + "/issues/" + number);
+        writer.name("id").value(5000000L + number);
+        writer.name("node_id").value("MDU6SXNzdWU" + number);
+        writer.name("number").value(number);
+        writer.name("title").value(getIssueTitle(number));
+        writer.name("user");
+        writeUser(writer, random.nextInt(500));
+        writer.name("labels");
+        writer.beginArray();
+        int labels = random.nextInt(4);
+        for (int i = 0; i < labels; i++) {
+            String label = word(random.nextInt(WORDS.length));
+            writer.beginObject();
+            writer.name("id").value(label.hashCode() & 0xffffff);
+            writer.name("node_id").value("MDU6TGFiZWw" + label);
+            writer.name("url").value(API_URL + "/repos/" + owner + "/" + repo + "/labels/" + label);
+            writer.name("name").value(label);
+            writer.name("color").value("f29513");
+            writer.name("default").value(false);
+            writer.name("description").value(sentence(random, 5));
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.name("state").value(closed ? "closed" : "open");
+        writer.name("locked").value(false);
+        writer.name("assignee");
+        if (assignee == null) {
+            writer.nullValue();
+        }
+        else {
+            writeUser(writer, assignee, 1000 + number % 50);
+        }
+        writer.name("assignees");
+        writer.beginArray();
+        if (assignee != null) {
+            writeUser(writer, assignee, 1000 + number % 50);
+        }
+        writer.endArray();
+        writer.name("milestone").nullValue();
+        writer.name("comments").value(getIssueComments(number));
+        writer.name("created_at").value(formatTime(getIssueCreatedAt(number)));
+        writer.name("updated_at").value(formatTime(getIssueUpdatedAt(number)));
+        writer.name("closed_at");
+        if (closed) {
+            writer.value(formatTime(getIssueUpdatedAt(number)));
+        }
+        else {
+            writer.nullValue();
+        }
+        writer.name("author_association").value("CONTRIBUTOR");
+        writer.name("active_lock_reason").nullValue();
+        writer.name("body").value(paragraphs(random, bodyLength));
+        writer.name("reactions");
+        writer.beginObject();
+        writer.name("url").value(url + "/reactions");
+        writer.name("total_count").value(0);
+        for (String reaction : new String[]{"+1", "-1", "laugh", "hooray", "confused", "heart", "rocket", "eyes"}) {
+            writer.name(reaction).value(0);
+        }
+        writer.endObject();
+        writer.name("timeline_url").value(url + "/timeline");
+        writer.name("performed_via_github_app").nullValue();
+        writer.name("state_reason").value(closed ? "completed" : null);
+        writer.endObject();
+    }
+
+    public static boolean isIssueClosed(int number) {
+        return number % 4 == 0;
+    }
+
+    @Nullable
+    public static String getIssueAssignee(int number) {
+        return number % 3 == 0 ? null : login(number % 50);
+    }
+
+    @Nonnull
+    public static String getIssueTitle(int number) {
+        return sentence(new SplittableRandom(number), 4 + number % 10);
+    }
+
+    public static int getIssueComments(int number) {
+        return number * 7 % 30;
+    }
+
+    public static long getIssueCreatedAt(int number) {
+        return EPOCH.plus(number * 60L, ChronoUnit.MINUTES).toEpochMilli();
+    }
+
+    /**
+     * Issues are updated in a different order than they are created.
+     */
+    public static long getIssueUpdatedAt(int number) {
+        return getIssueCreatedAt(number) + TimeUnit.MINUTES.toMillis(number * 7919L % 100000);
+    }
+
+    public static void writeFile(
+        @Nonnull JsonWriter writer,
+        @Nonnull String owner,
+        @Nonnull String repo,
+        int index,
+        int patchLines
+    ) throws IOException {
+        SplittableRandom random = new SplittableRandom(index * 17L + 3);
+        String filename = "src/main/java/org/example/" + word(index) + "/" + capitalize(word(index + 5)) + index + ".java";
+        String sha = sha(index);
+        int additions = patchLines / 2 + random.nextInt(patchLines / 2 + 1);
+        int deletions = patchLines - additions;
+        writer.beginObject();
+        writer.name("sha").value(sha);
+        writer.name("filename").value(filename);
+        writer.name("status").value(FILE_STATUSES[index % FILE_STATUSES.length]);
+        writer.name("additions").value(additions);
+        writer.name("deletions").value(deletions);
+        writer.name("changes").value(additions + deletions);
+        writer.name("blob_url").value(WEB_URL + "/" + owner + "/" + repo + "/blob/" + sha + "/" + filename);
+        writer.name("raw_url").value(WEB_URL + "/" + owner + "/" + repo + "/raw/" + sha + "/" + filename);
+        writer.name("contents_url").value(API_URL + "/repos/" + owner + "/" + repo + "/contents/" + filename + "?ref=" + sha);
+        writer.name("patch").value(patch(random, additions, deletions));
+        writer.endObject();
+    }
+
+    public static void writeCommit(
+        @Nonnull JsonWriter writer,
+        @Nonnull String owner,
+        @Nonnull String repo,
+        int index,
+        int files,
+        int patchLines
+    ) throws IOException {
+        SplittableRandom random = new SplittableRandom(index);
+        String sha = sha(index + 1000000L);
+        String url = API_URL + "/repos/" + owner + "/" + repo + "/commits/" + sha;
+        String date = date(index * 120L);
+        writer.beginObject();
+        writer.name("sha").value(sha);
+        writer.name("node_id").value("MDY6Q29tbWl0" + sha);
+        writer.name("commit");
+        writer.beginObject();
+        for (String role : new String[]{"author", "committer"}) {
+            writer.name(role);
+            writer.beginObject();
+            writer.name("name").value("User " + index % 50);
+            writer.name("email").value(login(index % 50) + "@example.com");
+            writer.name("date").value(date);
+            writer.endObject();
+        }
+        writer.name("message").value(sentence(random, 6 + random.nextInt(10)) + "\n\n" + paragraphs(random, 400));
+        writer.name("tree");
+        writer.beginObject();
+        writer.name("sha").value(sha(index + 2000000L));
+        writer.name("url").value(API_URL + "/repos/" + owner + "/" + repo + "/git/trees/" + sha(index + 2000000L));
+        writer.endObject();
+        writer.name("url").value(API_URL + "/repos/" + owner + "/" + repo + "/git/commits/" + sha);
+        writer.name("comment_count").value(0);
+        writer.name("verification");
+        writer.beginObject();
+        writer.name("verified").value(false);
+        writer.name("reason").value("unsigned");
+        writer.name("signature").nullValue();
+        writer.name("payload").nullValue();
+        writer.endObject();
+        writer.endObject();
+        writer.name("url").value(url);
+        writer.name("html_url").value(WEB_URL + "/" + owner + "/" + repo + "/commit/" + sha);
+        writer.name("comments_url").value(url + "/comments");
+        writer.name("author");
+        writeUser(writer, index % 50);
+        writer.name("committer");
+        writeUser(writer, index % 50);
+        writer.name("parents");
+        writer.beginArray();
+        String parent = sha(index + 999999L);
+        writer.beginObject();
+        writer.name("sha").value(parent);
+        writer.name("url").value(API_URL + "/repos/" + owner + "/" + repo + "/commits/" + parent);
+        writer.name("html_url").value(WEB_URL + "/" + owner + "/" + repo + "/commit/" + parent);
+        writer.endObject();
+        writer.endArray();
+        writer.name("stats");
+        writer.beginObject();
+        writer.name("total").value(files * patchLines);
+        writer.name("additions").value(files * patchLines / 2);
+        writer.name("deletions").value(files * patchLines - files * patchLines / 2);
+        writer.endObject();
+        writer.name("files");
+        writer.beginArray();
+        for (int i = 0; i < files; i++) {
+            writeFile(writer, owner, repo, index * 100 + i, patchLines);
+        }
+        writer.endArray();
+        writer.endObject();
+    }
+
+    @FunctionalInterface
+    public interface JsonContent {
+        void write(@Nonnull JsonWriter writer) throws IOException;
+    }
+
+    @Nonnull
+    public static byte[] write(@Nonnull JsonContent content) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Writer out = new OutputStreamWriter(bytes, StandardCharsets.UTF_8); JsonWriter writer = new JsonWriter(out)) {
+            writer.setSerializeNulls(true);
+            content.write(writer);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Nonnull
+    private static String word(int index) {
+        return WORDS[Math.floorMod(index, WORDS.length)];
+    }
+
+    @Nonnull
+    private static String capitalize(@Nonnull String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    @Nonnull
+    private static String sentence(@Nonnull SplittableRandom random, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            sentence.append(i == 0 ? capitalize(word) : " " + word);
+        }
+        return sentence.toString();
+    }
+
+    /**
+     * @return markdown text of approximately the given length, with paragraphs, lists and code blocks
+     */
+    @Nonnull
+    private static String paragraphs(@Nonnull SplittableRandom random, int length) {
+        StringBuilder text = new StringBuilder(length + 100);
+        while (text.length() < length) {
+            switch (random.nextInt(4)) {
+                case 0:
+                    text.append("```java\n").append(capitalize(WORDS[random.nextInt(WORDS.length)]))
+                        .append(".").append(WORDS[random.nextInt(WORDS.length)]).append("(\"")
+                        .append(sentence(random, 3)).append("\");\n```\n\n");
+                    break;
+                case 1:
+                    for (int i = 0; i < 3; i++) {
+                        text.append("- ").append(sentence(random, 6)).append("\n");
+                    }
+                    text.append("\n");
+                    break;
+                default:
+                    text.append(sentence(random, 20 + random.nextInt(30))).append(".\r\n\r\n");
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * @return rough html rendering of the markdown, of the size GitHub produces
+     */
+    @Nonnull
+    private static String html(@Nonnull String markdown) {
+        StringBuilder html = new StringBuilder(markdown.length() * 3 / 2);
+        for (String paragraph : markdown.split("\r?\n\r?\n")) {
+            if (!paragraph.isEmpty()) {
+                html.append("<p dir=\"auto\">").append(paragraph.replace("<", "&lt;").replace("\n", "<br>\n")).append("</p>\n");
+            }
+        }
+        return html.toString();
+    }
+
+    @Nonnull
+    private static String patch(@Nonnull SplittableRandom random, int additions, int deletions) {
+        StringBuilder patch = new StringBuilder((additions + deletions) * 60);
+        patch.append("@@ -1,").append(deletions + 3).append(" +1,").append(additions + 3).append(" @@ public class Example {\n");
+        for (int i = 0; i < deletions; i++) {
+            patch.append("-    ").append(codeLine(random)).append('\n');
+        }
+        for (int i = 0; i < additions; i++) {
+            patch.append("+    ").append(codeLine(random)).append('\n');
+        }
+        patch.append("     }\n }");
+        return patch.toString();
+    }
+
+    @Nonnull
+    private static String codeLine(@Nonnull SplittableRandom random) {
+        return "final " + capitalize(WORDS[random.nextInt(WORDS.length)]) + " " + WORDS[random.nextInt(WORDS.length)] + " = " +
+            WORDS[random.nextInt(WORDS.length)] + ".get" + capitalize(WORDS[random.nextInt(WORDS.length)]) + "(\"\\t" +
+            WORDS[random.nextInt(WORDS.length)] + "\");";
+    }
+}
@@ -0,0 +1,327 @@
+package org.jetbrains.plugins.github.performance;
+
+import jakarta.annotation.Nonnull;
+import org.jetbrains.plugins.github.api.GithubApiAsync;
+import org.jetbrains.plugins.github.api.GithubApiUtil;
+import org.jetbrains.plugins.github.api.GithubBranch;
+import org.jetbrains.plugins.github.api.GithubRepo;
+import org.jetbrains.plugins.github.api.GithubRepoDetailed;
+import org.jetbrains.plugins.github.util.GithubAuthData;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Request budget of the user flows: runs the API requests of each flow against a {@link GithubMockServer}
+ * at several data scales and network latencies, and reports the wall time, the number of requests,
+ * the response bytes and the round trips, i.e. the requests which had to wait for a previous response.
+ * <p/>
+ * Every flow runs twice with the same account: cold, and warm with the responses of the first run cached.
+ * Requests and bytes are compared with the budgets in {@code github-flow-budgets.properties} at every latency,
+ * round trips at the highest one, where the network rather than generating the responses dominates;
+ * exceeding any budget fails the run. Wall time depends on the machine and is only reported.
+ * <pre>
+ * mvn -Pperformance verify
+ * mvn -Pperformance test-compile exec:exec@flow-budgets -Dgithub.flow.budgets.record=true
+ * </pre>
+ * The second command records the measured values as the new budgets, after an intended change of the flows.
+ */
+public final class GithubFlowBudgets {
+    private static final String BUDGETS = "github-flow-budgets.properties";
+    private static final String RECORDED_BUDGETS =
+        "src/performance/resources/org/jetbrains/plugins/github/performance/" + BUDGETS;
+    private static final Duration[] LATENCIES = {Duration.ZERO, Duration.ofMillis(40), Duration.ofMillis(150)};
+    private static final Duration MAX_LATENCY = LATENCIES[LATENCIES.length - 1];
+    // the response sizes vary slightly with the names of the created items
+    private static final double BYTES_TOLERANCE = 1.05;
+    // a prefetched page is requested together with the previous one or after it, depending on the timing
+    private static final int ROUND_TRIPS_TOLERANCE = 1;
+    // issues the Tasks "Open Task" popup requests at once
+    private static final int TASKS_BATCH = 20;
+
+    private static final AtomicInteger ourRuns = new AtomicInteger();
+
+    private GithubFlowBudgets() {
+    }
+
+    private enum Scale {
+        SMALL(GithubMockData::small),
+        LARGE(GithubMockData::large);
+
+        @Nonnull
+        private final Supplier<GithubMockData> myData;
+
+        Scale(@Nonnull Supplier<GithubMockData> data) {
+            myData = data;
+        }
+    }
+
+    private enum Flow {
+        /**
+         * {@link org.jetbrains.plugins.github.GithubShareAction}
+         */
+        SHARE {
+            @Override
+            void run(@Nonnull GithubAuthData auth, @Nonnull GithubMockData data, int run) throws IOException {
+                GithubApiUtil.getUserRepos(auth);
+                GithubApiUtil.getCurrentUserDetailed(auth);
+                GithubApiUtil.createRepo(auth, "shared-project-" + run, "Shared project", true);
+            }
+        },
+        /**
+         * {@link org.jetbrains.plugins.github.GithubCreatePullRequestAction} from a fork, onto a repository
+         * which is neither the fork nor its parent, so the fork of the target user has to be searched for.
+         */
+        CREATE_PULL_REQUEST {
+            @Override
+            void run(@Nonnull GithubAuthData auth, @Nonnull GithubMockData data, int run) throws IOException {
+                String name = GithubFixtures.repoName(7);
+                GithubRepoDetailed repo = GithubApiUtil.getDetailedRepoInfo(auth, data.getLogin(), name);
+                GithubRepo parent = repo.getParent();
+                GithubRepo source = repo.getSource();
+                if (parent == null || source == null) {
+                    throw new IOException(name + " is not a fork");
+                }
+
+                String upstream = GithubFixtures.login(3);
+                List<CompletableFuture<List<GithubBranch>>> branches = new ArrayList<>();
+                branches.add(GithubApiAsync.getRepoBranches(auth, parent.getUserName(), parent.getName()));
+                branches.add(GithubApiAsync.getRepoBranches(auth, repo.getUserName(), repo.getName()));
+                if (!source.getUserName().equals(parent.getUserName())) {
+                    branches.add(GithubApiAsync.getRepoBranches(auth, source.getUserName(), source.getName()));
+                }
+                branches.add(GithubApiAsync.getRepoBranches(auth, upstream, name));
+                for (CompletableFuture<List<GithubBranch>> request : branches) {
+                    GithubApiAsync.await(request);
+                }
+
+                String target = GithubFixtures.login(4);
+                GithubApiUtil.getDetailedRepoInfo(auth, target, name);
+                GithubRepo fork = GithubApiUtil.findForkByUser(auth, source.getUserName(), source.getName(), target);
+                if (fork == null) {
+                    throw new IOException("No fork of " + target);
+                }
+                GithubApiUtil.createPullRequest(auth, target, name, "Pull request " + run, "", data.getLogin() + ":feature", "master");
+            }
+        },
+        /**
+         * {@link org.jetbrains.plugins.github.extensions.GithubCheckoutProvider}
+         */
+        CHECKOUT {
+            @Override
+            void run(@Nonnull GithubAuthData auth, @Nonnull GithubMockData data, int run) throws IOException {
+                GithubApiUtil.getAvailableRepos(auth);
+            }
+        },
+        /**
+         * {@link org.jetbrains.plugins.github.tasks.GithubRepository}: the periodic update of the assigned issues
+         * and a search in the task list.
+         */
+        TASKS {
+            @Override
+            void run(@Nonnull GithubAuthData auth, @Nonnull GithubMockData data, int run) throws IOException {
+                String repo = GithubFixtures.repoName(1);
+                String user = GithubApiUtil.getCurrentUser(auth).getLogin();
+                // the first batch of the "Open Task" popup
+                GithubApiUtil.getIssuesAssigned(auth, data.getLogin(), repo, user, 0, TASKS_BATCH, false);
+                GithubApiUtil.getIssuesQueried(auth, data.getLogin(), repo, "cache", 0, TASKS_BATCH, false);
+            }
+        };
+
+        abstract void run(@Nonnull GithubAuthData auth, @Nonnull GithubMockData data, int run) throws IOException;
+
+        @Nonnull
+        String getKey() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+    }
+
+    private static final class Measurement {
+        @Nonnull
+        private final String myKey;
+        @Nonnull
+        private final Duration myLatency;
+        private final long myWallMillis;
+        private final int myRequests;
+        private final long myBytes;
+        private final int myRoundTrips;
+
+        Measurement(@Nonnull String key, @Nonnull Duration latency, long wallMillis, int requests, long bytes, int roundTrips) {
+            myKey = key;
+            myLatency = latency;
+            myWallMillis = wallMillis;
+            myRequests = requests;
+            myBytes = bytes;
+            myRoundTrips = roundTrips;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<Measurement> measurements = new ArrayList<>();
+        System.out.printf("%-36s %8s %10s %9s %12s %11s%n", "flow", "latency", "wall, ms", "requests", "bytes", "round trips");
+        for (Scale scale : Scale.values()) {
+            for (Duration latency : LATENCIES) {
+                try (GithubMockServer server = new GithubMockServer(scale.myData.get())) {
+                    server.install();
+                    server.setLatency(latency, Duration.ZERO);
+                    for (Flow flow : Flow.values()) {
+                        // a new account has nothing cached yet
+                        GithubAuthData auth = GithubAuthData.createTokenAuth(server.getHost(), "token-" + ourRuns.incrementAndGet());
+                        String key = flow.getKey() + "." + scale.name().toLowerCase(Locale.ROOT);
+                        for (String pass : new String[]{"cold", "warm"}) {
+                            Measurement measurement = measure(server, key + "." + pass, latency, () -> flow.run(auth, server.getData(), ourRuns.incrementAndGet()));
+                            measurements.add(measurement);
+                            System.out.printf(
+                                "%-36s %8d %10d %9d %12d %11s%n",
+                                measurement.myKey,
+                                latency.toMillis(),
+                                measurement.myWallMillis,
+                                measurement.myRequests,
+                                measurement.myBytes,
+                                latency.isZero() ? "" : String.valueOf(measurement.myRoundTrips)
+                            );
+                        }
+                    }
+                }
+            }
+        }
+
+        if (Boolean.getBoolean("github.flow.budgets.record")) {
+            record(measurements);
+            return;
+        }
+
+        List<String> violations = check(measurements, loadBudgets());
+        if (!violations.isEmpty()) {
+            System.out.println();
+            System.out.println("Flows over their request budget:");
+            violations.forEach(violation -> System.out.println("  " + violation));
+            System.exit(1);
+        }
+    }
+
+    @FunctionalInterface
+    private interface FlowRun {
+        void run() throws IOException;
+    }
+
+    @Nonnull
+    private static Measurement measure(
+        @Nonnull GithubMockServer server,
+        @Nonnull String key,
+        @Nonnull Duration latency,
+        @Nonnull FlowRun run
+    ) throws IOException, InterruptedException {
+        server.resetStatistics();
+        long start = System.nanoTime();
+        run.run();
+        long wallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        server.awaitIdle(Duration.ofSeconds(30));
+        List<GithubMockServer.RecordedRequest> requests = server.getRequests();
+        long bytes = requests.stream().mapToLong(GithubMockServer.RecordedRequest::getResponseBytes).sum();
+        return new Measurement(key, latency, wallMillis, requests.size(), bytes, getRoundTrips(requests, latency));
+    }
+
+    /**
+     * A request is a new round trip if it was received at least half the latency after the request starting the previous one:
+     * it must have waited for a response then, while concurrent requests arrive at about the same time.
+     */
+    private static int getRoundTrips(@Nonnull List<GithubMockServer.RecordedRequest> requests, @Nonnull Duration latency) {
+        long threshold = latency.toNanos() / 2;
+        List<GithubMockServer.RecordedRequest> sorted = new ArrayList<>(requests);
+        sorted.sort(Comparator.comparingLong(GithubMockServer.RecordedRequest::getStartNanos));
+        int roundTrips = 0;
+        long previous = Long.MIN_VALUE;
+        for (GithubMockServer.RecordedRequest request : sorted) {
+            if (roundTrips == 0 || request.getStartNanos() - previous >= threshold) {
+                roundTrips++;
+                previous = request.getStartNanos();
+            }
+        }
+        return roundTrips;
+    }
+
+    @Nonnull
+    private static List<String> check(@Nonnull List<Measurement> measurements, @Nonnull Properties budgets) {
+        List<String> violations = new ArrayList<>();
+        for (Measurement measurement : measurements) {
+            String latency = " at " + measurement.myLatency.toMillis() + " ms";
+            long requests = getBudget(budgets, measurement.myKey + ".requests", violations);
+            if (requests >= 0 && measurement.myRequests > requests) {
+                violations.add(measurement.myKey + latency + ": " + measurement.myRequests + " requests, the budget is " + requests);
+            }
+            long bytes = getBudget(budgets, measurement.myKey + ".bytes", violations);
+            if (bytes >= 0 && measurement.myBytes > bytes * BYTES_TOLERANCE) {
+                violations.add(measurement.myKey + latency + ": " + measurement.myBytes + " bytes, the budget is " + bytes);
+            }
+            if (measurement.myLatency.equals(MAX_LATENCY)) {
+                long roundTrips = getBudget(budgets, measurement.myKey + ".roundTrips", violations);
+                if (roundTrips >= 0 && measurement.myRoundTrips > roundTrips + ROUND_TRIPS_TOLERANCE) {
+                    violations.add(measurement.myKey + latency + ": " + measurement.myRoundTrips + " round trips, the budget is " + roundTrips);
+                }
+            }
+        }
+        return violations;
+    }
+
+    private static long getBudget(@Nonnull Properties budgets, @Nonnull String key, @Nonnull List<String> violations) {
+        String value = budgets.getProperty(key);
+        if (value == null) {
+            if (!violations.contains("No budget for " + key)) {
+                violations.add("No budget for " + key);
+            }
+            return -1;
+        }
+        return Long.parseLong(value.trim());
+    }
+
+    @Nonnull
+    private static Properties loadBudgets() throws IOException {
+        Properties budgets = new Properties();
+        try (InputStream in = GithubFlowBudgets.class.getResourceAsStream(BUDGETS)) {
+            if (in == null) {
+                throw new IOException("No " + BUDGETS + " resource");
+            }
+            budgets.load(in);
+        }
+        return budgets;
+    }
+
+    /**
+     * Records the largest value measured at any latency: prefetching can add a request depending on the timing.
+     */
+    private static void record(@Nonnull List<Measurement> measurements) throws IOException {
+        TreeMap<String, Long> budgets = new TreeMap<>();
+        for (Measurement measurement : measurements) {
+            budgets.merge(measurement.myKey + ".requests", (long)measurement.myRequests, Math::max);
+            budgets.merge(measurement.myKey + ".bytes", measurement.myBytes, Math::max);
+            if (measurement.myLatency.equals(MAX_LATENCY)) {
+                budgets.merge(measurement.myKey + ".roundTrips", (long)measurement.myRoundTrips, Math::max);
+            }
+        }
+
+        Path file = Paths.get(RECORDED_BUDGETS);
+        StringBuilder content = new StringBuilder();
+        content.append("# Request budgets of the user flows, checked by GithubFlowBudgets.\n");
+        content.append("# Recorded with: mvn -Pperformance test-compile exec:exec@flow-budgets -Dgithub.flow.budgets.record=true\n");
+        budgets.forEach((key, value) -> content.append(key).append('=').append(value).append('\n'));
+        Files.write(file, content.toString().getBytes(StandardCharsets.ISO_8859_1));
+        System.out.println();
+        System.out.println("Budgets recorded to " + file.toAbsolutePath());
+    }
+}
@@ -0,0 +1,180 @@
+package org.jetbrains.plugins.github.performance;
+
+import jakarta.annotation.Nonnull;
+
+/**
+ * Size of the data served by {@link GithubMockServer}. The content itself is generated by {@link GithubFixtures}.
+ * <p/>
+ * The authenticated user owns {@link #getUserRepos()} repositories, is a member of {@link #getOrgs()} organizations
+ * and watches {@link #getWatchedRepos()} repositories of other users. Every repository has the same number of
+ * issues, branches, forks and pull requests.
+ */
+public final class GithubMockData {
+    @Nonnull
+    private String myLogin = "user1";
+    private int myUserRepos = 30;
+    private int myOrgs = 2;
+    private int myReposPerOrg = 20;
+    private int myWatchedRepos = 10;
+    private int myIssuesPerRepo = 200;
+    private int myIssueBodyLength = 1500;
+    private int myBranchesPerRepo = 10;
+    private int myForksPerRepo = 5;
+    private int myPullRequestsPerRepo = 20;
+    private int myFilesPerPullRequest = 20;
+    private int myPatchLines = 30;
+
+    /**
+     * Data of a typical account.
+     */
+    @Nonnull
+    public static GithubMockData small() {
+        return new GithubMockData();
+    }
+
+    /**
+     * Data of a large organization member: 10k repositories, 50k issues in every repository.
+     */
+    @Nonnull
+    public static GithubMockData large() {
+        return new GithubMockData()
+            .setUserRepos(2000)
+            .setOrgs(20)
+            .setReposPerOrg(350)
+            .setWatchedRepos(1000)
+            .setIssuesPerRepo(50000)
+            .setBranchesPerRepo(500)
+            .setForksPerRepo(300)
+            .setPullRequestsPerRepo(2000)
+            .setFilesPerPullRequest(300);
+    }
+
+    @Nonnull
+    public String getLogin() {
+        return myLogin;
+    }
+
+    @Nonnull
+    public GithubMockData setLogin(@Nonnull String login) {
+        myLogin = login;
+        return this;
+    }
+
+    public int getUserRepos() {
+        return myUserRepos;
+    }
+
+    @Nonnull
+    public GithubMockData setUserRepos(int userRepos) {
+        myUserRepos = userRepos;
+        return this;
+    }
+
+    public int getOrgs() {
+        return myOrgs;
+    }
+
+    @Nonnull
+    public GithubMockData setOrgs(int orgs) {
+        myOrgs = orgs;
+        return this;
+    }
+
+    public int getReposPerOrg() {
+        return myReposPerOrg;
+    }
+
+    @Nonnull
+    public GithubMockData setReposPerOrg(int reposPerOrg) {
+        myReposPerOrg = reposPerOrg;
+        return this;
+    }
+
+    public int getWatchedRepos() {
+        return myWatchedRepos;
+    }
+
+    @Nonnull
+    public GithubMockData setWatchedRepos(int watchedRepos) {
+        myWatchedRepos = watchedRepos;
+        return this;
+    }
+
+    public int getIssuesPerRepo() {
+        return myIssuesPerRepo;
+    }
+
+    @Nonnull
+    public GithubMockData setIssuesPerRepo(int issuesPerRepo) {
+        myIssuesPerRepo = issuesPerRepo;
+        return this;
+    }
+
+    public int getIssueBodyLength() {
+        return myIssueBodyLength;
+    }
+
+    @Nonnull
+    public GithubMockData setIssueBodyLength(int issueBodyLength) {
+        myIssueBodyLength = issueBodyLength;
+        return this;
+    }
+
+    public int getBranchesPerRepo() {
+        return myBranchesPerRepo;
+    }
+
+    @Nonnull
+    public GithubMockData setBranchesPerRepo(int branchesPerRepo) {
+        myBranchesPerRepo = branchesPerRepo;
+        return this;
+    }
+
+    public int getForksPerRepo() {
+        return myForksPerRepo;
+    }
+
+    @Nonnull
+    public GithubMockData setForksPerRepo(int forksPerRepo) {
+        myForksPerRepo = forksPerRepo;
+        return this;
+    }
+
+    public int getPullRequestsPerRepo() {
+        return myPullRequestsPerRepo;
+    }
+
+    @Nonnull
+    public GithubMockData setPullRequestsPerRepo(int pullRequestsPerRepo) {
+        myPullRequestsPerRepo = pullRequestsPerRepo;
+        return this;
+    }
+
+    public int getFilesPerPullRequest() {
+        return myFilesPerPullRequest;
+    }
+
+    @Nonnull
+    public GithubMockData setFilesPerPullRequest(int filesPerPullRequest) {
+        myFilesPerPullRequest = filesPerPullRequest;
+        return this;
+    }
+
+    public int getPatchLines() {
+        return myPatchLines;
+    }
+
+    @Nonnull
+    public GithubMockData setPatchLines(int patchLines) {
+        myPatchLines = patchLines;
+        return this;
+    }
+
+    /**
+     * @return name of the {@code index}-th organization the user is a member of
+     */
+    @Nonnull
+    public static String getOrgName(int index) {
+        return "org" + index;
+    }
+}
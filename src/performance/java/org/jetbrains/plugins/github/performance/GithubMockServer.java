@@ -0,0 +1,978 @@
+package org.jetbrains.plugins.github.performance;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.jetbrains.plugins.github.api.GithubTransports;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * In-process stand-in for the GitHub API v3, serving the endpoints {@link org.jetbrains.plugins.github.api.GithubApiUtil}
+ * uses with data of a configurable size, see {@link GithubMockData}. It listens on a loopback port over TLS
+ * with a self-signed certificate, and mimics the server behaviour the plugin depends on:
+ * <ul>
+ * <li>collections are paged with {@code page} and {@code per_page}, and linked with the {@code Link} header;</li>
+ * <li>responses have a weak {@code ETag}, a matching {@code If-None-Match} is answered with 304;</li>
+ * <li>{@code core} and {@code search} rate limits are reported in the {@code X-RateLimit-*} headers and enforced,
+ * 304 responses and {@code /rate_limit} do not count;</li>
+ * <li>latency, bandwidth and bursts of server errors can be injected.</li>
+ * </ul>
+ * Every request is recorded with its status, size and duration.
+ * <pre>
+ * try (GithubMockServer server = new GithubMockServer(GithubMockData.large())) {
+ *     server.install();
+ *     GithubAuthData auth = GithubAuthData.createTokenAuth(server.getHost(), "token");
+ *     ...
+ * }
+ * </pre>
+ * Created repositories, pull requests and gists are kept in memory, the generated data is not modified.
+ */
+public final class GithubMockServer implements AutoCloseable {
+    public static final int CORE_RATE_LIMIT = 5000;
+    public static final int SEARCH_RATE_LIMIT = 30;
+
+    private static final String API_PATH = "/api/v3";
+    private static final String KEYSTORE = "github-mock-server.p12";
+    private static final char[] KEYSTORE_PASSWORD = "changeit".toCharArray();
+    private static final int DEFAULT_PER_PAGE = 30;
+    private static final int MAX_PER_PAGE = 100;
+    private static final int CHUNK_SIZE = 16 * 1024;
+
+    @Nonnull
+    private final GithubMockData myData;
+    @Nonnull
+    private final SSLContext mySslContext;
+    @Nonnull
+    private final HttpsServer myServer;
+    @Nonnull
+    private final ExecutorService myExecutor;
+
+    private final List<String> myUserRepos;
+    private final Set<String> myDeletedRepos = ConcurrentHashMap.newKeySet();
+    private final Map<String, byte[]> myGists = new ConcurrentHashMap<>();
+    private final AtomicInteger myCreatedItems = new AtomicInteger();
+    private final Map<Integer, int[]> myIssuesByUpdate = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicInteger> myRateLimitRemaining = new ConcurrentHashMap<>();
+    private volatile long myRateLimitReset;
+    private final AtomicInteger myFailures = new AtomicInteger();
+    private volatile int myFailureStatus = 502;
+
+    private volatile long myLatencyMillis;
+    private volatile long myJitterMillis;
+    private volatile long myBytesPerSecond;
+
+    private final List<RecordedRequest> myRequests = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger myActiveRequests = new AtomicInteger();
+    private volatile boolean myInstalled;
+
+    public GithubMockServer(@Nonnull GithubMockData data) throws IOException {
+        myData = data;
+        myUserRepos = Collections.synchronizedList(new ArrayList<>(data.getUserRepos()));
+        for (int i = 0; i < data.getUserRepos(); i++) {
+            myUserRepos.add(GithubFixtures.repoName(i));
+        }
+        resetRateLimits();
+
+        mySslContext = createSslContext();
+        myExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "GitHub mock server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        myServer = HttpsServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        myServer.setHttpsConfigurator(new HttpsConfigurator(mySslContext));
+        myServer.setExecutor(myExecutor);
+        myServer.createContext(API_PATH + "/", this::handle);
+        myServer.start();
+    }
+
+    /**
+     * @return host to use in {@link org.jetbrains.plugins.github.util.GithubAuthData}, in the GitHub Enterprise form
+     */
+    @Nonnull
+    public String getHost() {
+        return "localhost:" + myServer.getAddress().getPort() + API_PATH;
+    }
+
+    @Nonnull
+    public String getApiUrl() {
+        return "https://" + getHost();
+    }
+
+    @Nonnull
+    public GithubMockData getData() {
+        return myData;
+    }
+
+    /**
+     * @return SSL context trusting the self-signed certificate of the server
+     */
+    @Nonnull
+    public SSLContext getClientSslContext() {
+        return mySslContext;
+    }
+
+    /**
+     * Routes the requests to {@link #getHost()} to this server through a {@link GithubMockTransport}.
+     */
+    public void install() {
+        GithubTransports.setTransport(getHost(), new GithubMockTransport(mySslContext));
+        myInstalled = true;
+    }
+
+    /**
+     * Delays every response by {@code latency} plus a random part of up to {@code jitter}, as a round trip would.
+     */
+    public void setLatency(@Nonnull Duration latency, @Nonnull Duration jitter) {
+        myLatencyMillis = latency.toMillis();
+        myJitterMillis = jitter.toMillis();
+    }
+
+    /**
+     * @param bytesPerSecond bandwidth of response bodies, or 0 for unlimited
+     */
+    public void setBytesPerSecond(long bytesPerSecond) {
+        myBytesPerSecond = bytesPerSecond;
+    }
+
+    /**
+     * Fails the next {@code count} requests with the server error {@code status}.
+     */
+    public void failNext(int count, int status) {
+        myFailureStatus = status;
+        myFailures.set(count);
+    }
+
+    public void setRateLimitRemaining(@Nonnull String resource, int remaining) {
+        myRateLimitRemaining.computeIfAbsent(resource, key -> new AtomicInteger()).set(remaining);
+    }
+
+    public int getRateLimitRemaining(@Nonnull String resource) {
+        return Math.max(0, getRateLimitCounter(resource).get());
+    }
+
+    public void resetRateLimits() {
+        myRateLimitReset = Instant.now().plus(Duration.ofHours(1)).getEpochSecond();
+        myRateLimitRemaining.put("core", new AtomicInteger(CORE_RATE_LIMIT));
+        myRateLimitRemaining.put("search", new AtomicInteger(SEARCH_RATE_LIMIT));
+    }
+
+    /**
+     * @return requests received since the start or the last {@link #resetStatistics()}, in the order they were completed
+     */
+    @Nonnull
+    public List<RecordedRequest> getRequests() {
+        synchronized (myRequests) {
+            return new ArrayList<>(myRequests);
+        }
+    }
+
+    public int getRequestCount() {
+        return myRequests.size();
+    }
+
+    public long getResponseBytes() {
+        return getRequests().stream().mapToLong(RecordedRequest::getResponseBytes).sum();
+    }
+
+    public void resetStatistics() {
+        myRequests.clear();
+    }
+
+    /**
+     * Waits until the requests in progress are completed and recorded. A client can receive the whole response
+     * before the server is done with the request, e.g. when it does not read an unneeded prefetched page to the end.
+     */
+    public void awaitIdle(@Nonnull Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (myActiveRequests.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (myInstalled) {
+            GithubTransports.setTransport(getHost(), null);
+        }
+        myServer.stop(0);
+        myExecutor.shutdownNow();
+    }
+
+    private void handle(@Nonnull HttpExchange exchange) throws IOException {
+        myActiveRequests.incrementAndGet();
+        long start = System.nanoTime();
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getRawPath().substring(API_PATH.length());
+        String query = exchange.getRequestURI().getRawQuery();
+        Response response;
+        try {
+            byte[] requestBody = exchange.getRequestBody().readAllBytes();
+            response = respond(exchange, method, path, parseQuery(query), requestBody);
+        }
+        catch (RuntimeException e) {
+            response = error(500, "Mock server failure: " + e);
+        }
+
+        long bytes = 0;
+        try (exchange) {
+            delay();
+            response.myHeaders.putIfAbsent("Content-Type", "application/json; charset=utf-8");
+            for (Map.Entry<String, String> header : response.myHeaders.entrySet()) {
+                exchange.getResponseHeaders().set(header.getKey(), header.getValue());
+            }
+            byte[] body = response.myBody;
+            if (body == null || "HEAD".equals(method)) {
+                exchange.sendResponseHeaders(response.myStatus, -1);
+            }
+            else {
+                exchange.sendResponseHeaders(response.myStatus, body.length);
+                write(exchange.getResponseBody(), body);
+                bytes = body.length;
+            }
+        }
+        finally {
+            String uri = query == null ? path : path + "?" + query;
+            myRequests.add(new RecordedRequest(method, uri, response.myStatus, bytes, start, System.nanoTime() - start));
+            myActiveRequests.decrementAndGet();
+        }
+    }
+
+    @Nonnull
+    private Response respond(
+        @Nonnull HttpExchange exchange,
+        @Nonnull String method,
+        @Nonnull String path,
+        @Nonnull Map<String, String> query,
+        @Nonnull byte[] requestBody
+    ) {
+        if (exchange.getRequestHeaders().getFirst("Authorization") == null) {
+            return error(401, "Requires authentication");
+        }
+        if (myFailures.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+            return error(myFailureStatus, "Server Error");
+        }
+        if ("/rate_limit".equals(path)) {
+            return rateLimit();
+        }
+
+        String resource = path.startsWith("/search/") ? "search" : "core";
+        AtomicInteger remaining = getRateLimitCounter(resource);
+        if (remaining.get() <= 0) {
+            Response response = error(403, "API rate limit exceeded for " + myData.getLogin() + ".");
+            addRateLimitHeaders(response, resource, 0);
+            return response;
+        }
+
+        Response response = route(method, path, query, requestBody);
+        String etag = response.myBody == null || response.myStatus != 200 ? null : getETag(response.myBody);
+        if (etag != null) {
+            response.myHeaders.put("ETag", etag);
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                Response notModified = new Response(304, null);
+                notModified.myHeaders.put("ETag", etag);
+                addRateLimitHeaders(notModified, resource, remaining.get());
+                return notModified;
+            }
+        }
+        addRateLimitHeaders(response, resource, Math.max(0, remaining.decrementAndGet()));
+        return response;
+    }
+
+    @Nonnull
+    private Response route(
+        @Nonnull String method,
+        @Nonnull String path,
+        @Nonnull Map<String, String> query,
+        @Nonnull byte[] requestBody
+    ) {
+        String[] segments = path.substring(1).split("/");
+        String login = myData.getLogin();
+        switch (segments[0]) {
+            case "user":
+                if (segments.length == 1) {
+                    Response response = json(200, writer -> GithubFixtures.writeUserDetailed(writer, login, myUserRepos.size()));
+                    response.myHeaders.put("X-OAuth-Scopes", "repo, gist");
+                    return response;
+                }
+                switch (segments[1]) {
+                    case "repos":
+                        return "POST".equals(method) ? createRepo(parseJson(requestBody)) : userRepos(path, query);
+                    case "orgs":
+                        return page(path, query, myData.getOrgs(), (writer, i) -> GithubFixtures.writeOrg(writer, GithubMockData.getOrgName(i)));
+                    case "subscriptions":
+                        return page(path, query, myData.getWatchedRepos(), (writer, i) -> GithubFixtures.writeRepo(writer, getWatchedOwner(i), getWatchedIndex(i)));
+                }
+                break;
+            case "users":
+                if (segments.length == 3 && "repos".equals(segments[2])) {
+                    if (segments[1].equalsIgnoreCase(login)) {
+                        return userRepos(path, query);
+                    }
+                    return page(path, query, DEFAULT_PER_PAGE, (writer, i) -> GithubFixtures.writeRepo(writer, segments[1], 3000000 + i));
+                }
+                break;
+            case "orgs":
+                if (segments.length == 3 && "repos".equals(segments[2])) {
+                    int org = getOrgIndex(segments[1]);
+                    if (org < 0) {
+                        return notFound();
+                    }
+                    int first = myData.getUserRepos() + org * myData.getReposPerOrg();
+                    return page(path, query, myData.getReposPerOrg(), (writer, i) -> GithubFixtures.writeRepo(writer, segments[1], first + i));
+                }
+                break;
+            case "repos":
+                if (segments.length >= 3) {
+                    return repo(method, path, query, segments);
+                }
+                break;
+            case "search":
+                if (segments.length == 2 && "issues".equals(segments[1])) {
+                    return searchIssues(path, query);
+                }
+                break;
+            case "gists":
+                if (segments.length == 1 && "POST".equals(method)) {
+                    return createGist(parseJson(requestBody));
+                }
+                if (segments.length == 2) {
+                    if ("DELETE".equals(method)) {
+                        return myGists.remove(segments[1]) != null ? new Response(204, null) : notFound();
+                    }
+                    byte[] gist = myGists.get(segments[1]);
+                    return gist != null ? new Response(200, gist) : notFound();
+                }
+                break;
+            case "authorizations":
+                if (segments.length == 1 && "POST".equals(method)) {
+                    return createAuthorization(parseJson(requestBody));
+                }
+                break;
+        }
+        return notFound();
+    }
+
+    @Nonnull
+    private Response repo(
+        @Nonnull String method,
+        @Nonnull String path,
+        @Nonnull Map<String, String> query,
+        @Nonnull String[] segments
+    ) {
+        String owner = segments[1];
+        String repo = segments[2];
+        int index = getRepoIndex(repo);
+        if (myDeletedRepos.contains(owner + "/" + repo)) {
+            return notFound();
+        }
+        if (segments.length == 3) {
+            if ("DELETE".equals(method)) {
+                if (owner.equalsIgnoreCase(myData.getLogin())) {
+                    myUserRepos.remove(repo);
+                }
+                myDeletedRepos.add(owner + "/" + repo);
+                return new Response(204, null);
+            }
+            return json(200, writer -> GithubFixtures.writeRepoDetailed(writer, owner, repo, index));
+        }
+
+        switch (segments[3]) {
+            case "branches":
+                return page(path, query, myData.getBranchesPerRepo(), (writer, i) -> GithubFixtures.writeBranch(writer, owner, repo, i));
+            case "forks":
+                // the fork of the authenticated user is the last one
+                int forks = myData.getForksPerRepo();
+                return page(path, query, forks, (writer, i) -> GithubFixtures.writeRepo(
+                    writer,
+                    i == forks - 1 ? myData.getLogin() : GithubFixtures.login(i + 2),
+                    repo,
+                    index
+                ));
+            case "issues":
+                return issues(path, query, owner, repo, segments);
+            case "pulls":
+                if ("POST".equals(method) && segments.length == 4) {
+                    int number = myData.getPullRequestsPerRepo() + myCreatedItems.incrementAndGet();
+                    return json(201, writer -> GithubFixtures.writePullRequest(writer, owner, repo, index, number, 0));
+                }
+                return pulls(path, query, owner, repo, index, segments);
+            case "commits":
+                if (segments.length == 5) {
+                    int commit = segments[4].hashCode() & 0xffff;
+                    return json(200, writer -> GithubFixtures.writeCommit(writer, owner, repo, commit, 20, myData.getPatchLines()));
+                }
+                break;
+        }
+        return notFound();
+    }
+
+    @Nonnull
+    private Response issues(
+        @Nonnull String path,
+        @Nonnull Map<String, String> query,
+        @Nonnull String owner,
+        @Nonnull String repo,
+        @Nonnull String[] segments
+    ) {
+        int bodyLength = myData.getIssueBodyLength();
+        if (segments.length == 4) {
+            int[] issues = filterIssues(query);
+            return page(path, query, issues.length, (writer, i) -> GithubFixtures.writeIssue(writer, owner, repo, issues[i], bodyLength));
+        }
+
+        int number = parseInt(segments[4], -1);
+        if (number < 1 || number > myData.getIssuesPerRepo()) {
+            return notFound();
+        }
+        if (segments.length == 5) {
+            return json(200, writer -> GithubFixtures.writeIssue(writer, owner, repo, number, bodyLength));
+        }
+        if (segments.length == 6 && "comments".equals(segments[5])) {
+            return page(path, query, GithubFixtures.getIssueComments(number), (writer, i) -> GithubFixtures.writeComment(writer, owner, repo, number, i));
+        }
+        return notFound();
+    }
+
+    /**
+     * Supports the {@code state}, {@code assignee}, {@code since}, {@code sort} and {@code direction} parameters.
+     */
+    @Nonnull
+    private int[] filterIssues(@Nonnull Map<String, String> query) {
+        String state = query.getOrDefault("state", "open");
+        String assignee = query.get("assignee");
+        long since = query.containsKey("since") ? Instant.parse(query.get("since")).toEpochMilli() : Long.MIN_VALUE;
+        boolean ascending = "asc".equals(query.get("direction"));
+
+        int count = myData.getIssuesPerRepo();
+        IntStream numbers;
+        if ("updated".equals(query.get("sort"))) {
+            int[] byUpdate = myIssuesByUpdate.computeIfAbsent(count, key -> IntStream.rangeClosed(1, key)
+                .boxed()
+                .sorted(Comparator.comparingLong(GithubFixtures::getIssueUpdatedAt))
+                .mapToInt(Integer::intValue)
+                .toArray());
+            numbers = IntStream.range(0, count).map(i -> byUpdate[ascending ? i : count - 1 - i]);
+        }
+        else {
+            numbers = IntStream.rangeClosed(1, count).map(i -> ascending ? i : count + 1 - i);
+        }
+        return numbers
+            .filter(number -> "all".equals(state) || GithubFixtures.isIssueClosed(number) == "closed".equals(state))
+            .filter(number -> GithubFixtures.getIssueUpdatedAt(number) >= since)
+            .filter(number -> {
+                if (assignee == null) {
+                    return true;
+                }
+                String actual = GithubFixtures.getIssueAssignee(number);
+                if ("none".equals(assignee)) {
+                    return actual == null;
+                }
+                return "*".equals(assignee) ? actual != null : assignee.equalsIgnoreCase(actual);
+            })
+            .toArray();
+    }
+
+    /**
+     * Matches the words of the query against the issue titles. The repository is given with {@code repo:}
+     * or, in the legacy syntax, with {@code @}.
+     */
+    @Nonnull
+    private Response searchIssues(@Nonnull String path, @Nonnull Map<String, String> query) {
+        String owner = null;
+        String repo = null;
+        String state = null;
+        List<String> words = new ArrayList<>();
+        for (String term : query.getOrDefault("q", "").trim().split("\\s+")) {
+            String lower = term.toLowerCase(Locale.ROOT);
+            if (lower.startsWith("@") || lower.startsWith("repo:")) {
+                String[] fullName = term.substring(term.indexOf(lower.startsWith("@") ? '@' : ':') + 1).split("/", 2);
+                owner = fullName[0];
+                repo = fullName.length > 1 ? fullName[1] : "";
+            }
+            else if (lower.startsWith("state:") || lower.startsWith("is:")) {
+                state = lower.substring(lower.indexOf(':') + 1);
+            }
+            else if (!lower.isEmpty() && !"null".equals(lower)) {
+                words.add(lower);
+            }
+        }
+        if (owner == null) {
+            return error(422, "Validation Failed");
+        }
+
+        String issueState = state;
+        int[] found = IntStream.rangeClosed(1, myData.getIssuesPerRepo())
+            .map(i -> myData.getIssuesPerRepo() + 1 - i)
+            .filter(number -> issueState == null || GithubFixtures.isIssueClosed(number) == "closed".equals(issueState))
+            .filter(number -> {
+                String title = GithubFixtures.getIssueTitle(number).toLowerCase(Locale.ROOT);
+                return words.stream().allMatch(title::contains);
+            })
+            .toArray();
+
+        String issueOwner = owner;
+        String issueRepo = repo;
+        int perPage = getPerPage(query);
+        int page = Math.max(1, parseInt(query.get("page"), 1));
+        int from = Math.min(found.length, (page - 1) * perPage);
+        int to = Math.min(found.length, from + perPage);
+        Response response = json(200, writer -> {
+            writer.beginObject();
+            writer.name("total_count").value(found.length);
+            writer.name("incomplete_results").value(false);
+            writer.name("items");
+            writer.beginArray();
+            for (int i = from; i < to; i++) {
+                GithubFixtures.writeIssue(writer, issueOwner, issueRepo, found[i], myData.getIssueBodyLength());
+            }
+            writer.endArray();
+            writer.endObject();
+        });
+        addLinks(response, path, query, page, getPageCount(found.length, perPage));
+        return response;
+    }
+
+    @Nonnull
+    private Response pulls(
+        @Nonnull String path,
+        @Nonnull Map<String, String> query,
+        @Nonnull String owner,
+        @Nonnull String repo,
+        int index,
+        @Nonnull String[] segments
+    ) {
+        int count = myData.getPullRequestsPerRepo();
+        if (segments.length == 4) {
+            String state = query.getOrDefault("state", "open");
+            int[] pulls = IntStream.rangeClosed(1, count)
+                .map(i -> count + 1 - i)
+                .filter(number -> "all".equals(state) || GithubFixtures.isIssueClosed(number) == "closed".equals(state))
+                .toArray();
+            return page(path, query, pulls.length, (writer, i) -> GithubFixtures.writePullRequest(writer, owner, repo, index, pulls[i], 1000));
+        }
+
+        int number = parseInt(segments[4], -1);
+        if (number < 1 || number > count) {
+            return notFound();
+        }
+        if (segments.length == 5) {
+            return json(200, writer -> GithubFixtures.writePullRequest(writer, owner, repo, index, number, 1000));
+        }
+        switch (segments[5]) {
+            case "commits":
+                return page(path, query, GithubFixtures.getPullRequestCommits(number), (writer, i) -> GithubFixtures.writeCommit(writer, owner, repo, number * 10 + i, 0, 0));
+            case "files":
+                return page(path, query, myData.getFilesPerPullRequest(), (writer, i) -> GithubFixtures.writeFile(writer, owner, repo, number * 1000 + i, myData.getPatchLines()));
+        }
+        return notFound();
+    }
+
+    @Nonnull
+    private Response userRepos(@Nonnull String path, @Nonnull Map<String, String> query) {
+        String[] repos;
+        synchronized (myUserRepos) {
+            repos = myUserRepos.toArray(new String[0]);
+        }
+        return page(path, query, repos.length, (writer, i) -> GithubFixtures.writeRepo(writer, myData.getLogin(), repos[i], getRepoIndex(repos[i])));
+    }
+
+    @Nonnull
+    private Response createRepo(@Nonnull JsonObject request) {
+        String name = getString(request, "name");
+        if (name == null) {
+            return error(422, "Validation Failed");
+        }
+        synchronized (myUserRepos) {
+            if (myUserRepos.contains(name)) {
+                return error(422, "Repository creation failed.");
+            }
+            myUserRepos.add(name);
+        }
+        myDeletedRepos.remove(myData.getLogin() + "/" + name);
+        return json(201, writer -> GithubFixtures.writeRepo(writer, myData.getLogin(), name, getRepoIndex(name)));
+    }
+
+    @Nonnull
+    private Response createGist(@Nonnull JsonObject request) {
+        String id = Integer.toHexString(0x10000000 + myCreatedItems.incrementAndGet());
+        Map<String, String> files = new LinkedHashMap<>();
+        JsonElement requestFiles = request.get("files");
+        if (requestFiles != null && requestFiles.isJsonObject()) {
+            for (Map.Entry<String, JsonElement> file : requestFiles.getAsJsonObject().entrySet()) {
+                String content = file.getValue().isJsonObject() ? getString(file.getValue().getAsJsonObject(), "content") : null;
+                files.put(file.getKey(), content != null ? content : "");
+            }
+        }
+        JsonElement isPublic = request.get("public");
+        byte[] gist = GithubFixtures.write(writer -> GithubFixtures.writeGist(
+            writer,
+            myData.getLogin(),
+            id,
+            getString(request, "description"),
+            isPublic != null && isPublic.isJsonPrimitive() && isPublic.getAsBoolean(),
+            files
+        ));
+        myGists.put(id, gist);
+        return new Response(201, gist);
+    }
+
+    @Nonnull
+    private Response createAuthorization(@Nonnull JsonObject request) {
+        int id = myCreatedItems.incrementAndGet();
+        List<String> scopes = new ArrayList<>();
+        JsonElement requestScopes = request.get("scopes");
+        if (requestScopes != null && requestScopes.isJsonArray()) {
+            for (JsonElement scope : (JsonArray)requestScopes) {
+                scopes.add(scope.getAsString());
+            }
+        }
+        return json(201, writer -> GithubFixtures.writeAuthorization(writer, id, "mock-token-" + id, getString(request, "note"), scopes));
+    }
+
+    @Nonnull
+    private Response page(@Nonnull String path, @Nonnull Map<String, String> query, int total, @Nonnull ItemWriter items) {
+        int perPage = getPerPage(query);
+        int page = Math.max(1, parseInt(query.get("page"), 1));
+        int from = Math.min(total, (page - 1) * perPage);
+        int to = Math.min(total, from + perPage);
+        Response response = json(200, writer -> {
+            writer.beginArray();
+            for (int i = from; i < to; i++) {
+                items.write(writer, i);
+            }
+            writer.endArray();
+        });
+        addLinks(response, path, query, page, getPageCount(total, perPage));
+        return response;
+    }
+
+    private void addLinks(@Nonnull Response response, @Nonnull String path, @Nonnull Map<String, String> query, int page, int pages) {
+        List<String> links = new ArrayList<>();
+        if (page < pages) {
+            links.add(link(path, query, page + 1, "next"));
+            links.add(link(path, query, pages, "last"));
+        }
+        if (page > 1) {
+            links.add(link(path, query, 1, "first"));
+            links.add(link(path, query, Math.min(page, pages + 1) - 1, "prev"));
+        }
+        if (!links.isEmpty()) {
+            response.myHeaders.put("Link", String.join(", ", links));
+        }
+    }
+
+    @Nonnull
+    private String link(@Nonnull String path, @Nonnull Map<String, String> query, int page, @Nonnull String rel) {
+        StringBuilder uri = new StringBuilder(getApiUrl()).append(path);
+        Map<String, String> parameters = new LinkedHashMap<>(query);
+        parameters.put("page", String.valueOf(page));
+        char separator = '?';
+        for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+            uri.append(separator).append(parameter.getKey()).append('=')
+                .append(URLEncoder.encode(parameter.getValue(), StandardCharsets.UTF_8));
+            separator = '&';
+        }
+        return "<" + uri + ">; rel=\"" + rel + "\"";
+    }
+
+    private static int getPerPage(@Nonnull Map<String, String> query) {
+        return Math.max(1, Math.min(MAX_PER_PAGE, parseInt(query.get("per_page"), DEFAULT_PER_PAGE)));
+    }
+
+    private static int getPageCount(int total, int perPage) {
+        return Math.max(1, (total + perPage - 1) / perPage);
+    }
+
+    @Nonnull
+    private Response rateLimit() {
+        return json(200, writer -> {
+            writer.beginObject();
+            writer.name("resources").beginObject();
+            for (String resource : List.of("core", "search")) {
+                int limit = "search".equals(resource) ? SEARCH_RATE_LIMIT : CORE_RATE_LIMIT;
+                int remaining = getRateLimitRemaining(resource);
+                writer.name(resource).beginObject();
+                writer.name("limit").value(limit);
+                writer.name("remaining").value(remaining);
+                writer.name("reset").value(myRateLimitReset);
+                writer.name("used").value(Math.max(0, limit - remaining));
+                writer.endObject();
+            }
+            writer.endObject();
+            writer.endObject();
+        });
+    }
+
+    private void addRateLimitHeaders(@Nonnull Response response, @Nonnull String resource, int remaining) {
+        int limit = "search".equals(resource) ? SEARCH_RATE_LIMIT : CORE_RATE_LIMIT;
+        response.myHeaders.put("X-RateLimit-Limit", String.valueOf(limit));
+        response.myHeaders.put("X-RateLimit-Remaining", String.valueOf(remaining));
+        response.myHeaders.put("X-RateLimit-Used", String.valueOf(Math.max(0, limit - remaining)));
+        response.myHeaders.put("X-RateLimit-Reset", String.valueOf(myRateLimitReset));
+        response.myHeaders.put("X-RateLimit-Resource", resource);
+    }
+
+    @Nonnull
+    private AtomicInteger getRateLimitCounter(@Nonnull String resource) {
+        return myRateLimitRemaining.computeIfAbsent(resource, key -> new AtomicInteger(CORE_RATE_LIMIT));
+    }
+
+    private void delay() throws InterruptedIOException {
+        long jitter = myJitterMillis;
+        long delay = myLatencyMillis + (jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter + 1) : 0);
+        sleep(delay);
+    }
+
+    private void write(@Nonnull OutputStream out, @Nonnull byte[] body) throws IOException {
+        long bytesPerSecond = myBytesPerSecond;
+        if (bytesPerSecond <= 0) {
+            out.write(body);
+            return;
+        }
+        long start = System.nanoTime();
+        for (int offset = 0; offset < body.length; offset += CHUNK_SIZE) {
+            int length = Math.min(CHUNK_SIZE, body.length - offset);
+            out.write(body, offset, length);
+            out.flush();
+            long due = TimeUnit.SECONDS.toNanos(offset + length) / bytesPerSecond;
+            sleep(TimeUnit.NANOSECONDS.toMillis(due - (System.nanoTime() - start)));
+        }
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    /**
+     * Repositories are named by {@link GithubFixtures#repoName}, which ends with the index of the repository.
+     */
+    private static int getRepoIndex(@Nonnull String name) {
+        int index = parseInt(name.substring(name.lastIndexOf('-') + 1), -1);
+        return index >= 0 ? index : 5000000 + (name.hashCode() & 0xfffff);
+    }
+
+    private int getOrgIndex(@Nonnull String org) {
+        for (int i = 0; i < myData.getOrgs(); i++) {
+            if (GithubMockData.getOrgName(i).equalsIgnoreCase(org)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Nonnull
+    private static String getWatchedOwner(int index) {
+        return GithubFixtures.login(200 + index % 50);
+    }
+
+    private static int getWatchedIndex(int index) {
+        return 1000000 + index;
+    }
+
+    @Nonnull
+    private static String getETag(@Nonnull byte[] body) {
+        return "W/\"" + Integer.toHexString(Arrays.hashCode(body)) + Integer.toHexString(body.length) + "\"";
+    }
+
+    @Nonnull
+    private static JsonObject parseJson(@Nonnull byte[] body) {
+        JsonElement json = JsonParser.parseString(new String(body, StandardCharsets.UTF_8));
+        return json.isJsonObject() ? json.getAsJsonObject() : new JsonObject();
+    }
+
+    @Nullable
+    private static String getString(@Nonnull JsonObject json, @Nonnull String name) {
+        JsonElement element = json.get(name);
+        return element != null && element.isJsonPrimitive() ? element.getAsString() : null;
+    }
+
+    @Nonnull
+    private static Map<String, String> parseQuery(@Nullable String query) {
+        Map<String, String> parameters = new LinkedHashMap<>();
+        if (query == null) {
+            return parameters;
+        }
+        for (String parameter : query.split("&")) {
+            int eq = parameter.indexOf('=');
+            if (eq > 0) {
+                parameters.put(
+                    URLDecoder.decode(parameter.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(parameter.substring(eq + 1), StandardCharsets.UTF_8)
+                );
+            }
+        }
+        return parameters;
+    }
+
+    private static int parseInt(@Nullable String value, int defaultValue) {
+        try {
+            return value == null ? defaultValue : Integer.parseInt(value);
+        }
+        catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    @Nonnull
+    private static Response json(int status, @Nonnull GithubFixtures.JsonContent content) {
+        return new Response(status, GithubFixtures.write(content));
+    }
+
+    @Nonnull
+    private static Response error(int status, @Nonnull String message) {
+        return json(status, writer -> {
+            writer.beginObject();
+            writer.name("message").value(message);
+            writer.name("documentation_url").value("https://docs.github.com/rest");
+            writer.endObject();
+        });
+    }
+
+    @Nonnull
+    private static Response notFound() {
+        return error(404, "Not Found");
+    }
+
+    @Nonnull
+    private static SSLContext createSslContext() throws IOException {
+        try (InputStream keystore = GithubMockServer.class.getResourceAsStream(KEYSTORE)) {
+            if (keystore == null) {
+                throw new IOException("No " + KEYSTORE + " resource");
+            }
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(keystore, KEYSTORE_PASSWORD);
+
+            KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            keyManagers.init(keyStore, KEYSTORE_PASSWORD);
+            TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+            trustManagers.init(keyStore);
+
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(keyManagers.getKeyManagers(), trustManagers.getTrustManagers(), null);
+            return context;
+        }
+        catch (GeneralSecurityException e) {
+            throw new IOException("Can't initialize SSL context", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ItemWriter {
+        void write(@Nonnull JsonWriter writer, int index) throws IOException;
+    }
+
+    private static final class Response {
+        private final int myStatus;
+        @Nullable
+        private final byte[] myBody;
+        private final Map<String, String> myHeaders = new LinkedHashMap<>();
+
+        Response(int status, @Nullable byte[] body) {
+            myStatus = status;
+            myBody = body;
+        }
+    }
+
+    /**
+     * Request received by the server.
+     */
+    public static final class RecordedRequest {
+        @Nonnull
+        private final String myMethod;
+        @Nonnull
+        private final String myUri;
+        private final int myStatus;
+        private final long myResponseBytes;
+        private final long myStartNanos;
+        private final long myDurationNanos;
+
+        RecordedRequest(@Nonnull String method, @Nonnull String uri, int status, long responseBytes, long startNanos, long durationNanos) {
+            myMethod = method;
+            myUri = uri;
+            myStatus = status;
+            myResponseBytes = responseBytes;
+            myStartNanos = startNanos;
+            myDurationNanos = durationNanos;
+        }
+
+        @Nonnull
+        public String getMethod() {
+            return myMethod;
+        }
+
+        /**
+         * @return path relative to the API url, with the query
+         */
+        @Nonnull
+        public String getUri() {
+            return myUri;
+        }
+
+        public int getStatus() {
+            return myStatus;
+        }
+
+        public long getResponseBytes() {
+            return myResponseBytes;
+        }
+
+        /**
+         * @return {@link System#nanoTime()} when the request was received
+         */
+        public long getStartNanos() {
+            return myStartNanos;
+        }
+
+        public long getDurationNanos() {
+            return myDurationNanos;
+        }
+
+        @Override
+        public String toString() {
+            return myMethod + " " + myUri + " " + myStatus + " " + myResponseBytes + "B "
+                + TimeUnit.NANOSECONDS.toMillis(myDurationNanos) + "ms";
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package org.jetbrains.plugins.github.performance;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.jetbrains.plugins.github.api.GithubHttpRequest;
+import org.jetbrains.plugins.github.api.GithubHttpResponse;
+import org.jetbrains.plugins.github.api.GithubTransport;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Transport to a {@link GithubMockServer}, trusting its self-signed certificate.
+ * It needs none of the IDE services the default transports read the proxy and the trusted hosts from.
+ */
+public final class GithubMockTransport implements GithubTransport {
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    @Nonnull
+    private final HttpClient myClient;
+
+    public GithubMockTransport(@Nonnull SSLContext sslContext) {
+        // the JDK server speaks HTTP/1.1 only
+        myClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(TIMEOUT)
+            .sslContext(sslContext)
+            .build();
+    }
+
+    @Nonnull
+    @Override
+    public GithubHttpResponse execute(@Nonnull GithubHttpRequest request) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(request.getUri())).timeout(TIMEOUT);
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            builder.header(header.getKey(), header.getValue());
+        }
+        String body = request.getBody();
+        if (body != null) {
+            builder.header("Content-Type", "application/json; charset=UTF-8");
+            builder.method(request.getMethod(), HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8));
+        }
+        else {
+            builder.method(request.getMethod(), HttpRequest.BodyPublishers.noBody());
+        }
+
+        CompletableFuture<HttpResponse<InputStream>> future = myClient.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+        request.setAbortAction(() -> future.cancel(true));
+        HttpResponse<InputStream> response;
+        try {
+            response = future.get();
+        }
+        catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the mock server");
+        }
+        catch (CancellationException e) {
+            throw new InterruptedIOException("Request to the mock server aborted");
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException(e.getCause());
+        }
+        request.setAbortAction(() -> closeQuietly(response.body()));
+        return new MockResponse(response);
+    }
+
+    private static void closeQuietly(@Nonnull InputStream stream) {
+        try {
+            stream.close();
+        }
+        catch (IOException ignore) {
+        }
+    }
+
+    private static final class MockResponse implements GithubHttpResponse {
+        @Nonnull
+        private final HttpResponse<InputStream> myResponse;
+
+        MockResponse(@Nonnull HttpResponse<InputStream> response) {
+            myResponse = response;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return myResponse.statusCode();
+        }
+
+        @Nonnull
+        @Override
+        public String getStatusText() {
+            return String.valueOf(myResponse.statusCode());
+        }
+
+        @Nullable
+        @Override
+        public String getHeader(@Nonnull String name) {
+            return myResponse.headers().firstValue(name).orElse(null);
+        }
+
+        @Nullable
+        @Override
+        public InputStream getBody() {
+            return myResponse.body();
+        }
+
+        @Override
+        public void close() {
+            closeQuietly(myResponse.body());
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package org.jetbrains.plugins.github.api;
+
+import org.jetbrains.plugins.github.exceptions.GithubJsonException;
+import org.jetbrains.plugins.github.util.GithubAuthData;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GithubApiUtilTest {
+    private static final String BRANCHES = "/repos/owner/repo/branches?per_page=100";
+    private static final String ISSUES = "/repos/owner/repo/issues?state=open";
+    private static final Pattern PAGE_PARAMETERS = Pattern.compile("&per_page=(\\d+)&page=(\\d+)$");
+
+    @Test
+    public void testNextPageIsTakenFromLinkHeader() throws IOException {
+        try (GithubTestTransport transport = new GithubTestTransport((path, request) -> {
+            if (path.equals(BRANCHES)) {
+                return branches("main").withHeader("Link", link(request, BRANCHES + "&page=2", "next"));
+            }
+            return branches("feature");
+        })) {
+            GithubApiUtil.PagedRequest<GithubBranch> request =
+                new GithubApiUtil.PagedRequest<>(BRANCHES, GithubBranch.class, GithubBranchRaw.class).withParallelism(1);
+            GithubAuthData auth = GithubAuthData.createTokenAuth(transport.getHost(), "token");
+
+            assertEquals(List.of("main"), getNames(request.next(auth)));
+            assertTrue(request.hasNext());
+            assertEquals(List.of("feature"), getNames(request.next(auth)));
+            assertFalse(request.hasNext());
+            assertEquals(List.of(BRANCHES, BRANCHES + "&page=2"), transport.getRequests());
+        }
+    }
+
+    @Test
+    public void testPagesOfKnownRangeAreRequestedInOrder() throws IOException {
+        try (GithubTestTransport transport = new GithubTestTransport((path, request) -> {
+            if (path.equals(BRANCHES)) {
+                return branches("1").withHeader(
+                    "Link",
+                    link(request, BRANCHES + "&page=2", "next") + ", " + link(request, BRANCHES + "&page=3", "last")
+                );
+            }
+            return branches(path.substring(path.length() - 1));
+        })) {
+            GithubAuthData auth = GithubAuthData.createTokenAuth(transport.getHost(), "token");
+            List<GithubBranch> branches =
+                new GithubApiUtil.PagedRequest<>(BRANCHES, GithubBranch.class, GithubBranchRaw.class).getAll(auth);
+
+            assertEquals(List.of("1", "2", "3"), getNames(branches));
+            assertEquals(3, transport.getRequests().size());
+        }
+    }
+
+    @Test
+    public void testBrokenBodyIsRetried() throws IOException {
+        AtomicInteger attempts = new AtomicInteger();
+        try (GithubTestTransport transport = new GithubTestTransport((path, request) -> {
+            if (attempts.incrementAndGet() > 1) {
+                return branches("main", "feature");
+            }
+            // the connection is reset in the middle of the second element
+            return new GithubTestResponse(200, null) {
+                @Override
+                public InputStream getBody() {
+                    return new BrokenInputStream("[{\"name\":\"main\"},{\"na".getBytes(StandardCharsets.UTF_8));
+                }
+            };
+        })) {
+            GithubAuthData auth = GithubAuthData.createTokenAuth(transport.getHost(), "token");
+            List<GithubBranch> branches =
+                new GithubApiUtil.PagedRequest<>(BRANCHES, GithubBranch.class, GithubBranchRaw.class).getAll(auth);
+
+            assertEquals(List.of("main", "feature"), getNames(branches));
+            assertEquals(2, transport.getRequests().size());
+        }
+    }
+
+    @Test
+    public void testMalformedBodyIsNotRetried() throws IOException {
+        try (GithubTestTransport transport =
+                 new GithubTestTransport((path, request) -> new GithubTestResponse(200, "[{\"name\":\"main\"},{\"name\" 1}]"))) {
+            GithubAuthData auth = GithubAuthData.createTokenAuth(transport.getHost(), "token");
+            GithubApiUtil.PagedRequest<GithubBranch> request =
+                new GithubApiUtil.PagedRequest<>(BRANCHES, GithubBranch.class, GithubBranchRaw.class);
+
+            assertThrows(GithubJsonException.class, () -> request.getAll(auth));
+            assertEquals(1, transport.getRequests().size());
+        }
+    }
+
+    @Test
+    public void testRecordingKeepsWholeBody() throws IOException {
+        byte[] body = new byte[1000];
+        Arrays.fill(body, (byte)'x');
+        GithubApiUtil.RecordingInputStream recording = new GithubApiUtil.RecordingInputStream(new ByteArrayInputStream(body), 1000);
+        readAll(recording);
+
+        assertArrayEquals(body, recording.getRecorded());
+        assertEquals(0, GithubApiUtil.RecordingInputStream.getTotalRecorded());
+    }
+
+    @Test
+    public void testRecordingIsDroppedOverEntryLimit() throws IOException {
+        GithubApiUtil.RecordingInputStream recording =
+            new GithubApiUtil.RecordingInputStream(new ByteArrayInputStream(new byte[1001]), 1000);
+        readAll(recording);
+
+        assertNull(recording.getRecorded());
+        assertEquals(0, GithubApiUtil.RecordingInputStream.getTotalRecorded());
+    }
+
+    @Test
+    public void testRecordingsAreDroppedOverTotalLimit() throws IOException {
+        int size = (int)(GithubApiUtil.RecordingInputStream.MAX_TOTAL_RECORDED / 2 - 1);
+        List<GithubApiUtil.RecordingInputStream> recordings = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            GithubApiUtil.RecordingInputStream recording =
+                new GithubApiUtil.RecordingInputStream(new ByteArrayInputStream(new byte[size]), size);
+            readAll(recording);
+            recordings.add(recording);
+        }
+        assertTrue(GithubApiUtil.RecordingInputStream.getTotalRecorded() <= GithubApiUtil.RecordingInputStream.MAX_TOTAL_RECORDED);
+
+        assertNotNull(recordings.get(0).getRecorded());
+        assertNotNull(recordings.get(1).getRecorded());
+        assertNull(recordings.get(2).getRecorded());
+        assertEquals(0, GithubApiUtil.RecordingInputStream.getTotalRecorded());
+    }
+
+    @Test
+    public void testWindowWithinPageTakesOnePage() throws IOException {
+        assertWindow(0, 20, 250, List.of(ISSUES + "&per_page=20&page=1"), 1, 20);
+        assertWindow(20, 20, 250, List.of(ISSUES + "&per_page=20&page=2"), 21, 40);
+        // the smallest page size that fits the window into one page
+        assertWindow(10, 20, 250, List.of(ISSUES + "&per_page=30&page=1"), 11, 30);
+        assertWindow(45, 10, 250, List.of(ISSUES + "&per_page=11&page=5"), 46, 55);
+    }
+
+    @Test
+    public void testWindowLargerThanPageTakesSeveralPages() throws IOException {
+        assertWindow(
+            150,
+            100,
+            250,
+            List.of(ISSUES + "&per_page=100&page=2", ISSUES + "&per_page=100&page=3"),
+            151,
+            250
+        );
+        assertWindow(
+            0,
+            150,
+            250,
+            List.of(ISSUES + "&per_page=100&page=1", ISSUES + "&per_page=100&page=2"),
+            1,
+            150
+        );
+    }
+
+    @Test
+    public void testWindowPastEndIsCut() throws IOException {
+        assertWindow(240, 20, 250, List.of(ISSUES + "&per_page=20&page=13"), 241, 250);
+        // a short page ends the collection, the next one is not requested
+        assertWindow(
+            0,
+            150,
+            120,
+            List.of(ISSUES + "&per_page=100&page=1", ISSUES + "&per_page=100&page=2"),
+            1,
+            120
+        );
+        assertWindow(0, 150, 80, List.of(ISSUES + "&per_page=100&page=1"), 1, 80);
+        assertWindow(300, 20, 250, List.of(ISSUES + "&per_page=20&page=16"), 0, -1);
+    }
+
+    @Test
+    public void testEmptyWindowIsNotRequested() throws IOException {
+        assertWindow(40, 0, 250, List.of(), 0, -1);
+    }
+
+    /**
+     * Reads the window from a collection of issues numbered from 1 to {@code total}.
+     */
+    private static void assertWindow(int offset, int limit, int total, List<String> requests, int first, int last)
+        throws IOException {
+        try (GithubTestTransport transport = new GithubTestTransport((path, request) -> {
+            Matcher matcher = PAGE_PARAMETERS.matcher(path);
+            assertTrue(matcher.find(), path);
+            int perPage = Integer.parseInt(matcher.group(1));
+            int page = Integer.parseInt(matcher.group(2));
+            return issues((page - 1) * perPage + 1, Math.min(page * perPage, total));
+        })) {
+            GithubAuthData auth = GithubAuthData.createTokenAuth(transport.getHost(), "token");
+            List<GithubIssue> issues = GithubApiUtil.getIssuesAssigned(auth, "owner", "repo", null, offset, limit, false);
+
+            List<Long> numbers = new ArrayList<>();
+            for (GithubIssue issue : issues) {
+                numbers.add(issue.getNumber());
+            }
+            List<Long> expected = new ArrayList<>();
+            for (long number = first; number <= last; number++) {
+                expected.add(number);
+            }
+            assertEquals(expected, numbers);
+            assertEquals(requests, transport.getRequests());
+        }
+    }
+
+    private static GithubTestResponse issues(int first, int last) {
+        StringBuilder json = new StringBuilder("[");
+        for (int number = first; number <= last; number++) {
+            json.append(json.length() > 1 ? "," : "").append("{\"number\":").append(number)
+                .append(",\"state\":\"open\",\"title\":\"Issue ").append(number).append("\",")
+                .append("\"html_url\":\"https://github.com/owner/repo/issues/").append(number).append("\",")
+                .append("\"user\":{\"login\":\"author\",\"html_url\":\"https://github.com/author\"},")
+                .append("\"created_at\":\"2024-03-01T12:00:00Z\",\"updated_at\":\"2024-03-01T12:00:00Z\"}");
+        }
+        return new GithubTestResponse(200, json.append(']').toString());
+    }
+
+    private static String link(GithubHttpRequest request, String path, String rel) {
+        String uri = request.getUri();
+        String apiUrl = uri.substring(0, uri.indexOf("/api/v3") + "/api/v3".length());
+        return "<" + apiUrl + path + ">; rel=\"" + rel + "\"";
+    }
+
+    private static void readAll(InputStream in) throws IOException {
+        try (in) {
+            byte[] buffer = new byte[4096];
+            while (in.read(buffer, 0, buffer.length) >= 0) {
+            }
+        }
+    }
+
+    /**
+     * Returns the given bytes, then fails like a connection reset by the server.
+     */
+    private static class BrokenInputStream extends FilterInputStream {
+        BrokenInputStream(byte[] bytes) {
+            super(new ByteArrayInputStream(bytes));
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b < 0) {
+                throw new SocketException("Connection reset");
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = super.read(b, off, len);
+            if (count < 0) {
+                throw new SocketException("Connection reset");
+            }
+            return count;
+        }
+    }
+
+    private static GithubTestResponse branches(String... names) {
+        StringBuilder json = new StringBuilder("[");
+        for (String name : names) {
+            json.append(json.length() > 1 ? "," : "").append("{\"name\":\"").append(name).append("\"}");
+        }
+        return new GithubTestResponse(200, json.append(']').toString());
+    }
+
+    private static List<String> getNames(List<GithubBranch> branches) {
+        List<String> names = new ArrayList<>();
+        for (GithubBranch branch : branches) {
+            names.add(branch.getName());
+        }
+        return names;
+    }
+}
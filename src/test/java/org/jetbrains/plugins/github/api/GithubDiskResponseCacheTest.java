@@ -0,0 +1,75 @@
+package org.jetbrains.plugins.github.api;
+
+import org.jetbrains.plugins.github.util.GithubAuthData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GithubDiskResponseCacheTest {
+    private static final GithubAuthData AUTH = GithubAuthData.createTokenAuth("github.example.com", "token-1");
+
+    @TempDir
+    Path myRoot;
+
+    @Test
+    public void testEntryIsReadBack() {
+        GithubDiskResponseCache cache = new GithubDiskResponseCache(myRoot);
+        cache.write(AUTH, "key", "\"etag\"", null, "next", null, bytes("[1, 2, 3]"));
+
+        GithubResponseCache.Entry entry = cache.read(AUTH, "key");
+        assertNotNull(entry);
+        assertEquals("\"etag\"", entry.getETag());
+        assertEquals("next", entry.getNextPage());
+        assertArrayEquals(bytes("[1, 2, 3]"), entry.getBody());
+    }
+
+    @Test
+    public void testEntryOfAnotherAccountIsNotRead() {
+        GithubDiskResponseCache cache = new GithubDiskResponseCache(myRoot);
+        cache.write(AUTH, "key", "\"etag\"", null, null, null, bytes("[]"));
+
+        assertNull(cache.read(GithubAuthData.createTokenAuth("github.example.com", "token-2"), "key"));
+    }
+
+    @Test
+    public void testOverwriteDoesNotInflateTotalSize() throws IOException {
+        GithubDiskResponseCache cache = new GithubDiskResponseCache(myRoot);
+        cache.write(AUTH, "first", "\"1\"", null, null, null, bytes("first body"));
+        for (int i = 0; i < 10; i++) {
+            cache.write(AUTH, "second", "\"" + i + "\"", null, null, null, bytes("second body " + i));
+        }
+        assertEquals(getSizeOnDisk(), cache.getTotalSize());
+
+        cache.remove(AUTH, "first");
+        assertEquals(getSizeOnDisk(), cache.getTotalSize());
+    }
+
+    @Test
+    public void testSecretKeyIsDerivedPerAccount() throws Exception {
+        SecretKeySpec key = GithubDiskResponseCache.deriveSecretKey("github.com", "token-1");
+
+        assertEquals(32, key.getEncoded().length);
+        assertArrayEquals(key.getEncoded(), GithubDiskResponseCache.deriveSecretKey("github.com", "token-1").getEncoded());
+        assertFalse(Arrays.equals(key.getEncoded(), GithubDiskResponseCache.deriveSecretKey("github.com", "token-2").getEncoded()));
+        assertFalse(Arrays.equals(key.getEncoded(), GithubDiskResponseCache.deriveSecretKey("github.example.com", "token-1").getEncoded()));
+    }
+
+    private long getSizeOnDisk() throws IOException {
+        try (Stream<Path> files = Files.walk(myRoot)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,41 @@
+package org.jetbrains.plugins.github.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GithubJdkTransportTest {
+    private static final URI REQUEST_URI = URI.create("https://github.example.com/api/v3/repos/owner/repo");
+
+    @Test
+    public void testRedirectWithinHostIsFollowed() {
+        assertEquals(
+            URI.create("https://github.example.com/api/v3/repositories/42"),
+            GithubJdkTransport.getSameHostRedirect(REQUEST_URI, redirect(301, "/api/v3/repositories/42"))
+        );
+        assertEquals(
+            URI.create("https://GitHub.example.com/api/v3/repositories/42"),
+            GithubJdkTransport.getSameHostRedirect(REQUEST_URI, redirect(307, "https://GitHub.example.com/api/v3/repositories/42"))
+        );
+    }
+
+    @Test
+    public void testRedirectToAnotherHostIsNotFollowed() {
+        assertNull(GithubJdkTransport.getSameHostRedirect(REQUEST_URI, redirect(302, "https://evil.example.com/api/v3/repos/owner/repo")));
+        assertNull(GithubJdkTransport.getSameHostRedirect(REQUEST_URI, redirect(302, "//evil.example.com/repos")));
+        assertNull(GithubJdkTransport.getSameHostRedirect(REQUEST_URI, redirect(302, "http://github.example.com/api/v3/repos")));
+        assertNull(GithubJdkTransport.getSameHostRedirect(REQUEST_URI, redirect(302, "https://github.example.com:8443/api/v3/repos")));
+    }
+
+    @Test
+    public void testOtherResponsesAreNotRedirects() {
+        assertNull(GithubJdkTransport.getSameHostRedirect(REQUEST_URI, redirect(200, "/api/v3/repositories/42")));
+        assertNull(GithubJdkTransport.getSameHostRedirect(REQUEST_URI, new GithubTestResponse(301, null)));
+    }
+
+    private static GithubHttpResponse redirect(int status, String location) {
+        return new GithubTestResponse(status, null).withHeader("Location", location);
+    }
+}
@@ -0,0 +1,109 @@
+package org.jetbrains.plugins.github.api;
+
+import org.jetbrains.plugins.github.exceptions.GithubRateLimitException;
+import org.jetbrains.plugins.github.util.GithubAuthData;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GithubRateLimiterTest {
+    private static final GithubAuthData AUTH = GithubAuthData.createTokenAuth("github.example.com", "token");
+    private static final String ISSUES = "/repos/owner/repo/issues";
+    private static final String SEARCH = "/search/issues?q=bug";
+
+    private final GithubRateLimiter myLimiter = new GithubRateLimiter();
+    private final long myNow = System.currentTimeMillis();
+
+    @Test
+    public void testUnknownLimitIsNotPaced() throws IOException {
+        assertEquals(0, myLimiter.reserve(AUTH, ISSUES, myNow, true));
+        assertEquals(0, myLimiter.reserve(AUTH, ISSUES, myNow, false));
+    }
+
+    @Test
+    public void testBackgroundRequestsArePacedWhenHeadroomIsLow() throws IOException {
+        myLimiter.update(AUTH, "core", 100, 50, myNow + 10000);
+        assertEquals(0, myLimiter.reserve(AUTH, ISSUES, myNow, true));
+        assertEquals(0, myLimiter.reserve(AUTH, ISSUES, myNow, true));
+
+        // 15 requests left, 5 of them kept for interactive ones: the other 10 are spread over the 10 seconds left
+        myLimiter.update(AUTH, "core", 100, 15, myNow + 10000);
+        assertEquals(0, myLimiter.reserve(AUTH, ISSUES, myNow, true));
+        assertEquals(1000, myLimiter.reserve(AUTH, ISSUES, myNow, true));
+        assertEquals(1000 + 10000 / 9, myLimiter.reserve(AUTH, ISSUES, myNow, true));
+        assertEquals(0, myLimiter.reserve(AUTH, ISSUES, myNow, false));
+    }
+
+    @Test
+    public void testBackgroundRequestsAreDeferredToKeepReserve() throws IOException {
+        myLimiter.update(AUTH, "core", 100, 5, myNow + 30000);
+        assertEquals(30000, myLimiter.reserve(AUTH, ISSUES, myNow, true));
+        assertEquals(0, myLimiter.reserve(AUTH, ISSUES, myNow, false));
+
+        myLimiter.update(AUTH, "core", 100, 5, myNow + 120000);
+        GithubRateLimitException e =
+            assertThrows(GithubRateLimitException.class, () -> myLimiter.reserve(AUTH, ISSUES, myNow, true));
+        assertEquals(myNow + 120000, e.getRetryTime());
+    }
+
+    @Test
+    public void testExhaustedLimitStopsRequestsUntilReset() throws IOException {
+        myLimiter.update(AUTH, "core", 100, 0, myNow + 5000);
+        GithubRateLimitException e =
+            assertThrows(GithubRateLimitException.class, () -> myLimiter.reserve(AUTH, ISSUES, myNow, false));
+        assertEquals(myNow + 5000, e.getRetryTime());
+        assertEquals(5000, myLimiter.reserve(AUTH, ISSUES, myNow, true));
+
+        assertEquals(0, myLimiter.reserve(AUTH, ISSUES, myNow + 5000, false));
+    }
+
+    @Test
+    public void testBlockStopsRequestsOfResource() throws IOException {
+        myLimiter.block(AUTH, ISSUES, myNow + 5000);
+
+        assertThrows(GithubRateLimitException.class, () -> myLimiter.reserve(AUTH, ISSUES, myNow, false));
+        assertEquals(5000, myLimiter.reserve(AUTH, ISSUES, myNow, true));
+        assertEquals(0, myLimiter.reserve(AUTH, SEARCH, myNow, false));
+        assertEquals(0, myLimiter.reserve(AUTH, "/rate_limit", myNow, false));
+    }
+
+    @Test
+    public void testResourceIsTakenFromHeaders() throws IOException {
+        myLimiter.update(
+            AUTH,
+            ISSUES,
+            new GithubTestResponse(200, "{}")
+                .withHeader("X-RateLimit-Limit", "30")
+                .withHeader("X-RateLimit-Remaining", "0")
+                .withHeader("X-RateLimit-Reset", String.valueOf(myNow / 1000 + 60))
+                .withHeader("X-RateLimit-Resource", "search")
+        );
+
+        assertThrows(GithubRateLimitException.class, () -> myLimiter.reserve(AUTH, SEARCH, myNow, false));
+        assertEquals(0, myLimiter.reserve(AUTH, ISSUES, myNow, false));
+    }
+
+    @Test
+    public void testLateResponseDoesNotRestoreBudget() throws IOException {
+        myLimiter.update(AUTH, "core", 100, 50, myNow + 20000);
+        // a response of the previous window
+        myLimiter.update(AUTH, "core", 100, 0, myNow + 10000);
+        assertEquals(0, myLimiter.reserve(AUTH, ISSUES, myNow, false));
+
+        // requests reserved but not answered yet still count
+        myLimiter.update(AUTH, "core", 100, 10, myNow + 20000);
+        myLimiter.update(AUTH, "core", 100, 50, myNow + 20000);
+        assertEquals(0, myLimiter.reserve(AUTH, ISSUES, myNow, true));
+        assertTrue(myLimiter.reserve(AUTH, ISSUES, myNow, true) > 0);
+    }
+
+    @Test
+    public void testAccountsHaveSeparateLimits() throws IOException {
+        myLimiter.update(AUTH, "core", 100, 0, myNow + 5000);
+
+        GithubAuthData other = GithubAuthData.createTokenAuth("github.example.com", "other-token");
+        assertEquals(0, myLimiter.reserve(other, ISSUES, myNow, false));
+    }
+}
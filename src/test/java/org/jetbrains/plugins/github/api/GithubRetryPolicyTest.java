@@ -0,0 +1,93 @@
+package org.jetbrains.plugins.github.api;
+
+import org.apache.commons.httpclient.HttpStatus;
+import org.jetbrains.plugins.github.exceptions.GithubRateLimitException;
+import org.jetbrains.plugins.github.exceptions.GithubStatusCodeException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GithubRetryPolicyTest {
+    @Test
+    public void testGatewayErrorIsRetried() throws IOException {
+        new GithubRetryPolicy(true).onFailure(new GithubStatusCodeException("Bad gateway", HttpStatus.SC_BAD_GATEWAY));
+    }
+
+    @Test
+    public void testClientErrorIsNotRetried() {
+        IOException e = new GithubStatusCodeException("Not found", HttpStatus.SC_NOT_FOUND);
+        assertSame(e, assertThrows(IOException.class, () -> new GithubRetryPolicy(true).onFailure(e)));
+    }
+
+    @Test
+    public void testAttemptsAreLimited() throws IOException {
+        GithubRetryPolicy policy = new GithubRetryPolicy(true);
+        IOException e = new GithubStatusCodeException("Gateway timeout", HttpStatus.SC_GATEWAY_TIMEOUT);
+        // the fourth failed attempt is the last one
+        policy.onFailure(e);
+        policy.onFailure(e);
+        policy.onFailure(e);
+        assertSame(e, assertThrows(IOException.class, () -> policy.onFailure(e)));
+    }
+
+    @Test
+    public void testNonIdempotentRequestIsRetriedOnlyIfNotSent() throws IOException {
+        IOException timeout = new SocketTimeoutException("Read timed out");
+        assertSame(timeout, assertThrows(IOException.class, () -> new GithubRetryPolicy(false).onFailure(timeout)));
+        IOException gateway = new GithubStatusCodeException("Bad gateway", HttpStatus.SC_BAD_GATEWAY);
+        assertSame(gateway, assertThrows(IOException.class, () -> new GithubRetryPolicy(false).onFailure(gateway)));
+
+        new GithubRetryPolicy(false).onFailure(new ConnectException("Connection refused"));
+        new GithubRetryPolicy(true).onFailure(timeout);
+    }
+
+    @Test
+    public void testRetryAfterIsRespected() throws IOException {
+        long start = System.currentTimeMillis();
+        IOException e = new GithubStatusCodeException("Unavailable", HttpStatus.SC_SERVICE_UNAVAILABLE, start + 200);
+        // the server asked to come back later, so even a request changing data was not processed
+        new GithubRetryPolicy(false).onFailure(e);
+
+        assertTrue(System.currentTimeMillis() - start >= 200);
+    }
+
+    @Test
+    public void testRetryAfterPastDeadlineIsNotWaited() {
+        IOException e = new GithubStatusCodeException(
+            "Unavailable",
+            HttpStatus.SC_SERVICE_UNAVAILABLE,
+            System.currentTimeMillis() + 60000
+        );
+        long start = System.currentTimeMillis();
+        assertSame(e, assertThrows(IOException.class, () -> new GithubRetryPolicy(true).onFailure(e)));
+        assertTrue(System.currentTimeMillis() - start < 1000);
+    }
+
+    @Test
+    public void testRateLimitIsWaitedOutOnlyIfItsEndIsKnown() throws IOException {
+        IOException unknown = new GithubRateLimitException("Rate limit", 403, 0);
+        assertSame(unknown, assertThrows(IOException.class, () -> new GithubRetryPolicy(true).onFailure(unknown)));
+
+        new GithubRetryPolicy(true).onFailure(new GithubRateLimitException("Rate limit", 403, System.currentTimeMillis() + 100));
+    }
+
+    @Test
+    public void testInterruptionIsNotRetried() {
+        IOException interrupted = new InterruptedIOException("Aborted");
+        assertSame(interrupted, assertThrows(IOException.class, () -> new GithubRetryPolicy(true).onFailure(interrupted)));
+
+        IOException e = new ConnectException("Connection refused");
+        Thread.currentThread().interrupt();
+        try {
+            assertSame(e, assertThrows(IOException.class, () -> new GithubRetryPolicy(true).onFailure(e)));
+        }
+        finally {
+            Thread.interrupted();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.jetbrains.plugins.github.api;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Response of a scripted {@link GithubTransport}.
+ */
+public class GithubTestResponse implements GithubHttpResponse {
+    private final int myStatusCode;
+    private final Map<String, String> myHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    @Nullable
+    private final String myBody;
+
+    public GithubTestResponse(int statusCode, @Nullable String body) {
+        myStatusCode = statusCode;
+        myBody = body;
+    }
+
+    @Nonnull
+    public GithubTestResponse withHeader(@Nonnull String name, @Nonnull String value) {
+        myHeaders.put(name, value);
+        return this;
+    }
+
+    @Override
+    public int getStatusCode() {
+        return myStatusCode;
+    }
+
+    @Nonnull
+    @Override
+    public String getStatusText() {
+        return "Status " + myStatusCode;
+    }
+
+    @Nullable
+    @Override
+    public String getHeader(@Nonnull String name) {
+        return myHeaders.get(name);
+    }
+
+    @Nullable
+    @Override
+    public InputStream getBody() {
+        return myBody == null ? null : new ByteArrayInputStream(myBody.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void close() {
+    }
+}
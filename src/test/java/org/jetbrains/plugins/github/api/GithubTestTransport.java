@@ -0,0 +1,64 @@
+package org.jetbrains.plugins.github.api;
+
+import jakarta.annotation.Nonnull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Transport answering the requests with a script, installed for a host of its own, so tests don't share
+ * the cached responses and rate limits of a host.
+ */
+public class GithubTestTransport implements GithubTransport, AutoCloseable {
+    private static final AtomicInteger ourHostCounter = new AtomicInteger();
+
+    @FunctionalInterface
+    public interface Handler {
+        /**
+         * @param path request path relative to the API url
+         */
+        @Nonnull
+        GithubHttpResponse handle(@Nonnull String path, @Nonnull GithubHttpRequest request) throws IOException;
+    }
+
+    @Nonnull
+    private final String myHost = "github-" + ourHostCounter.incrementAndGet() + ".example.com";
+    @Nonnull
+    private final Handler myHandler;
+    private final List<String> myRequests = new CopyOnWriteArrayList<>();
+
+    public GithubTestTransport(@Nonnull Handler handler) {
+        myHandler = handler;
+        GithubTransports.setTransport(myHost, this);
+    }
+
+    @Nonnull
+    public String getHost() {
+        return myHost;
+    }
+
+    /**
+     * @return paths of the requests received so far, relative to the API url
+     */
+    @Nonnull
+    public List<String> getRequests() {
+        return new ArrayList<>(myRequests);
+    }
+
+    @Nonnull
+    @Override
+    public GithubHttpResponse execute(@Nonnull GithubHttpRequest request) throws IOException {
+        String apiUrl = "https://" + myHost + "/api/v3";
+        String path = request.getUri().startsWith(apiUrl) ? request.getUri().substring(apiUrl.length()) : request.getUri();
+        myRequests.add(path);
+        return myHandler.handle(path, request);
+    }
+
+    @Override
+    public void close() {
+        GithubTransports.setTransport(myHost, null);
+    }
+}
@@ -0,0 +1,107 @@
+package org.jetbrains.plugins.github.api;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.jetbrains.plugins.github.util.GithubAuthData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GithubTraceRecorderTest {
+    @AfterEach
+    public void tearDown() {
+        GithubTraceRecorder.getInstance().stop();
+    }
+
+    @Test
+    public void testRequestsAreGroupedByActionRun() throws IOException {
+        try (GithubTestTransport transport = new GithubTestTransport((path, request) -> new GithubTestResponse(200, "[]"))) {
+            GithubAuthData auth = GithubAuthData.createTokenAuth(transport.getHost(), "token");
+            GithubTraceRecorder recorder = GithubTraceRecorder.getInstance();
+            recorder.start();
+
+            GithubTraceRecorder.actionStarted("Share on GitHub");
+            getBranches(auth, "first");
+            GithubRequestContext.action("Tasks", () -> getBranches(auth, "second"));
+            // a request of the earlier action, made after another one has started, stays on the page of its run
+            GithubTraceRecorder.actionStarted("Create Gist");
+            GithubRequestContext.action("Share on GitHub", () -> getBranches(auth, "third"));
+            getBranches(auth, "fourth");
+            // every run of an action has a page of its own
+            GithubTraceRecorder.actionStarted("Share on GitHub");
+            getBranches(auth, "fifth");
+            GithubRequestContext.action("Share on GitHub", () -> getBranches(auth, "sixth"));
+
+            List<String> titles = new ArrayList<>();
+            List<List<String>> pages = getRequestsByPage(recorder, titles);
+            assertEquals(List.of("Share on GitHub", "Tasks", "Share on GitHub", "Create Gist", "Share on GitHub", "Share on GitHub"), titles);
+            String[] repos = {"first", "second", "third", "fourth", "fifth", "sixth"};
+            for (int i = 0; i < repos.length; i++) {
+                assertEquals(1, pages.get(i).size());
+                assertTrue(pages.get(i).get(0).contains("/" + repos[i] + "/"));
+            }
+        }
+    }
+
+    @Test
+    public void testRequestsOfRunningActionGoOnItsPageAfterRestart() throws IOException {
+        try (GithubTestTransport transport = new GithubTestTransport((path, request) -> new GithubTestResponse(200, "[]"))) {
+            GithubAuthData auth = GithubAuthData.createTokenAuth(transport.getHost(), "token");
+            GithubTraceRecorder recorder = GithubTraceRecorder.getInstance();
+            recorder.start();
+
+            GithubRequestContext.action("Tasks", () -> {
+                getBranches(auth, "first");
+                recorder.start();
+                return getBranches(auth, "second");
+            });
+
+            List<String> titles = new ArrayList<>();
+            List<List<String>> pages = getRequestsByPage(recorder, titles);
+            assertEquals(List.of("Tasks"), titles);
+            assertEquals(1, pages.get(0).size());
+            assertTrue(pages.get(0).get(0).contains("/second/"));
+        }
+    }
+
+    private static List<GithubBranch> getBranches(GithubAuthData auth, String repo) throws IOException {
+        return new GithubApiUtil.PagedRequest<>("/repos/owner/" + repo + "/branches", GithubBranch.class, GithubBranchRaw.class)
+            .getAll(auth);
+    }
+
+    /**
+     * @param titles receives the titles of the pages
+     * @return urls of the recorded requests of every page, in the order of the pages
+     */
+    private static List<List<String>> getRequestsByPage(GithubTraceRecorder recorder, List<String> titles) throws IOException {
+        StringWriter writer = new StringWriter();
+        recorder.export(writer);
+        JsonObject log = JsonParser.parseString(writer.toString()).getAsJsonObject().getAsJsonObject("log");
+
+        Map<String, List<String>> requests = new HashMap<>();
+        List<List<String>> pages = new ArrayList<>();
+        for (JsonElement page : log.getAsJsonArray("pages")) {
+            titles.add(page.getAsJsonObject().get("title").getAsString());
+            List<String> urls = new ArrayList<>();
+            assertNull(requests.put(page.getAsJsonObject().get("id").getAsString(), urls), "page ids are unique");
+            pages.add(urls);
+        }
+        JsonArray entries = log.getAsJsonArray("entries");
+        for (JsonElement entry : entries) {
+            String pageId = entry.getAsJsonObject().get("pageref").getAsString();
+            String url = entry.getAsJsonObject().getAsJsonObject("request").get("url").getAsString();
+            requests.get(pageId).add(url);
+        }
+        return pages;
+    }
+}
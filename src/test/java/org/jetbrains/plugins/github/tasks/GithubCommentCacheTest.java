@@ -0,0 +1,141 @@
+package org.jetbrains.plugins.github.tasks;
+
+import org.jetbrains.plugins.github.api.GithubIssue;
+import org.jetbrains.plugins.github.api.GithubIssueComment;
+import org.jetbrains.plugins.github.api.GithubTestResponse;
+import org.jetbrains.plugins.github.api.GithubTestTransport;
+import org.jetbrains.plugins.github.api.GithubUser;
+import org.jetbrains.plugins.github.util.GithubAuthData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GithubCommentCacheTest {
+    private final GithubCommentCache myCache = new GithubCommentCache();
+    private final AtomicInteger myRequests = new AtomicInteger();
+    private volatile long myDelay;
+    // the first request is held, like a prefetch waiting for the rate limit
+    private volatile boolean myFirstRequestHeld;
+
+    private GithubTestTransport myTransport;
+
+    @BeforeEach
+    public void setUp() {
+        myTransport = new GithubTestTransport((path, request) -> {
+            int number = myRequests.incrementAndGet();
+            try {
+                Thread.sleep(myFirstRequestHeld && number == 1 ? 10_000 : myDelay);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            String account = request.getHeaders().get("Authorization");
+            return new GithubTestResponse(200, "[" + comment(account) + "]");
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        myTransport.close();
+    }
+
+    @Test
+    public void testPrefetchedCommentsAreNotRequestedAgain() throws IOException {
+        GithubAuthData auth = auth("token-1");
+        GithubIssue issue = issue(1, 2);
+        myCache.prefetch(auth, "owner", "repo", List.of(issue));
+
+        assertEquals(1, myCache.getComments(auth, "owner", "repo", issue).size());
+        assertEquals(1, myCache.getComments(auth, "owner", "repo", issue).size());
+        assertEquals(1, myRequests.get());
+    }
+
+    @Test
+    public void testIssueWithoutCommentsIsNotRequested() throws IOException {
+        assertTrue(myCache.getComments(auth("token-1"), "owner", "repo", issue(1, 0)).isEmpty());
+        assertEquals(0, myRequests.get());
+    }
+
+    @Test
+    public void testCommentsAreKeptPerAccount() throws IOException {
+        GithubIssue issue = issue(1, 2);
+
+        assertEquals("token token-1", getComment(auth("token-1"), issue));
+        assertEquals("token token-2", getComment(auth("token-2"), issue));
+        assertEquals(2, myRequests.get());
+    }
+
+    @Test
+    public void testCommentsAreKeptPerLogin() throws IOException {
+        GithubIssue issue = issue(1, 2);
+        String first = getComment(GithubAuthData.createBasicAuth(myTransport.getHost(), "first", "secret"), issue);
+        String second = getComment(GithubAuthData.createBasicAuth(myTransport.getHost(), "second", "secret"), issue);
+
+        assertNotEquals(first, second);
+        assertEquals(2, myRequests.get());
+    }
+
+    @Test
+    public void testSlowCommentsAreAwaitedIfNoneAreKnown() throws IOException {
+        myDelay = 1000;
+
+        assertEquals("token token-1", getComment(auth("token-1"), issue(1, 2)));
+    }
+
+    @Test
+    public void testPendingPrefetchIsReplacedByInteractiveLoad() throws IOException {
+        myFirstRequestHeld = true;
+        GithubAuthData auth = auth("token-1");
+        GithubIssue issue = issue(1, 2);
+        myCache.prefetch(auth, "owner", "repo", List.of(issue));
+
+        long start = System.currentTimeMillis();
+        assertEquals("token token-1", getComment(auth, issue));
+        assertTrue(System.currentTimeMillis() - start < 5000, "the comments waited for the prefetch");
+        assertEquals(2, myRequests.get());
+    }
+
+    private String getComment(GithubAuthData auth, GithubIssue issue) throws IOException {
+        List<GithubIssueComment> comments = myCache.getComments(auth, "owner", "repo", issue);
+        assertEquals(1, comments.size());
+        return comments.get(0).getBodyHtml();
+    }
+
+    private GithubAuthData auth(String token) {
+        return GithubAuthData.createTokenAuth(myTransport.getHost(), token);
+    }
+
+    private static GithubIssue issue(long number, int comments) {
+        GithubUser octocat = new GithubUser("octocat", "https://github.com/octocat", null);
+        return new GithubIssue(
+            "https://github.com/owner/repo/issues/" + number,
+            number,
+            "open",
+            "Issue " + number,
+            null,
+            octocat,
+            null,
+            List.of(),
+            List.of(),
+            comments,
+            null,
+            new Date(0),
+            new Date(0)
+        );
+    }
+
+    private static String comment(String body) {
+        return "{\"id\":1,\"html_url\":\"https://github.com/owner/repo/issues/1#issuecomment-1\"," +
+            "\"body_html\":\"" + body + "\",\"created_at\":\"2024-03-01T12:00:00Z\",\"updated_at\":\"2024-03-01T12:00:00Z\"," +
+            "\"user\":{\"login\":\"octocat\",\"html_url\":\"https://github.com/octocat\"}}";
+    }
+}
@@ -0,0 +1,149 @@
+package org.jetbrains.plugins.github.tasks;
+
+import org.jetbrains.plugins.github.api.GithubIssue;
+import org.jetbrains.plugins.github.api.GithubUser;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GithubIssueIndexTest {
+    @Test
+    public void testEveryWordMustMatch() {
+        GithubIssueIndex index = new GithubIssueIndex();
+        index.add(issue(1, "Cache invalidation", "", List.of()));
+        index.add(issue(2, "Cache size", "", List.of()));
+
+        assertEquals(List.of(1L), index.search("cache invalidation"));
+        assertEquals(List.of(), index.search("cache eviction"));
+        assertEquals(List.of(), index.search("  "));
+    }
+
+    @Test
+    public void testTitleRanksAboveBody() {
+        GithubIssueIndex index = new GithubIssueIndex();
+        index.add(issue(1, "Slow startup", "the settings dialog freezes", List.of()));
+        index.add(issue(2, "Settings dialog freezes", "", List.of()));
+        index.add(issue(3, "Unrelated", "", List.of()));
+
+        assertEquals(List.of(2L, 1L), index.search("settings"));
+    }
+
+    @Test
+    public void testExactMatchRanksAbovePrefix() {
+        GithubIssueIndex index = new GithubIssueIndex();
+        index.add(issue(1, "Request", "", List.of()));
+        index.add(issue(2, "Requests", "", List.of()));
+        index.add(issue(3, "Unrelated", "", List.of()));
+
+        assertEquals(List.of(1L, 2L), index.search("request"));
+        assertEquals(List.of(2L, 1L), index.search("requests"));
+    }
+
+    @Test
+    public void testNewestFirstAmongEqualMatches() {
+        GithubIssueIndex index = new GithubIssueIndex();
+        index.add(issue(7, "Crash", "", List.of()));
+        index.add(issue(12, "Crash", "", List.of()));
+        index.add(issue(9, "Crash", "", List.of()));
+
+        assertEquals(List.of(12L, 9L, 7L), index.search("crash"));
+    }
+
+    @Test
+    public void testNumberLabelAndAssigneeAreIndexed() {
+        GithubIssueIndex index = new GithubIssueIndex();
+        index.add(issue(42, "Crash", "", List.of("good first issue")));
+
+        assertEquals(List.of(42L), index.search("42"));
+        assertEquals(List.of(42L), index.search("first"));
+        assertEquals(List.of(42L), index.search("octocat"));
+    }
+
+    @Test
+    public void testEveryAssigneeIsIndexed() {
+        GithubIssueIndex index = new GithubIssueIndex();
+        index.add(issue(1, "Crash", "", List.of(), List.of(user("octocat"), user("hubot"))));
+        index.add(issue(2, "Crash", "", List.of(), List.of(user("octocat"))));
+
+        assertEquals(List.of(1L), index.search("hubot"));
+    }
+
+    @Test
+    public void testFuzzyMatch() {
+        GithubIssueIndex index = new GithubIssueIndex();
+        index.add(issue(1, "Authentication fails", "", List.of()));
+        index.add(issue(2, "Authorization", "", List.of()));
+        index.add(issue(3, "Rebase", "", List.of()));
+
+        // one typo in a word of four letters or more, two from eight letters on
+        assertEquals(List.of(1L), index.search("authentcation"));
+        assertEquals(List.of(1L), index.search("authentacition"));
+        assertEquals(List.of(3L), index.search("rebasr"));
+        assertEquals(List.of(), index.search("rebsae"));
+        // short words must match exactly
+        assertEquals(List.of(), index.search("reb4"));
+        // a typo in the first letter is not searched for
+        assertEquals(List.of(), index.search("eebase"));
+    }
+
+    @Test
+    public void testFuzzyMatchRanksBelowExact() {
+        GithubIssueIndex index = new GithubIssueIndex();
+        index.add(issue(1, "Rebase", "", List.of()));
+        index.add(issue(2, "Rebate", "", List.of()));
+
+        assertEquals(List.of(1L, 2L), index.search("rebase"));
+    }
+
+    @Test
+    public void testUpdatedIssueIsReindexed() {
+        GithubIssueIndex index = new GithubIssueIndex();
+        index.add(issue(1, "Old title", "", List.of()));
+        index.add(issue(1, "New title", "", List.of()));
+
+        assertEquals(List.of(), index.search("old"));
+        assertEquals(List.of(1L), index.search("new"));
+
+        index.remove(1);
+        assertEquals(List.of(), index.search("title"));
+    }
+
+    @Test
+    public void testQualifiers() {
+        assertTrue(GithubIssueIndex.hasQualifiers("label:bug"));
+        assertTrue(GithubIssueIndex.hasQualifiers("crash is:open"));
+        assertTrue(GithubIssueIndex.hasQualifiers("crash -author:octocat"));
+        assertFalse(GithubIssueIndex.hasQualifiers("crash on startup"));
+        assertFalse(GithubIssueIndex.hasQualifiers("fails with: NPE"));
+    }
+
+    private static GithubIssue issue(long number, String title, String body, List<String> labels) {
+        return issue(number, title, body, labels, List.of(user("octocat")));
+    }
+
+    private static GithubIssue issue(long number, String title, String body, List<String> labels, List<GithubUser> assignees) {
+        Date date = new Date(number * 1000);
+        return new GithubIssue(
+            "https://github.com/owner/repo/issues/" + number,
+            number,
+            "open",
+            title,
+            body,
+            user("octocat"),
+            assignees.get(0),
+            assignees,
+            labels,
+            0,
+            null,
+            date,
+            date
+        );
+    }
+
+    private static GithubUser user(String login) {
+        return new GithubUser(login, "https://github.com/" + login, null);
+    }
+}
@@ -0,0 +1,108 @@
+package org.jetbrains.plugins.github.tasks;
+
+import org.jetbrains.plugins.github.api.GithubRequestContext;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GithubIssueQueriesTest {
+    private final GithubIssueQueries myQueries = new GithubIssueQueries();
+
+    @Test
+    public void testLocalAnswerIsNotDebounced() throws IOException {
+        long start = System.currentTimeMillis();
+        String result = myQueries.run("crash", null, () -> "local", () -> {
+            throw new AssertionError("the network is not needed");
+        });
+
+        assertEquals("local", result);
+        assertTrue(System.currentTimeMillis() - start < 250, "the local answer waited for the debounce");
+    }
+
+    @Test
+    public void testRemoteWaitsForUserToStopTyping() throws IOException {
+        long start = System.currentTimeMillis();
+        String result = myQueries.run("crash", null, () -> null, () -> "remote");
+
+        assertEquals("remote", result);
+        assertTrue(System.currentTimeMillis() - start >= 300, "the network was asked before the debounce");
+    }
+
+    @Test
+    public void testQueriesWithoutTextAreNotDebounced() throws IOException {
+        long start = System.currentTimeMillis();
+        String result = myQueries.run(null, null, () -> null, () -> "remote");
+
+        assertEquals("remote", result);
+        assertTrue(System.currentTimeMillis() - start < 250, "the query without text waited for the debounce");
+    }
+
+    @Test
+    public void testSupersededQueryDoesNotGoToNetwork() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> run("cr", () -> null, () -> {
+            requests.incrementAndGet();
+            return "cr";
+        }));
+        Thread.sleep(100);
+        String second = myQueries.run("crash", null, () -> null, () -> {
+            requests.incrementAndGet();
+            return "crash";
+        });
+
+        assertNull(first.get(1, TimeUnit.SECONDS));
+        assertEquals("crash", second);
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void testRunningQueryIsCancelledBySupersedingOne() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> run("cr", () -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            }
+            catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return "cr";
+        }, () -> "cr"));
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        long start = System.currentTimeMillis();
+        assertEquals("crash", myQueries.run("crash", null, () -> "crash", () -> "crash"));
+        assertNull(first.get(1, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - start < 1000);
+        // the caller of the superseded query returns as soon as it is cancelled, the operation stops on its own thread
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS), "the superseded operation was not interrupted");
+    }
+
+    @Test
+    public void testSameQueryIsNotSuperseded() throws Exception {
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> run("crash", () -> null, () -> "first page"));
+        Thread.sleep(100);
+        assertEquals("second page", myQueries.run("crash", null, () -> null, () -> "second page"));
+        assertEquals("first page", first.get(1, TimeUnit.SECONDS));
+    }
+
+    private String run(
+        String query,
+        GithubRequestContext.Request<String> local,
+        GithubRequestContext.Request<String> remote
+    ) {
+        try {
+            return myQueries.run(query, null, local, remote);
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package org.jetbrains.plugins.github.tasks;
+
+import org.jetbrains.plugins.github.api.GithubIssue;
+import org.jetbrains.plugins.github.api.GithubTestResponse;
+import org.jetbrains.plugins.github.api.GithubTestTransport;
+import org.jetbrains.plugins.github.util.GithubAuthData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GithubIssueStoreTest {
+    private static final Pattern SINCE_PARAMETER = Pattern.compile("[?&]since=([^&]*)");
+    private static final Instant CREATED = Instant.parse("2024-03-01T12:00:00Z");
+
+    private final List<Instant> mySince = new CopyOnWriteArrayList<>();
+    private volatile List<String> myOpenIssues = new ArrayList<>();
+    private volatile List<String> myUpdates = new ArrayList<>();
+    private volatile int myUpdateStatus = 200;
+    private volatile CountDownLatch myUpdateReceived;
+    private volatile CountDownLatch myUpdateReleased;
+
+    private TimeZone myTimeZone;
+    private GithubTestTransport myTransport;
+    private GithubAuthData myAuth;
+
+    @BeforeEach
+    public void setUp() {
+        myTimeZone = TimeZone.getDefault();
+        myTransport = new GithubTestTransport((path, request) -> {
+            Matcher since = SINCE_PARAMETER.matcher(path);
+            if (!since.find()) {
+                return issues(myOpenIssues);
+            }
+            mySince.add(Instant.parse(URLDecoder.decode(since.group(1), StandardCharsets.UTF_8)));
+            CountDownLatch released = myUpdateReleased;
+            if (released != null) {
+                myUpdateReceived.countDown();
+                try {
+                    released.await(10, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return myUpdateStatus == 200 ? issues(myUpdates) : new GithubTestResponse(myUpdateStatus, "{\"message\":\"Not Found\"}");
+        });
+        myAuth = GithubAuthData.createTokenAuth(myTransport.getHost(), "token");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TimeZone.setDefault(myTimeZone);
+        myTransport.close();
+    }
+
+    @Test
+    public void testDatesAreUtcInAnyTimeZone() throws Exception {
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Tokyo"));
+        myOpenIssues = List.of(issue(1, "open", "First", CREATED));
+        GithubIssueStore store = new GithubIssueStore(0);
+
+        Instant loadStart = Instant.now();
+        List<GithubIssue> issues = waitForLoad(store);
+        assertEquals(CREATED, issues.get(0).getUpdatedAt().toInstant());
+
+        // the initial mark is the start of the load, less the allowance for the server clock
+        Instant since = mySince.get(0);
+        assertFalse(since.isAfter(loadStart), since + " is after the start of the load " + loadStart);
+        assertTrue(since.isAfter(loadStart.minus(1, ChronoUnit.HOURS)), since + " is far before the start of the load " + loadStart);
+    }
+
+    @Test
+    public void testUpdatesAreMergedAndMoveHighWaterMark() throws Exception {
+        myOpenIssues = List.of(issue(1, "open", "First", CREATED), issue(2, "open", "Second", CREATED));
+        GithubIssueStore store = new GithubIssueStore(0);
+        waitForLoad(store);
+
+        Instant updated = Instant.now().plus(1, ChronoUnit.MINUTES).truncatedTo(ChronoUnit.SECONDS);
+        myUpdates = List.of(issue(1, "closed", "First", updated.minusSeconds(1)), issue(2, "open", "Second renamed", updated));
+        List<GithubIssue> issues = getIssues(store);
+        assertEquals(1, issues.size());
+        assertEquals("Second renamed", issues.get(0).getTitle());
+
+        // an update older than the stored state, e.g. from an overlapping sync, does not win
+        myUpdates = List.of(issue(2, "open", "Second", CREATED));
+        assertEquals("Second renamed", getIssues(store).get(0).getTitle());
+        assertEquals(updated, mySince.get(mySince.size() - 1));
+        assertEquals("Second renamed", getIssues(store).get(0).getTitle());
+        assertEquals(updated, mySince.get(mySince.size() - 1));
+    }
+
+    @Test
+    public void testUpdatesAreNotRequestedWithinSyncInterval() throws Exception {
+        myOpenIssues = List.of(issue(1, "open", "First", CREATED));
+        GithubIssueStore store = new GithubIssueStore(TimeUnit.HOURS.toMillis(1));
+        // the initial load marks the sync time, the first update comes after the interval
+        waitForLoad(store);
+        assertTrue(mySince.isEmpty());
+        assertEquals(1, getIssues(store).size());
+        assertTrue(mySince.isEmpty());
+    }
+
+    @Test
+    public void testFailedSyncDoesNotDelayTheNextOne() throws Exception {
+        myOpenIssues = List.of(issue(1, "open", "First", CREATED));
+        GithubIssueStore store = new GithubIssueStore(200);
+        waitForLoad(store);
+        Thread.sleep(250);
+        int requests = mySince.size();
+
+        myUpdateStatus = 404;
+        assertThrows(IOException.class, () -> getIssues(store));
+        myUpdateStatus = 200;
+        myUpdates = List.of(issue(1, "open", "First renamed", Instant.now().truncatedTo(ChronoUnit.SECONDS)));
+        assertEquals("First renamed", getIssues(store).get(0).getTitle());
+        assertEquals(requests + 2, mySince.size());
+    }
+
+    @Test
+    public void testUpdatesOfEarlierLoadAreDropped() throws Exception {
+        myOpenIssues = List.of(issue(1, "open", "First", CREATED));
+        GithubIssueStore store = new GithubIssueStore(0);
+        waitForLoad(store);
+
+        // an update requested for the first load is received after the store has been loaded again
+        Instant future = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.SECONDS);
+        myUpdates = List.of(issue(1, "open", "First", future));
+        myUpdateReceived = new CountDownLatch(1);
+        myUpdateReleased = new CountDownLatch(1);
+        CompletableFuture<List<GithubIssue>> update = CompletableFuture.supplyAsync(() -> {
+            try {
+                return getIssues(store);
+            }
+            catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertTrue(myUpdateReceived.await(10, TimeUnit.SECONDS));
+        assertNull(store.getAssignedIssues(myAuth, "owner", "other", "user", 0, 100));
+        assertNull(getIssues(store));
+        myUpdateReleased.countDown();
+        update.get(10, TimeUnit.SECONDS);
+        myUpdateReleased = null;
+        myUpdates = List.of();
+
+        int requests = mySince.size();
+        waitForLoad(store);
+        getIssues(store);
+        assertTrue(mySince.size() > requests);
+        for (Instant since : mySince.subList(requests, mySince.size())) {
+            assertTrue(since.isBefore(future), "the mark of the earlier load is used: " + since);
+        }
+    }
+
+    @Test
+    public void testIssuesOfEveryAssigneeAreListed() throws Exception {
+        myOpenIssues = List.of(
+            assignedIssue(1, "other", "user"),
+            assignedIssue(2, "user", "other"),
+            assignedIssue(3, "other"),
+            issue(4, "open", "Single assignee", CREATED)
+        );
+        GithubIssueStore store = new GithubIssueStore(0);
+
+        List<Long> numbers = new ArrayList<>();
+        for (GithubIssue issue : waitForLoad(store)) {
+            numbers.add(issue.getNumber());
+        }
+        assertEquals(List.of(4L, 2L, 1L), numbers);
+    }
+
+    @Test
+    public void testSearchWithQualifiersIsLeftToSearchApi() throws Exception {
+        myOpenIssues = List.of(issue(1, "open", "Crash", CREATED));
+        GithubIssueStore store = new GithubIssueStore(0);
+        waitForLoad(store);
+
+        assertEquals(1, store.search(myAuth, "owner", "repo", "crash", 0, 10).size());
+        assertNull(store.search(myAuth, "owner", "repo", "crash label:bug", 0, 10));
+    }
+
+    private List<GithubIssue> getIssues(GithubIssueStore store) throws IOException {
+        return store.getAssignedIssues(myAuth, "owner", "repo", "user", 0, 100);
+    }
+
+    private List<GithubIssue> waitForLoad(GithubIssueStore store) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            List<GithubIssue> issues = getIssues(store);
+            if (issues != null) {
+                return issues;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("The issues are not loaded");
+    }
+
+    private static GithubTestResponse issues(List<String> issues) {
+        return new GithubTestResponse(200, "[" + String.join(",", issues) + "]");
+    }
+
+    private static String assignedIssue(long number, String... assignees) {
+        List<String> users = new ArrayList<>();
+        for (String login : assignees) {
+            users.add("{\"login\":\"" + login + "\",\"html_url\":\"https://github.com/" + login + "\"}");
+        }
+        return "{\"number\":" + number + ",\"state\":\"open\",\"title\":\"Issue " + number + "\"," +
+            "\"html_url\":\"https://github.com/owner/repo/issues/" + number + "\"," +
+            "\"user\":{\"login\":\"author\",\"html_url\":\"https://github.com/author\"}," +
+            "\"assignee\":" + users.get(0) + ",\"assignees\":[" + String.join(",", users) + "]," +
+            "\"created_at\":\"" + CREATED + "\",\"updated_at\":\"" + CREATED + "\"}";
+    }
+
+    private static String issue(long number, String state, String title, Instant updatedAt) {
+        return "{\"number\":" + number + ",\"state\":\"" + state + "\",\"title\":\"" + title + "\"," +
+            "\"html_url\":\"https://github.com/owner/repo/issues/" + number + "\"," +
+            "\"user\":{\"login\":\"author\",\"html_url\":\"https://github.com/author\"}," +
+            "\"assignee\":{\"login\":\"user\",\"html_url\":\"https://github.com/user\"}," +
+            "\"created_at\":\"" + CREATED + "\",\"updated_at\":\"" + updatedAt + "\"}";
+    }
+}